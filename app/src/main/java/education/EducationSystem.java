@@ -0,0 +1,8786 @@
+package education;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+// Main class
+public class EducationSystem {
+    public static void main(String[] args) {
+        // Non-interactive mode: --batch [file], reading commands from stdin without a file
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args.length > 1 ? Paths.get(args[1]) : null));
+        }
+        // Dataset mode: --generate students [courses] [seed]
+        if (args.length > 1 && args[0].equals("--generate")) {
+            int students = Integer.parseInt(args[1]);
+            int courses = args.length > 2 ? Integer.parseInt(args[2]) : DatasetGenerator.defaultCourses(students);
+            System.exit(generate(students, courses, args.length > 3 ? Long.parseLong(args[3]) : 42));
+        }
+        // HTTP mode: --serve [port]
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+        
+        System.out.println("\n\n");
+        printBanner();
+        
+        EducationService service = new EducationService();
+        Scanner scanner = new Scanner(System.in);
+        boolean running = true;
+        
+        // Restore saved data, or initialize sample data on first start
+        Path dataDirectory = Paths.get(System.getProperty("education.data", "."));
+        if (!service.openDataLog(dataDirectory)) {
+            service.initializeSampleData();
+        }
+        service.publishMetrics(System.out);
+        
+        while (running) {
+            printMainMenu();
+            System.out.print("\nEnter your choice (0-12): ");
+            
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                // Without a timer thread, assignments past their due date are
+                // marked overdue before each action
+                service.expireOverdue();
+                
+                switch (choice) {
+                    case 1 -> service.studentManagement();
+                    case 2 -> service.courseManagement();
+                    case 3 -> service.instructorManagement();
+                    case 4 -> service.enrollmentManagement();
+                    case 5 -> service.assignmentManagement();
+                    case 6 -> service.gradeManagement();
+                    case 7 -> service.searchManagement();
+                    case 8 -> service.viewStatistics();
+                    case 9 -> service.viewAllData();
+                    case 10 -> service.importExportManagement();
+                    case 11 -> service.viewPerformanceMetrics();
+                    case 12 -> service.viewScoreAnalytics();
+                    case 0 -> {
+                        System.out.println("\nExiting Education Automation System...");
+                        System.out.println("Thank you for using the system!");
+                        running = false;
+                    }
+                    default -> System.out.println("\nInvalid choice! Please enter 0-12.");
+                }
+                if (service.getJournal() != null) service.getJournal().checkpointIfDue();
+            } catch (NumberFormatException e) {
+                System.out.println("\nPlease enter a valid number!");
+            }
+        }
+        
+        scanner.close();
+        service.close();
+        System.out.println("\nProgram terminated successfully.");
+    }
+    
+    // Results go to stdout and everything else to stderr. A data directory without
+    // saved data starts empty rather than with the sample data.
+    static int runBatch(Path commands) {
+        EducationService service = new EducationService();
+        service.openDataLog(Paths.get(System.getProperty("education.data", ".")), System.err);
+        service.publishMetrics(System.err);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        long start = System.nanoTime();
+        try (CsvReader in = commands != null ? new CsvReader(commands) : new CsvReader(Channels.newChannel(System.in))) {
+            CommandInterpreter interpreter = new CommandInterpreter(service, out);
+            if (commands == null) in.setBeforeRead(interpreter::commit);
+            interpreter.run(in);
+            System.err.printf("Ran %d commands (%d failed) in %d ms%n", interpreter.getCommands(),
+                              interpreter.getFailures(), (System.nanoTime() - start) / 1_000_000);
+            return interpreter.getFailures() == 0 ? 0 : 1;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return 2;
+        } finally {
+            service.close();
+        }
+    }
+    
+    // Writes a generated dataset as the snapshot of a data directory that holds no
+    // data yet, so later runs against the directory start from it
+    static int generate(int students, int courses, long seed) {
+        Path directory = Paths.get(System.getProperty("education.data", "."));
+        Path snapshot = directory.resolve("education.snap");
+        Path log = directory.resolve("education.wal");
+        try {
+            if (Files.exists(snapshot) || Files.exists(log) && Files.size(log) > 0) {
+                System.err.println("Data directory " + directory + " already holds data");
+                return 1;
+            }
+            long start = System.nanoTime();
+            EducationService service = new EducationService();
+            new DatasetGenerator(seed, students, courses).fill(service);
+            long generated = System.nanoTime();
+            Files.createDirectories(directory);
+            Snapshot.write(snapshot, service, 1);
+            System.err.printf("Generated %d students, %d courses, %d instructors, %d enrollments, %d assignments and "
+                              + "%d grades in %d ms; snapshot written in %d ms%n",
+                              service.students().size(), service.courses().size(), service.instructors().size(),
+                              service.enrollments().size(), service.assignments().size(), service.grades().size(),
+                              (generated - start) / 1_000_000, (System.nanoTime() - generated) / 1_000_000);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not generate the dataset: " + e.getMessage());
+            return 2;
+        }
+    }
+    
+    // Runs until the process is stopped; the shutdown hook drains requests and
+    // closes the data log. A data directory without saved data starts empty.
+    static void serve(int port) {
+        EducationService service = new EducationService();
+        service.openDataLog(Paths.get(System.getProperty("education.data", ".")));
+        service.publishMetrics(System.out);
+        ConcurrentEducationService shared = new ConcurrentEducationService(service);
+        try {
+            ApiServer server = new ApiServer(shared, new InetSocketAddress(port));
+            DueDateTimer timer = new DueDateTimer(shared, service.dueDates());
+            server.start();
+            timer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                timer.close();
+                shared.close();
+            }));
+            System.out.println("Serving http://localhost:" + server.getAddress().getPort() + "/api/ (" +
+                               server.getExecutorDescription() + "); press Ctrl+C to stop");
+        } catch (IOException e) {
+            System.out.println("Could not start the HTTP server: " + e.getMessage());
+            shared.close();
+        }
+    }
+    
+    public static void clearScreen() {
+        System.out.print("\033[H\033[2J");
+        System.out.flush();
+    }
+    
+    public static void printBanner() {
+        System.out.println("\u001B[36m");
+        System.out.println("╔══════════════════════════════════════════════════════════════════════════════════════════════════════╗");
+        System.out.println("║                                                                                                      ║");
+        System.out.println("║                     EDUCATION AUTOMATION SYSTEM - TERMINAL VERSION                                   ║");
+        System.out.println("║                                                                                                      ║");
+        System.out.println("╚══════════════════════════════════════════════════════════════════════════════════════════════════════╝");
+        System.out.println("\u001B[0m");
+        System.out.println();
+    }
+    
+    public static void printMainMenu() {
+        System.out.println("\n╔══════════════════════════════════════════════════════════════════════╗");
+        System.out.println("║                      MAIN MENU - EDUCATION SYSTEM                     ║");
+        System.out.println("╠══════════════════════════════════════════════════════════════════════╣");
+        System.out.println("║                                                                      ║");
+        System.out.println("║   1. 📝 Student Management                                           ║");
+        System.out.println("║   2. 📚 Course Management                                            ║");
+        System.out.println("║   3. 👨‍🏫 Instructor Management                                        ║");
+        System.out.println("║   4. 🎓 Enrollment Management                                        ║");
+        System.out.println("║   5. 📝 Assignment Management                                        ║");
+        System.out.println("║   6. 📈 Grade Management                                             ║");
+        System.out.println("║   7. 🔍 Search Management                                            ║");
+        System.out.println("║   8. 📊 System Statistics                                            ║");
+        System.out.println("║   9. 📋 View All Data                                                ║");
+        System.out.println("║  10. 📥 Import / Export Data                                         ║");
+        System.out.println("║  11. 🚀 Performance Metrics                                          ║");
+        System.out.println("║  12. 🔬 Score Analytics                                              ║");
+        System.out.println("║   0. 🚪 Exit System                                                  ║");
+        System.out.println("║                                                                      ║");
+        System.out.println("╚══════════════════════════════════════════════════════════════════════╝");
+    }
+    
+    public static void printSectionTitle(String title) {
+        int width = 70;
+        int padding = (width - title.length() - 4) / 2;
+        
+        System.out.println("\n╔" + "═".repeat(width) + "╗");
+        System.out.print("║");
+        System.out.print(" ".repeat(padding));
+        System.out.print(" " + title + " ");
+        System.out.print(" ".repeat(width - padding - title.length() - 3));
+        System.out.println("║");
+        System.out.println("╚" + "═".repeat(width) + "╝");
+    }
+    
+    public static void pressEnterToContinue() {
+        System.out.print("\nPress Enter to continue...");
+        try {
+            System.in.read();
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+}
+
+// Model classes
+class Student {
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
+    private int studentId;
+    private String studentNumber;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private LocalDateTime createdAt;
+    private EntityListener<Student> listener;
+    
+    public Student(String firstName, String lastName, String email, String phone) {
+        this.studentId = idCounter.getAndIncrement();
+        this.studentNumber = "STU" + String.format("%04d", studentId);
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Restores a persisted student under its original ID
+    Student(int studentId, String firstName, String lastName, String email, String phone, LocalDateTime createdAt) {
+        this.studentId = studentId;
+        idCounter.accumulateAndGet(studentId + 1, Math::max);
+        this.studentNumber = "STU" + String.format("%04d", studentId);
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.createdAt = createdAt;
+    }
+    
+    static int getNextId() { return idCounter.get(); }
+    static void setNextId(int nextId) { idCounter.set(nextId); }
+    
+    public int getStudentId() { return studentId; }
+    public String getStudentNumber() { return studentNumber; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+    public String getEmail() { return email; }
+    public String getPhone() { return phone; }
+    public String getCreatedAt() { 
+        return createdAt.format(TableRenderer.TIMESTAMP); 
+    }
+    LocalDateTime getCreatedAtTime() { return createdAt; }
+    
+    public void setFirstName(String firstName) {
+        String oldValue = this.firstName;
+        this.firstName = firstName;
+        changed("firstName", oldValue, firstName);
+    }
+    public void setLastName(String lastName) {
+        String oldValue = this.lastName;
+        this.lastName = lastName;
+        changed("lastName", oldValue, lastName);
+    }
+    public void setEmail(String email) {
+        String oldValue = this.email;
+        this.email = email;
+        changed("email", oldValue, email);
+    }
+    public void setPhone(String phone) {
+        String oldValue = this.phone;
+        this.phone = phone;
+        changed("phone", oldValue, phone);
+    }
+    
+    void setListener(EntityListener<Student> listener) { this.listener = listener; }
+    
+    private void changed(String field, Object oldValue, Object newValue) {
+        if (listener != null) listener.updated(this, field, oldValue, newValue);
+    }
+    
+    static final TableLayout<Student> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, s) ->
+        row.cell(s.studentId).cell(s.studentNumber).cell(s.firstName).cell(s.lastName)
+            .cell(s.email).cell(s.phone).cell(s.createdAt));
+    
+    @Override
+    public String toString() {
+        return TABLE.format(this);
+    }
+    
+    public static String getHeader() {
+        return "┌────────┬────────────┬─────────────────┬─────────────────┬───────────────────────────┬─────────────────┬─────────────────────┐\n" +
+               "│   ID   │ Student No │ First Name      │ Last Name       │ Email                    │ Phone           │ Created At          │\n" +
+               "├────────┼────────────┼─────────────────┼─────────────────┼───────────────────────────┼─────────────────┼─────────────────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└────────┴────────────┴─────────────────┴─────────────────┴───────────────────────────┴─────────────────┴─────────────────────┘";
+    }
+}
+
+class Course {
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
+    private int courseId;
+    private String courseCode;
+    private String courseName;
+    private String description;
+    private int credits;
+    private String department;
+    private LocalDateTime createdAt;
+    private EntityListener<Course> listener;
+    
+    public Course(String courseCode, String courseName, String description, int credits, String department) {
+        this.courseId = idCounter.getAndIncrement();
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.description = description;
+        this.credits = credits;
+        this.department = department;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Restores a persisted course under its original ID
+    Course(int courseId, String courseCode, String courseName, String description, int credits, String department,
+           LocalDateTime createdAt) {
+        this.courseId = courseId;
+        idCounter.accumulateAndGet(courseId + 1, Math::max);
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.description = description;
+        this.credits = credits;
+        this.department = department;
+        this.createdAt = createdAt;
+    }
+    
+    static int getNextId() { return idCounter.get(); }
+    static void setNextId(int nextId) { idCounter.set(nextId); }
+    
+    public int getCourseId() { return courseId; }
+    public String getCourseCode() { return courseCode; }
+    public String getCourseName() { return courseName; }
+    public String getDescription() { return description; }
+    public int getCredits() { return credits; }
+    public String getDepartment() { return department; }
+    public String getCreatedAt() { 
+        return createdAt.format(TableRenderer.TIMESTAMP); 
+    }
+    LocalDateTime getCreatedAtTime() { return createdAt; }
+    
+    public void setCourseName(String courseName) {
+        String oldValue = this.courseName;
+        this.courseName = courseName;
+        changed("courseName", oldValue, courseName);
+    }
+    public void setDescription(String description) {
+        String oldValue = this.description;
+        this.description = description;
+        changed("description", oldValue, description);
+    }
+    public void setCredits(int credits) {
+        int oldValue = this.credits;
+        this.credits = credits;
+        changed("credits", oldValue, credits);
+    }
+    public void setDepartment(String department) {
+        String oldValue = this.department;
+        this.department = department;
+        changed("department", oldValue, department);
+    }
+    
+    void setListener(EntityListener<Course> listener) { this.listener = listener; }
+    
+    private void changed(String field, Object oldValue, Object newValue) {
+        if (listener != null) listener.updated(this, field, oldValue, newValue);
+    }
+    
+    static final TableLayout<Course> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, c) ->
+        row.cell(c.courseId).cell(c.courseCode).cell(c.courseName).truncatedCell(c.description)
+            .cell(c.credits).cell(c.department).cell(c.createdAt));
+    
+    @Override
+    public String toString() {
+        return TABLE.format(this);
+    }
+    
+    public static String getHeader() {
+        return "┌────────┬──────────────┬───────────────────────────┬───────────────────────────────────────┬─────────┬─────────────────┬─────────────────────┐\n" +
+               "│   ID   │ Course Code  │ Course Name               │ Description                          │ Credits │ Department      │ Created At          │\n" +
+               "├────────┼──────────────┼───────────────────────────┼───────────────────────────────────────┼─────────┼─────────────────┼─────────────────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└────────┴──────────────┴───────────────────────────┴───────────────────────────────────────┴─────────┴─────────────────┴─────────────────────┘";
+    }
+}
+
+class Instructor {
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
+    private int instructorId;
+    private String identifier;
+    private String name;
+    private String status;
+    private String location;
+    private String contact;
+    private String email;
+    private String specialization;
+    private LocalDateTime assignedSince;
+    private int assignedCourseId = -1;
+    private EntityListener<Instructor> listener;
+    
+    public Instructor(String name, String contact, String email, String specialization) {
+        this.instructorId = idCounter.getAndIncrement();
+        this.identifier = "INS" + String.format("%04d", instructorId);
+        this.name = name;
+        this.status = "ACTIVE";
+        this.location = "Not Specified";
+        this.contact = contact;
+        this.email = email;
+        this.specialization = specialization;
+        this.assignedSince = LocalDateTime.now();
+    }
+    
+    // Restores a persisted instructor under its original ID
+    Instructor(int instructorId, String name, String status, String location, String contact, String email,
+               String specialization, LocalDateTime assignedSince, int assignedCourseId) {
+        this.instructorId = instructorId;
+        idCounter.accumulateAndGet(instructorId + 1, Math::max);
+        this.identifier = "INS" + String.format("%04d", instructorId);
+        this.name = name;
+        this.status = status;
+        this.location = location;
+        this.contact = contact;
+        this.email = email;
+        this.specialization = specialization;
+        this.assignedSince = assignedSince;
+        this.assignedCourseId = assignedCourseId;
+    }
+    
+    static int getNextId() { return idCounter.get(); }
+    static void setNextId(int nextId) { idCounter.set(nextId); }
+    
+    public int getInstructorId() { return instructorId; }
+    public String getIdentifier() { return identifier; }
+    public String getName() { return name; }
+    public String getStatus() { return status; }
+    public String getLocation() { return location; }
+    public String getContact() { return contact; }
+    public String getEmail() { return email; }
+    public String getSpecialization() { return specialization; }
+    public String getAssignedSince() { 
+        return assignedSince.format(TableRenderer.TIMESTAMP); 
+    }
+    LocalDateTime getAssignedSinceTime() { return assignedSince; }
+    public int getAssignedCourseId() { return assignedCourseId; }
+    
+    public void setName(String name) {
+        String oldValue = this.name;
+        this.name = name;
+        changed("name", oldValue, name);
+    }
+    public void setStatus(String status) {
+        String oldValue = this.status;
+        this.status = status;
+        changed("status", oldValue, status);
+    }
+    public void setLocation(String location) {
+        String oldValue = this.location;
+        this.location = location;
+        changed("location", oldValue, location);
+    }
+    public void setContact(String contact) {
+        String oldValue = this.contact;
+        this.contact = contact;
+        changed("contact", oldValue, contact);
+    }
+    public void setEmail(String email) {
+        String oldValue = this.email;
+        this.email = email;
+        changed("email", oldValue, email);
+    }
+    public void setSpecialization(String specialization) {
+        String oldValue = this.specialization;
+        this.specialization = specialization;
+        changed("specialization", oldValue, specialization);
+    }
+    public void setAssignedCourseId(int assignedCourseId) {
+        int oldValue = this.assignedCourseId;
+        this.assignedCourseId = assignedCourseId;
+        changed("assignedCourseId", oldValue, assignedCourseId);
+    }
+    
+    void setListener(EntityListener<Instructor> listener) { this.listener = listener; }
+    
+    private void changed(String field, Object oldValue, Object newValue) {
+        if (listener != null) listener.updated(this, field, oldValue, newValue);
+    }
+    
+    static final TableLayout<Instructor> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, i) ->
+        row.cell(i.instructorId).cell(i.identifier).cell(i.name).cell(i.status).cell(i.location)
+            .cell(i.contact).cell(i.email).cell(i.specialization).cell(i.assignedSince));
+    
+    @Override
+    public String toString() {
+        return TABLE.format(this);
+    }
+    
+    public static String getHeader() {
+        return "┌────────┬────────────┬───────────────────────────┬────────────┬─────────────────┬─────────────────┬───────────────────────────┬─────────────────┬─────────────────────┐\n" +
+               "│   ID   │ Identifier │ Name                      │ Status     │ Location        │ Contact         │ Email                    │ Specialization  │ Assigned Since      │\n" +
+               "├────────┼────────────┼───────────────────────────┼────────────┼─────────────────┼─────────────────┼───────────────────────────┼─────────────────┼─────────────────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└────────┴────────────┴───────────────────────────┴────────────┴─────────────────┴─────────────────┴───────────────────────────┴─────────────────┴─────────────────────┘";
+    }
+}
+
+enum EnrollmentStatus { PENDING, APPROVED, REJECTED, COMPLETED }
+
+enum AssignmentStatus { PENDING, SUBMITTED, GRADED, OVERDUE }
+
+// An enrollment is detached while it is being built and becomes a view over one
+// record of an EnrollmentStore once added; from then on getters and setters go to
+// the store.
+class Enrollment {
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
+    private int enrollmentId;
+    private String description;
+    private LocalDateTime date;
+    private EnrollmentStatus status;
+    private String remarks;
+    private int studentId;
+    private int courseId;
+    private EnrollmentStore store;
+    private int row;
+    
+    public Enrollment(int studentId, int courseId, String description) {
+        this.enrollmentId = idCounter.getAndIncrement();
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.description = description;
+        this.date = LocalDateTime.now();
+        this.status = EnrollmentStatus.PENDING;
+        this.remarks = "Awaiting approval";
+    }
+    
+    // Restores a persisted enrollment under its original ID
+    Enrollment(int enrollmentId, int studentId, int courseId, String description, LocalDateTime date,
+               EnrollmentStatus status, String remarks) {
+        this.enrollmentId = enrollmentId;
+        idCounter.accumulateAndGet(enrollmentId + 1, Math::max);
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.description = description;
+        this.date = date;
+        this.status = status;
+        this.remarks = remarks;
+    }
+    
+    // View over a stored record
+    Enrollment(EnrollmentStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+    
+    static int getNextId() { return idCounter.get(); }
+    static void setNextId(int nextId) { idCounter.set(nextId); }
+    
+    public int getEnrollmentId() { return store == null ? enrollmentId : store.idAt(row); }
+    // Padded by hand rather than with String.format: exports and tables ask for it on every row
+    public String getReferenceId() {
+        String digits = Integer.toString(getEnrollmentId());
+        StringBuilder reference = new StringBuilder(7 + digits.length()).append("ENR");
+        for (int i = digits.length(); i < 4; i++) reference.append('0');
+        return reference.append(digits).toString();
+    }
+    public String getDescription() { return store == null ? description : store.descriptionAt(row); }
+    public String getDate() { 
+        LocalDateTime time = getDateTime();
+        return time == null ? null : time.format(TableRenderer.TIMESTAMP); 
+    }
+    LocalDateTime getDateTime() { return store == null ? date : store.dateTimeAt(row); }
+    public EnrollmentStatus getStatus() { return store == null ? status : store.statusAt(row); }
+    public String getRemarks() { return store == null ? remarks : store.remarksAt(row); }
+    public int getStudentId() { return store == null ? studentId : store.studentIdAt(row); }
+    public int getCourseId() { return store == null ? courseId : store.courseIdAt(row); }
+    
+    public void setDescription(String description) {
+        if (store != null) store.setDescription(this, row, description);
+        else this.description = description;
+    }
+    public void setStatus(EnrollmentStatus status) {
+        if (store != null) store.setStatus(this, row, status);
+        else this.status = status;
+    }
+    public void setRemarks(String remarks) {
+        if (store != null) store.setRemarks(this, row, remarks);
+        else this.remarks = remarks;
+    }
+    
+    void attach(EnrollmentStore store, int row) {
+        if (this.store != null) throw new IllegalStateException("Enrollment " + getEnrollmentId() + " is already stored");
+        this.store = store;
+        this.row = row;
+        this.description = null;
+        this.date = null;
+        this.status = null;
+        this.remarks = null;
+    }
+    
+    static final TableLayout<Enrollment> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, e) ->
+        row.cell(e.getEnrollmentId()).cell(e.getReferenceId()).truncatedCell(e.getDescription()).cell(e.getDateTime())
+            .cell(e.getStatus().name()).truncatedCell(e.getRemarks()).cell(e.getStudentId()).cell(e.getCourseId()));
+    
+    @Override
+    public String toString() {
+        return TABLE.format(this);
+    }
+    
+    public static String getHeader() {
+        return "┌────────┬────────────┬────────────────────────────────┬─────────────────────┬────────────┬────────────────────────────────┬──────────┬──────────┐\n" +
+               "│   ID   │ Reference  │ Description                   │ Date                │ Status     │ Remarks                        │ Student  │ Course   │\n" +
+               "│        │            │                               │                     │            │                                │   ID     │   ID     │\n" +
+               "├────────┼────────────┼────────────────────────────────┼─────────────────────┼────────────┼────────────────────────────────┼──────────┼──────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└────────┴────────────┴────────────────────────────────┴─────────────────────┴────────────┴────────────────────────────────┴──────────┴──────────┘";
+    }
+}
+
+class Assignment {
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
+    private int assignmentId;
+    private String referenceId;
+    private String title;
+    private String description;
+    private LocalDateTime date;
+    private LocalDateTime dueDate;
+    private AssignmentStatus status;
+    private String remarks;
+    private int enrollmentId;
+    private EntityListener<Assignment> listener;
+    
+    public Assignment(int enrollmentId, String title, String description, LocalDateTime dueDate) {
+        this.assignmentId = idCounter.getAndIncrement();
+        this.referenceId = "ASS" + String.format("%04d", assignmentId);
+        this.enrollmentId = enrollmentId;
+        this.title = title;
+        this.description = description;
+        this.date = LocalDateTime.now();
+        this.dueDate = dueDate;
+        this.status = AssignmentStatus.PENDING;
+        this.remarks = "Not submitted";
+    }
+    
+    // Restores a persisted assignment under its original ID
+    Assignment(int assignmentId, int enrollmentId, String title, String description, LocalDateTime date,
+               LocalDateTime dueDate, AssignmentStatus status, String remarks) {
+        this.assignmentId = assignmentId;
+        idCounter.accumulateAndGet(assignmentId + 1, Math::max);
+        this.referenceId = "ASS" + String.format("%04d", assignmentId);
+        this.enrollmentId = enrollmentId;
+        this.title = title;
+        this.description = description;
+        this.date = date;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.remarks = remarks;
+    }
+    
+    static int getNextId() { return idCounter.get(); }
+    static void setNextId(int nextId) { idCounter.set(nextId); }
+    
+    public int getAssignmentId() { return assignmentId; }
+    public String getReferenceId() { return referenceId; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public String getDate() { 
+        return date.format(TableRenderer.TIMESTAMP); 
+    }
+    public String getDueDate() { 
+        return dueDate.format(TableRenderer.TIMESTAMP); 
+    }
+    LocalDateTime getDateTime() { return date; }
+    LocalDateTime getDueDateTime() { return dueDate; }
+    public AssignmentStatus getStatus() { return status; }
+    public String getRemarks() { return remarks; }
+    public int getEnrollmentId() { return enrollmentId; }
+    
+    public void setTitle(String title) {
+        String oldValue = this.title;
+        this.title = title;
+        changed("title", oldValue, title);
+    }
+    public void setDescription(String description) {
+        String oldValue = this.description;
+        this.description = description;
+        changed("description", oldValue, description);
+    }
+    public void setDueDate(LocalDateTime dueDate) {
+        LocalDateTime oldValue = this.dueDate;
+        this.dueDate = dueDate;
+        changed("dueDate", oldValue, dueDate);
+    }
+    public void setStatus(AssignmentStatus status) {
+        AssignmentStatus oldValue = this.status;
+        this.status = status;
+        changed("status", oldValue, status);
+    }
+    public void setRemarks(String remarks) {
+        String oldValue = this.remarks;
+        this.remarks = remarks;
+        changed("remarks", oldValue, remarks);
+    }
+    
+    void setListener(EntityListener<Assignment> listener) { this.listener = listener; }
+    
+    private void changed(String field, Object oldValue, Object newValue) {
+        if (listener != null) listener.updated(this, field, oldValue, newValue);
+    }
+    
+    static final TableLayout<Assignment> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, a) ->
+        row.cell(a.assignmentId).cell(a.referenceId).truncatedCell(a.title).truncatedCell(a.description)
+            .cell(a.date).cell(a.dueDate).cell(a.status.name()).truncatedCell(a.remarks).cell(a.enrollmentId));
+    
+    @Override
+    public String toString() {
+        return TABLE.format(this);
+    }
+    
+    public static String getHeader() {
+        return "┌────────┬────────────┬───────────────────────────┬───────────────────────────────────────┬─────────────────────┬─────────────────────┬────────────┬───────────────────────────┬──────────┐\n" +
+               "│   ID   │ Reference  │ Title                     │ Description                          │ Created Date       │ Due Date           │ Status     │ Remarks                   │ Enrollment│\n" +
+               "│        │            │                           │                                       │                    │                    │            │                           │   ID     │\n" +
+               "├────────┼────────────┼───────────────────────────┼───────────────────────────────────────┼─────────────────────┼─────────────────────┼────────────┼───────────────────────────┼──────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└────────┴────────────┴───────────────────────────┴───────────────────────────────────────┴─────────────────────┴─────────────────────┴────────────┴───────────────────────────┴──────────┘";
+    }
+}
+
+// A grade is detached while it is being built and becomes a view over one row of
+// a GradeStore once added; from then on getters and setters go to the store's columns.
+class Grade {
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
+    private static final String[] LETTERS = { "A", "B", "C", "D", "F" };
+    private int gradeId;
+    private double score;
+    private String comments;
+    private LocalDateTime createdAt;
+    private int assignmentId;
+    private int studentId;
+    private GradeStore store;
+    private int row;
+    
+    public Grade(int studentId, int assignmentId, double score, String comments) {
+        this.gradeId = idCounter.getAndIncrement();
+        this.studentId = studentId;
+        this.assignmentId = assignmentId;
+        this.score = score;
+        this.comments = comments;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Restores a persisted grade under its original ID
+    Grade(int gradeId, int studentId, int assignmentId, double score, String comments, LocalDateTime createdAt) {
+        this.gradeId = gradeId;
+        idCounter.accumulateAndGet(gradeId + 1, Math::max);
+        this.studentId = studentId;
+        this.assignmentId = assignmentId;
+        this.score = score;
+        this.comments = comments;
+        this.createdAt = createdAt;
+    }
+    
+    // View over a stored row
+    Grade(GradeStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+    
+    public static String letterFor(double score) {
+        return LETTERS[letterCode(score)];
+    }
+    
+    static byte letterCode(double score) {
+        if (score >= 90) return 0;
+        else if (score >= 80) return 1;
+        else if (score >= 70) return 2;
+        else if (score >= 60) return 3;
+        else return 4;
+    }
+    
+    static String letter(byte code) { return LETTERS[code]; }
+    
+    static int getNextId() { return idCounter.get(); }
+    static void setNextId(int nextId) { idCounter.set(nextId); }
+    
+    public int getGradeId() { return store == null ? gradeId : store.idAt(row); }
+    public double getScore() { return store == null ? score : store.scoreAt(row); }
+    public String getGrade() { return store == null ? letterFor(score) : store.letterAt(row); }
+    public String getComments() { return store == null ? comments : store.commentsAt(row); }
+    public String getCreatedAt() { 
+        LocalDateTime time = getCreatedAtTime();
+        return time == null ? null : time.format(TableRenderer.TIMESTAMP); 
+    }
+    LocalDateTime getCreatedAtTime() { return store == null ? createdAt : store.createdAtTimeAt(row); }
+    public int getAssignmentId() { return store == null ? assignmentId : store.assignmentIdAt(row); }
+    public int getStudentId() { return store == null ? studentId : store.studentIdAt(row); }
+    
+    public void setScore(double score) { 
+        if (store != null) store.setScore(this, row, score);
+        else this.score = score;
+    }
+    public void setComments(String comments) {
+        if (store != null) store.setComments(this, row, comments);
+        else this.comments = comments;
+    }
+    
+    void attach(GradeStore store, int row) {
+        if (this.store != null) throw new IllegalStateException("Grade " + getGradeId() + " is already stored");
+        this.store = store;
+        this.row = row;
+        this.comments = null;
+        this.createdAt = null;
+    }
+    
+    static final TableLayout<Grade> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, g) ->
+        row.cell(g.getGradeId()).cell(g.getScore(), 2).cell(g.getGrade()).truncatedCell(g.getComments())
+            .cell(g.getCreatedAtTime()).cell(g.getAssignmentId()).cell(g.getStudentId()));
+    
+    @Override
+    public String toString() {
+        return TABLE.format(this);
+    }
+    
+    public static String getHeader() {
+        return "┌────────┬──────────┬───────┬──────────────────────────────────────────┬─────────────────────┬──────────┬──────────┐\n" +
+               "│   ID   │ Score    │ Grade │ Comments                                 │ Created At          │ Assign.  │ Student  │\n" +
+               "│        │          │       │                                          │                     │   ID     │   ID     │\n" +
+               "├────────┼──────────┼───────┼──────────────────────────────────────────┼─────────────────────┼──────────┼──────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└────────┴──────────┴───────┴──────────────────────────────────────────┴─────────────────────┴──────────┴──────────┘";
+    }
+}
+
+// Rendering
+// Column layout of one box-drawn table. Cell widths are read from the top border
+// of the table's header, so rows always line up with it.
+class TableLayout<T> {
+    private final String header;
+    private final String footer;
+    private final int[] widths;
+    private final BiConsumer<TableRenderer, T> cells;
+    
+    public TableLayout(String header, String footer, BiConsumer<TableRenderer, T> cells) {
+        this.header = header;
+        this.footer = footer;
+        this.cells = cells;
+        String border = header.substring(1, header.indexOf('\n') - 1);
+        String[] columns = border.split("┬");
+        widths = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) widths[i] = columns[i].length() - 2;
+    }
+    
+    public String getHeader() { return header; }
+    public String getFooter() { return footer; }
+    int[] widths() { return widths; }
+    
+    void cells(TableRenderer renderer, T row) {
+        cells.accept(renderer, row);
+    }
+    
+    // Renders a single row, for toString
+    public String format(T row) {
+        return new TableRenderer(256).format(this, row);
+    }
+}
+
+// Writes padded table cells into one reusable StringBuilder and hands it to stdout
+// in large blocks rather than one println per row. Timestamps go through a single
+// cached formatter and numbers are appended without String.format.
+class TableRenderer {
+    static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BLOCK_CHARS = 1 << 16;
+    
+    private final StringBuilder out;
+    private final OperationStats renderStats;
+    private int[] widths;
+    private int column;
+    private int cellStart;
+    
+    public TableRenderer() {
+        this(BLOCK_CHARS + 4096);
+    }
+    
+    // Times every printed table under the given stats
+    public TableRenderer(OperationStats renderStats) {
+        this(BLOCK_CHARS + 4096, renderStats);
+    }
+    
+    TableRenderer(int capacity) {
+        this(capacity, null);
+    }
+    
+    private TableRenderer(int capacity, OperationStats renderStats) {
+        out = new StringBuilder(capacity);
+        this.renderStats = renderStats;
+    }
+    
+    // Prints header, one line per row and footer
+    public <T> void print(TableLayout<T> layout, Iterable<? extends T> rows) {
+        long started = System.nanoTime();
+        out.append(layout.getHeader()).append('\n');
+        for (T row : rows) {
+            appendRow(layout, row);
+            if (out.length() >= BLOCK_CHARS) flush();
+        }
+        out.append(layout.getFooter()).append('\n');
+        flush();
+        if (renderStats != null) renderStats.record(started);
+    }
+    
+    <T> String format(TableLayout<T> layout, T row) {
+        appendRow(layout, row);
+        String line = out.substring(0, out.length() - 1);
+        out.setLength(0);
+        return line;
+    }
+    
+    public TableRenderer cell(String value) {
+        startCell();
+        if (value != null) out.append(value);
+        return endCell();
+    }
+    
+    // Cuts values longer than the column to fit, ending them with "..."
+    public TableRenderer truncatedCell(String value) {
+        int width = widths[column];
+        if (value == null || value.length() <= width) return cell(value);
+        startCell();
+        out.append(value, 0, width - 3).append("...");
+        return endCell();
+    }
+    
+    public TableRenderer cell(long value) {
+        startCell();
+        out.append(value);
+        return endCell();
+    }
+    
+    public TableRenderer cell(LocalDateTime value) {
+        startCell();
+        if (value != null) TIMESTAMP.formatTo(value, out);
+        return endCell();
+    }
+    
+    // Fixed-point cell rounded half-up like %.nf
+    public TableRenderer cell(double value, int decimals) {
+        startCell();
+        appendFixed(value, decimals);
+        return endCell();
+    }
+    
+    private <T> void appendRow(TableLayout<T> layout, T row) {
+        widths = layout.widths();
+        column = 0;
+        out.append('│');
+        layout.cells(this, row);
+        out.append('\n');
+    }
+    
+    private void startCell() {
+        out.append(' ');
+        cellStart = out.length();
+    }
+    
+    private TableRenderer endCell() {
+        for (int pad = widths[column++] - (out.length() - cellStart); pad > 0; pad--) out.append(' ');
+        out.append(" │");
+        return this;
+    }
+    
+    // Rounds the shortest decimal representation of the value, which is what
+    // Formatter does for %f
+    private void appendFixed(double value, int decimals) {
+        int start = out.length();
+        out.append(value);
+        int dot = out.indexOf(".", start);
+        if (dot < 0 || out.indexOf("E", start) >= 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            out.setLength(start);
+            out.append(String.format("%." + decimals + "f", value));
+            return;
+        }
+        int fraction = out.length() - dot - 1;
+        if (fraction <= decimals) {
+            for (int i = fraction; i < decimals; i++) out.append('0');
+            return;
+        }
+        boolean roundUp = out.charAt(dot + 1 + decimals) >= '5';
+        out.setLength(decimals == 0 ? dot : dot + 1 + decimals);
+        if (!roundUp) return;
+        int i = out.length() - 1;
+        while (i >= start) {
+            char c = out.charAt(i);
+            if (c == '9') {
+                out.setCharAt(i--, '0');
+            } else if (c == '.') {
+                i--;
+            } else if (c == '-') {
+                break;
+            } else {
+                out.setCharAt(i, (char) (c + 1));
+                return;
+            }
+        }
+        out.insert(i + 1, '1');
+    }
+    
+    private void flush() {
+        System.out.append(out);
+        System.out.flush();
+        out.setLength(0);
+    }
+}
+
+// Repository layer
+class IntObjectMap<V> {
+    private static final int FREE_KEY = 0;
+    
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private boolean hasFreeKey;
+    private V freeValue;
+    
+    public IntObjectMap() {
+        this(16);
+    }
+    
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE_KEY) return hasFreeKey ? freeValue : null;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) return (V) values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+    
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == FREE_KEY) {
+            V previous = freeValue;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeValue = value;
+            return previous;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) / 2) rehash();
+        return null;
+    }
+    
+    public int size() { return size; }
+    
+    private void rehash() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == FREE_KEY) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+    
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
+
+class LongHashSet {
+    private static final long FREE_KEY = 0L;
+    
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean hasFreeKey;
+    
+    public LongHashSet() {
+        this(16);
+    }
+    
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+    
+    // Safe to race a resize, like IntIntMap.get
+    public boolean contains(long key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+    
+    public boolean add(long key) {
+        if (key == FREE_KEY) {
+            if (hasFreeKey) return false;
+            hasFreeKey = true;
+            size++;
+            return true;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > (mask + 1) / 2) rehash();
+        return true;
+    }
+    
+    public int size() { return size; }
+    
+    private void rehash() {
+        long[] oldKeys = keys;
+        keys = new long[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (long key : oldKeys) {
+            if (key == FREE_KEY) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = key;
+        }
+    }
+    
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
+
+class IntList {
+    private int[] values;
+    private int size;
+    
+    public IntList() {
+        this(4);
+    }
+    
+    public IntList(int initialCapacity) {
+        values = new int[Math.max(1, initialCapacity)];
+    }
+    
+    public void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+    
+    public int get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return values[index];
+    }
+    
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int[] toArray() { return Arrays.copyOf(values, size); }
+    
+    // Sorted-set operations, valid only when the list is kept in ascending order
+    public boolean addSorted(int value) {
+        if (size == 0 || values[size - 1] < value) {
+            add(value);
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) return false;
+        index = -index - 1;
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+    
+    public boolean removeSorted(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) return false;
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+    
+    // Up to limit elements greater than value, in order
+    public IntList after(int value, int limit) {
+        int from = value == Integer.MAX_VALUE ? size : seek(value + 1, 0);
+        int to = (int) Math.min(size, (long) from + limit);
+        IntList result = new IntList(Math.max(1, to - from));
+        for (int i = from; i < to; i++) result.add(values[i]);
+        return result;
+    }
+    
+    // Index of the first element >= value at or after from, or size if none
+    public int seek(int value, int from) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < size && values[high] < value) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(values, low, Math.min(high + 1, size), value);
+        return index >= 0 ? index : -index - 1;
+    }
+}
+
+// Compressed set of non-negative IDs in the style of a Roaring bitmap. IDs are
+// grouped by their high 16 bits and each group keeps its low 16 bits either as a
+// sorted char array while sparse or as a 65536-bit bitmap once it holds more than
+// ARRAY_MAX values. Intersections run group by group.
+class IdBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    
+    private int[] keys = new int[4];
+    private Object[] containers = new Object[4];
+    private int[] cardinalities = new int[4];
+    private int count;
+    private long cardinality;
+    
+    public static IdBitmap of(IntList ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (int i = 0; i < ids.size(); i++) bitmap.add(ids.get(i));
+        return bitmap;
+    }
+    
+    public boolean add(int id) {
+        int index = indexOf(id >>> 16);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, id >>> 16, new char[4]);
+        }
+        char low = (char) id;
+        int n = cardinalities[index];
+        if (containers[index] instanceof long[] words) {
+            if ((words[low >>> 6] & (1L << low)) != 0) return false;
+            words[low >>> 6] |= 1L << low;
+        } else {
+            char[] values = (char[]) containers[index];
+            int at = Arrays.binarySearch(values, 0, n, low);
+            if (at >= 0) return false;
+            at = -at - 1;
+            if (n == ARRAY_MAX) {
+                long[] words = toWords(values, n);
+                words[low >>> 6] |= 1L << low;
+                containers[index] = words;
+            } else {
+                if (n == values.length) {
+                    values = Arrays.copyOf(values, Math.min(ARRAY_MAX, n * 2));
+                    containers[index] = values;
+                }
+                System.arraycopy(values, at, values, at + 1, n - at);
+                values[at] = low;
+            }
+        }
+        cardinalities[index]++;
+        cardinality++;
+        return true;
+    }
+    
+    public boolean remove(int id) {
+        int index = indexOf(id >>> 16);
+        if (index < 0) return false;
+        char low = (char) id;
+        int n = cardinalities[index];
+        if (containers[index] instanceof long[] words) {
+            if ((words[low >>> 6] & (1L << low)) == 0) return false;
+            words[low >>> 6] &= ~(1L << low);
+            // Converting back only well below ARRAY_MAX keeps a group hovering
+            // around the limit from flipping representation on every change
+            if (n - 1 <= ARRAY_MAX / 2) containers[index] = toValues(words, n - 1);
+        } else {
+            char[] values = (char[]) containers[index];
+            int at = Arrays.binarySearch(values, 0, n, low);
+            if (at < 0) return false;
+            System.arraycopy(values, at + 1, values, at, n - at - 1);
+        }
+        cardinality--;
+        if (--cardinalities[index] == 0) removeContainer(index);
+        return true;
+    }
+    
+    public boolean contains(int id) {
+        int index = indexOf(id >>> 16);
+        if (index < 0) return false;
+        char low = (char) id;
+        if (containers[index] instanceof long[] words) return (words[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) containers[index], 0, cardinalities[index], low) >= 0;
+    }
+    
+    public long cardinality() { return cardinality; }
+    public boolean isEmpty() { return cardinality == 0; }
+    
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < count && j < other.count) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.and(keys[i], containers[i], cardinalities[i], other.containers[j], other.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    // Size of the intersection without materializing it
+    public long andCardinality(IdBitmap other) {
+        long total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < count && j < other.count) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += andCardinality(containers[i], cardinalities[i], other.containers[j], other.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+    
+    // IDs in ascending order
+    public IntList toList() {
+        IntList ids = new IntList((int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, cardinality)));
+        for (int i = 0; i < count; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof long[] words) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    for (long word = words[w]; word != 0; word &= word - 1) {
+                        ids.add(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    }
+                }
+            } else {
+                char[] values = (char[]) containers[i];
+                for (int k = 0; k < cardinalities[i]; k++) ids.add(high | values[k]);
+            }
+        }
+        return ids;
+    }
+    
+    // Up to limit IDs greater than id, ascending; groups below id are skipped, so a
+    // page costs its own size rather than the whole set's
+    public IntList after(int id, int limit) {
+        IntList ids = new IntList(Math.max(1, (int) Math.min(limit, cardinality)));
+        if (id == Integer.MAX_VALUE) return ids;
+        int start = Math.max(0, id + 1);
+        int index = indexOf(start >>> 16);
+        char from = (char) start;
+        if (index < 0) {
+            index = -index - 1;
+            from = 0;
+        }
+        for (; index < count && ids.size() < limit; index++, from = 0) {
+            int high = keys[index] << 16;
+            if (containers[index] instanceof long[] words) {
+                for (int w = from >>> 6; w < BITMAP_WORDS && ids.size() < limit; w++) {
+                    long word = w == from >>> 6 ? words[w] & (-1L << from) : words[w];
+                    for (; word != 0 && ids.size() < limit; word &= word - 1) {
+                        ids.add(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    }
+                }
+            } else {
+                char[] values = (char[]) containers[index];
+                int k = Arrays.binarySearch(values, 0, cardinalities[index], from);
+                for (k = k < 0 ? -k - 1 : k; k < cardinalities[index] && ids.size() < limit; k++) ids.add(high | values[k]);
+            }
+        }
+        return ids;
+    }
+    
+    private void and(int key, Object left, int leftCount, Object right, int rightCount) {
+        if (left instanceof long[] a && right instanceof long[] b) {
+            long[] words = new long[BITMAP_WORDS];
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                words[w] = a[w] & b[w];
+                n += Long.bitCount(words[w]);
+            }
+            if (n > ARRAY_MAX) append(key, words, n);
+            else if (n > 0) append(key, toValues(words, n), n);
+            return;
+        }
+        if (left instanceof long[]) {
+            Object swap = left;
+            left = right;
+            right = swap;
+            int swapCount = leftCount;
+            leftCount = rightCount;
+            rightCount = swapCount;
+        }
+        char[] a = (char[]) left;
+        char[] values = new char[Math.min(leftCount, rightCount)];
+        int n = 0;
+        if (right instanceof long[] words) {
+            for (int k = 0; k < leftCount; k++) {
+                if ((words[a[k] >>> 6] & (1L << a[k])) != 0) values[n++] = a[k];
+            }
+        } else {
+            char[] b = (char[]) right;
+            for (int x = 0, y = 0; x < leftCount && y < rightCount; ) {
+                if (a[x] < b[y]) x++;
+                else if (a[x] > b[y]) y++;
+                else {
+                    values[n++] = a[x];
+                    x++;
+                    y++;
+                }
+            }
+        }
+        if (n > 0) append(key, values, n);
+    }
+    
+    private static int andCardinality(Object left, int leftCount, Object right, int rightCount) {
+        if (left instanceof long[] a && right instanceof long[] b) {
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) n += Long.bitCount(a[w] & b[w]);
+            return n;
+        }
+        if (left instanceof long[]) return andCardinality(right, rightCount, left, leftCount);
+        char[] a = (char[]) left;
+        int n = 0;
+        if (right instanceof long[] words) {
+            for (int k = 0; k < leftCount; k++) {
+                if ((words[a[k] >>> 6] & (1L << a[k])) != 0) n++;
+            }
+        } else {
+            char[] b = (char[]) right;
+            for (int x = 0, y = 0; x < leftCount && y < rightCount; ) {
+                if (a[x] < b[y]) x++;
+                else if (a[x] > b[y]) y++;
+                else {
+                    n++;
+                    x++;
+                    y++;
+                }
+            }
+        }
+        return n;
+    }
+    
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+    
+    private void insertContainer(int index, int key, Object container) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            containers = Arrays.copyOf(containers, count * 2);
+            cardinalities = Arrays.copyOf(cardinalities, count * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, count - index);
+        System.arraycopy(containers, index, containers, index + 1, count - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, count - index);
+        keys[index] = key;
+        containers[index] = container;
+        cardinalities[index] = 0;
+        count++;
+    }
+    
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, count - index - 1);
+        System.arraycopy(cardinalities, index + 1, cardinalities, index, count - index - 1);
+        containers[--count] = null;
+    }
+    
+    private void append(int key, Object container, int n) {
+        insertContainer(count, key, container);
+        cardinalities[count - 1] = n;
+        cardinality += n;
+    }
+    
+    private static long[] toWords(char[] values, int n) {
+        long[] words = new long[BITMAP_WORDS];
+        for (int k = 0; k < n; k++) words[values[k] >>> 6] |= 1L << values[k];
+        return words;
+    }
+    
+    private static char[] toValues(long[] words, int n) {
+        char[] values = new char[Math.max(n, 4)];
+        int k = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                values[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+}
+
+interface EntityListener<T> {
+    void inserted(T entity);
+    
+    default void updated(T entity, String field, Object oldValue, Object newValue) {}
+}
+
+class IntIntMap {
+    private static final int FREE_KEY = 0;
+    
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasFreeKey;
+    private int freeValue;
+    private final int missingValue;
+    
+    public IntIntMap(int expectedSize, int missingValue) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        this.missingValue = missingValue;
+    }
+    
+    // Probes one array, masked by its own length, so a lookup racing a resize (an
+    // optimistic read in ConcurrentEducationService) stays in bounds, and ends
+    // because no table is ever more than half full
+    public int get(int key) {
+        if (key == FREE_KEY) return hasFreeKey ? freeValue : missingValue;
+        int[] keys = this.keys;
+        int[] values = this.values;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) return slot < values.length ? values[slot] : missingValue;
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+    
+    public void put(int key, int value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeValue = value;
+            return;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) / 2) rehash();
+    }
+    
+    public int size() { return size; }
+    
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == FREE_KEY) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+    
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
+
+// Common API of the entity stores the service keeps its data in
+interface EntityStore<T> extends Iterable<T> {
+    void add(T entity);
+    void addListener(EntityListener<T> listener);
+    T findById(int id);
+    boolean containsId(int id);
+    T get(int index);
+    
+    // Like get, but need not keep what it builds for the row
+    T peek(int index);
+    
+    int size();
+    List<T> asList();
+    
+    // Position of the row with the given ID, or -1
+    int positionOf(int id);
+    int idAt(int index);
+    
+    default boolean isEmpty() { return size() == 0; }
+    default Stream<T> stream() { return asList().stream(); }
+    
+    // Keyset pagination. Rows are kept in insertion order, which is ascending ID
+    // order because IDs are handed out increasingly. A page resumes right after
+    // (or ends right before) the row with the given ID, so it costs O(limit) however
+    // deep it is; afterId 0 starts at the first row.
+    default Page<T> pageAfter(int afterId, int limit) {
+        int position = positionOf(afterId);
+        int from = afterId == 0 ? 0 : position >= 0 ? position + 1 : lowerBound(afterId);
+        return page(from, Math.min(size(), from + limit));
+    }
+    
+    default Page<T> pageBefore(int beforeId, int limit) {
+        int position = positionOf(beforeId);
+        int to = position >= 0 ? position : lowerBound(beforeId);
+        return page(Math.max(0, to - limit), to);
+    }
+    
+    // First position whose ID is not below id, for IDs that are not in the index
+    private int lowerBound(int id) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (idAt(mid) < id) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+    
+    private Page<T> page(int from, int to) {
+        List<T> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) rows.add(get(i));
+        if (rows.isEmpty()) return new Page<>(rows, from, 0, 0, from > 0, false);
+        return new Page<>(rows, from, idAt(from), idAt(to - 1), from > 0, to < size());
+    }
+}
+
+// Insertion-ordered entity store with an ID -> position index. Rows restored from
+// a snapshot start out as empty slots and are materialized on first access.
+class Repository<T> implements EntityStore<T> {
+    private static final VarHandle ITEMS = MethodHandles.arrayElementVarHandle(Object[].class);
+    
+    private Object[] items = new Object[16];
+    private int size;
+    private final IntIntMap positions = new IntIntMap(16, -1);
+    private final List<EntityListener<T>> listeners = new ArrayList<>();
+    private final ToIntFunction<T> idOf;
+    private final BiConsumer<T, EntityListener<T>> binder;
+    private IntFunction<T> loader;
+    
+    private final List<T> view = new AbstractList<>() {
+        @Override
+        public T get(int index) { return Repository.this.get(index); }
+        
+        @Override
+        public int size() { return size; }
+    };
+    
+    private final EntityListener<T> dispatcher = new EntityListener<>() {
+        @Override
+        public void inserted(T entity) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).inserted(entity);
+            }
+        }
+        
+        @Override
+        public void updated(T entity, String field, Object oldValue, Object newValue) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).updated(entity, field, oldValue, newValue);
+            }
+        }
+    };
+    
+    public Repository(ToIntFunction<T> idOf) {
+        this(idOf, null);
+    }
+    
+    // The binder hands each inserted entity the listener its setters report changes to
+    public Repository(ToIntFunction<T> idOf, BiConsumer<T, EntityListener<T>> binder) {
+        this.idOf = idOf;
+        this.binder = binder;
+    }
+    
+    public void add(T entity) {
+        int id = idOf.applyAsInt(entity);
+        if (positions.get(id) >= 0) {
+            throw new IllegalArgumentException("Duplicate id: " + id);
+        }
+        if (size == items.length) items = Arrays.copyOf(items, size * 2);
+        positions.put(id, size);
+        items[size++] = entity;
+        if (binder != null) binder.accept(entity, dispatcher);
+        dispatcher.inserted(entity);
+    }
+    
+    // Registers rows whose entities the loader builds on first access. Listeners
+    // are not told about these rows; callers rebuild derived indexes themselves.
+    public void addLazy(int rows, IntUnaryOperator idAt, IntFunction<T> loader) {
+        if (size > 0) throw new IllegalStateException("Lazy rows must be loaded into an empty repository");
+        this.loader = loader;
+        items = new Object[Math.max(16, rows + rows / 4)];
+        for (int row = 0; row < rows; row++) {
+            int id = idAt.applyAsInt(row);
+            if (positions.get(id) >= 0) throw new IllegalArgumentException("Duplicate id: " + id);
+            positions.put(id, row);
+        }
+        size = rows;
+    }
+    
+    public void addListener(EntityListener<T> listener) {
+        listeners.add(listener);
+    }
+    
+    public T findById(int id) {
+        int position = positions.get(id);
+        return position < 0 ? null : get(position);
+    }
+    
+    public boolean containsId(int id) { return positions.get(id) >= 0; }
+    
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        Object[] items = this.items;
+        Object item = items[index];
+        if (item == null) {
+            T entity = loader.apply(index);
+            if (binder != null) binder.accept(entity, dispatcher);
+            // Readers sharing a read lock may materialize the same row; the first one wins
+            item = ITEMS.compareAndExchange(items, index, null, entity);
+            return item == null ? entity : (T) item;
+        }
+        return (T) item;
+    }
+    
+    // Like get, but a row that is not materialized yet is built for the caller only
+    // and not kept, so a full pass does not pull a lazy snapshot onto the heap
+    @SuppressWarnings("unchecked")
+    public T peek(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        Object item = items[index];
+        return item != null ? (T) item : loader.apply(index);
+    }
+    
+    public int positionOf(int id) { return positions.get(id); }
+    public int idAt(int index) { return idOf.applyAsInt(peek(index)); }
+    boolean isMaterialized(int index) { return items[index] != null; }
+    public int size() { return size; }
+    public List<T> asList() { return view; }
+    
+    @Override
+    public Iterator<T> iterator() { return view.iterator(); }
+}
+
+// Columnar grade storage: one primitive array per field instead of one object per
+// grade. Letter grades are byte codes, creation times epoch seconds (UTC) and comments
+// references into a deduplicated string pool. The Grade objects handed out are
+// flyweight views over a row.
+class GradeStore implements EntityStore<Grade> {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int MIN_COMPACTION_COMMENTS = 1 << 16;
+    
+    private int[] ids = new int[16];
+    private int[] studentIds = new int[16];
+    private int[] assignmentIds = new int[16];
+    private double[] scores = new double[16];
+    private byte[] letters = new byte[16];
+    private long[] createdAt = new long[16];
+    private int[] comments = new int[16];
+    private int size;
+    private final IntIntMap positions = new IntIntMap(16, -1);
+    private List<String> commentPool = new ArrayList<>();
+    private Map<String, Integer> commentRefs = new HashMap<>();
+    private int replacedComments;
+    private final List<EntityListener<Grade>> listeners = new ArrayList<>();
+    
+    private final List<Grade> view = new AbstractList<>() {
+        @Override
+        public Grade get(int index) { return GradeStore.this.get(index); }
+        
+        @Override
+        public int size() { return size; }
+    };
+    
+    // Copies a detached grade into the columns and turns it into a view of its row
+    public void add(Grade grade) {
+        LocalDateTime time = grade.getCreatedAtTime();
+        int row = addRow(grade.getGradeId(), grade.getStudentId(), grade.getAssignmentId(), grade.getScore(),
+                         grade.getComments(), time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC));
+        grade.attach(this, row);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).inserted(grade);
+        }
+    }
+    
+    // Appends a row without notifying listeners; used when restoring a snapshot
+    int addRow(int id, int studentId, int assignmentId, double score, String comment, long createdAtSeconds) {
+        if (positions.get(id) >= 0) throw new IllegalArgumentException("Duplicate id: " + id);
+        if (size == ids.length) grow();
+        ids[size] = id;
+        studentIds[size] = studentId;
+        assignmentIds[size] = assignmentId;
+        scores[size] = score;
+        letters[size] = Grade.letterCode(score);
+        createdAt[size] = createdAtSeconds;
+        comments[size] = commentRef(comment);
+        positions.put(id, size);
+        return size++;
+    }
+    
+    public void addListener(EntityListener<Grade> listener) {
+        listeners.add(listener);
+    }
+    
+    public Grade findById(int id) {
+        int position = positions.get(id);
+        return position < 0 ? null : new Grade(this, position);
+    }
+    
+    public boolean containsId(int id) { return positions.get(id) >= 0; }
+    
+    public Grade get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return new Grade(this, index);
+    }
+    
+    public Grade peek(int index) { return get(index); }
+    public int positionOf(int id) { return positions.get(id); }
+    public int size() { return size; }
+    public List<Grade> asList() { return view; }
+    
+    @Override
+    public Iterator<Grade> iterator() { return view.iterator(); }
+    
+    public int idAt(int row) { return ids[row]; }
+    public int studentIdAt(int row) { return studentIds[row]; }
+    public int assignmentIdAt(int row) { return assignmentIds[row]; }
+    public double scoreAt(int row) { return scores[row]; }
+    public String letterAt(int row) { return Grade.letter(letters[row]); }
+    public String commentsAt(int row) { return comments[row] < 0 ? null : commentPool.get(comments[row]); }
+    public long createdAtSecondsAt(int row) { return createdAt[row]; }
+    
+    public LocalDateTime createdAtTimeAt(int row) {
+        return createdAt[row] == NO_TIME ? null : LocalDateTime.ofEpochSecond(createdAt[row], 0, ZoneOffset.UTC);
+    }
+    
+    void setScore(Grade grade, int row, double score) {
+        double oldValue = scores[row];
+        scores[row] = score;
+        letters[row] = Grade.letterCode(score);
+        updated(grade, "score", oldValue, score);
+    }
+    
+    // Replaced comments are counted as garbage (an upper bound, as a comment can be
+    // shared). Once they outnumber both the live comments and the rows to rewrite, the
+    // pool is rebuilt, as EnrollmentStore rebuilds its string area.
+    void setComments(Grade grade, int row, String comment) {
+        String oldValue = commentsAt(row);
+        int ref = commentRef(comment);
+        if (comments[row] >= 0 && comments[row] != ref) replacedComments++;
+        comments[row] = ref;
+        int live = commentPool.size() - replacedComments;
+        if (replacedComments > Math.max(MIN_COMPACTION_COMMENTS, Math.max(live, size))) compactComments();
+        updated(grade, "comments", oldValue, comment);
+    }
+    
+    int commentPoolSize() { return commentPool.size(); }
+    
+    public double scoreSum() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) sum += scores[i];
+        return sum;
+    }
+    
+    public double averageScore() {
+        return size == 0 ? 0.0 : scoreSum() / size;
+    }
+    
+    // Number of grades per letter code (A, B, C, D, F)
+    public long[] letterHistogram() {
+        long[] histogram = new long[5];
+        for (int i = 0; i < size; i++) histogram[letters[i]]++;
+        return histogram;
+    }
+    
+    private void updated(Grade grade, String field, Object oldValue, Object newValue) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).updated(grade, field, oldValue, newValue);
+        }
+    }
+    
+    private void compactComments() {
+        List<String> pool = commentPool;
+        commentPool = new ArrayList<>();
+        commentRefs = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            if (comments[row] >= 0) comments[row] = commentRef(pool.get(comments[row]));
+        }
+        replacedComments = 0;
+    }
+    
+    private int commentRef(String comment) {
+        if (comment == null) return -1;
+        Integer ref = commentRefs.get(comment);
+        if (ref == null) {
+            ref = commentPool.size();
+            commentPool.add(comment);
+            commentRefs.put(comment, ref);
+        }
+        return ref;
+    }
+    
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        studentIds = Arrays.copyOf(studentIds, capacity);
+        assignmentIds = Arrays.copyOf(assignmentIds, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        letters = Arrays.copyOf(letters, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        comments = Arrays.copyOf(comments, capacity);
+    }
+}
+
+// Append-only UTF-8 string area in direct (off-heap) buffers. A string is stored as
+// [int length][bytes] and referenced by (chunk << 32 | offset). Recently stored values
+// are remembered so repeated descriptions and remarks are stored once. Replaced
+// values are not reclaimed in place; the owner copies its live values into a fresh
+// area once enough of them were replaced.
+class OffHeapStrings {
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int RECENT_VALUES = 4096;
+    
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long bytesUsed;
+    private final Map<String, Long> recent = new LinkedHashMap<>(RECENT_VALUES * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > RECENT_VALUES;
+        }
+    };
+    
+    public long add(String value) {
+        if (value == null) return -1;
+        Long known = recent.get(value);
+        if (known != null) return known;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int needed = 4 + bytes.length;
+        if (current == null || current.remaining() < needed) {
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_BYTES, needed));
+            chunks.add(current);
+        }
+        long ref = (long) (chunks.size() - 1) << 32 | current.position();
+        current.putInt(bytes.length).put(bytes);
+        bytesUsed += needed;
+        recent.put(value, ref);
+        return ref;
+    }
+    
+    public String get(long ref) {
+        if (ref < 0) return null;
+        ByteBuffer chunk = chunks.get((int) (ref >>> 32));
+        int offset = (int) ref;
+        int length = chunk.getInt(offset);
+        if (length < 0 || length > chunk.capacity() - offset - 4) throw new IllegalStateException("Bad string reference " + ref);
+        byte[] bytes = new byte[length];
+        chunk.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // Bytes taken by the value at ref, including its length prefix
+    public int sizeOf(long ref) {
+        return ref < 0 ? 0 : 4 + chunks.get((int) (ref >>> 32)).getInt((int) ref);
+    }
+    
+    public long bytesUsed() { return bytesUsed; }
+    
+    public long bytesReserved() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) total += chunk.capacity();
+        return total;
+    }
+}
+
+// Enrollments stored off the Java heap as fixed-width 40-byte records in direct
+// buffers, so millions of them add no objects for the garbage collector to trace:
+//   0 id, 4 student id, 8 course id (ints), 12 status code (byte),
+//   16 date (epoch seconds, UTC), 24 description, 32 remarks (string area references)
+// Status updates are written in place. Enrollment objects handed out are flyweight
+// views over a record.
+class EnrollmentStore implements EntityStore<Enrollment> {
+    private static final int RECORD_BYTES = 40;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final EnrollmentStatus[] STATUSES = EnrollmentStatus.values();
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+    
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private OffHeapStrings strings = new OffHeapStrings();
+    private long replacedBytes;
+    private final IntIntMap positions = new IntIntMap(16, -1);
+    private final List<EntityListener<Enrollment>> listeners = new ArrayList<>();
+    private int size;
+    
+    private final List<Enrollment> view = new AbstractList<>() {
+        @Override
+        public Enrollment get(int index) { return EnrollmentStore.this.get(index); }
+        
+        @Override
+        public int size() { return size; }
+    };
+    
+    // Copies a detached enrollment into a record and turns it into a view of it
+    public void add(Enrollment enrollment) {
+        LocalDateTime date = enrollment.getDateTime();
+        int row = addRow(enrollment.getEnrollmentId(), enrollment.getStudentId(), enrollment.getCourseId(),
+                         enrollment.getDescription(), date == null ? NO_TIME : date.toEpochSecond(ZoneOffset.UTC),
+                         enrollment.getStatus(), enrollment.getRemarks());
+        enrollment.attach(this, row);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).inserted(enrollment);
+        }
+    }
+    
+    // Appends a record without notifying listeners; used when restoring a snapshot
+    int addRow(int id, int studentId, int courseId, String description, long dateSeconds,
+               EnrollmentStatus status, String remarks) {
+        if (positions.get(id) >= 0) throw new IllegalArgumentException("Duplicate id: " + id);
+        byte statusCode = (byte) status.ordinal();
+        if (size >>> CHUNK_SHIFT == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_BYTES));
+        }
+        ByteBuffer chunk = chunk(size);
+        int at = offset(size);
+        chunk.putInt(at, id)
+             .putInt(at + 4, studentId)
+             .putInt(at + 8, courseId)
+             .put(at + 12, statusCode)
+             .putLong(at + 16, dateSeconds)
+             .putLong(at + 24, strings.add(description))
+             .putLong(at + 32, strings.add(remarks));
+        positions.put(id, size);
+        return size++;
+    }
+    
+    public void addListener(EntityListener<Enrollment> listener) {
+        listeners.add(listener);
+    }
+    
+    public Enrollment findById(int id) {
+        int position = positions.get(id);
+        return position < 0 ? null : new Enrollment(this, position);
+    }
+    
+    public boolean containsId(int id) { return positions.get(id) >= 0; }
+    
+    public Enrollment get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return new Enrollment(this, index);
+    }
+    
+    public Enrollment peek(int index) { return get(index); }
+    public int positionOf(int id) { return positions.get(id); }
+    public int size() { return size; }
+    public List<Enrollment> asList() { return view; }
+    
+    @Override
+    public Iterator<Enrollment> iterator() { return view.iterator(); }
+    
+    public int idAt(int row) { return chunk(row).getInt(offset(row)); }
+    public int studentIdAt(int row) { return chunk(row).getInt(offset(row) + 4); }
+    public int courseIdAt(int row) { return chunk(row).getInt(offset(row) + 8); }
+    public EnrollmentStatus statusAt(int row) { return STATUSES[chunk(row).get(offset(row) + 12)]; }
+    public long dateSecondsAt(int row) { return chunk(row).getLong(offset(row) + 16); }
+    public String descriptionAt(int row) { return strings.get(chunk(row).getLong(offset(row) + 24)); }
+    public String remarksAt(int row) { return strings.get(chunk(row).getLong(offset(row) + 32)); }
+    
+    public LocalDateTime dateTimeAt(int row) {
+        long seconds = dateSecondsAt(row);
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+    
+    public long offHeapBytes() {
+        return (long) chunks.size() * CHUNK_RECORDS * RECORD_BYTES + strings.bytesReserved();
+    }
+    
+    void setStatus(Enrollment enrollment, int row, EnrollmentStatus status) {
+        EnrollmentStatus oldValue = statusAt(row);
+        chunk(row).put(offset(row) + 12, (byte) status.ordinal());
+        updated(enrollment, "status", oldValue, status);
+    }
+    
+    void setDescription(Enrollment enrollment, int row, String description) {
+        String oldValue = descriptionAt(row);
+        replaceString(row, 24, description);
+        updated(enrollment, "description", oldValue, description);
+    }
+    
+    void setRemarks(Enrollment enrollment, int row, String remarks) {
+        String oldValue = remarksAt(row);
+        replaceString(row, 32, remarks);
+        updated(enrollment, "remarks", oldValue, remarks);
+    }
+    
+    // Replaced values are counted as garbage (an upper bound, as a value can be
+    // shared). Once they outweigh both the live values and the rows to rewrite, the
+    // string area is rebuilt, so it stays within a constant factor of its live size
+    // at amortized constant cost per update.
+    private void replaceString(int row, int field, String value) {
+        replacedBytes += strings.sizeOf(chunk(row).getLong(offset(row) + field));
+        chunk(row).putLong(offset(row) + field, strings.add(value));
+        long live = strings.bytesUsed() - replacedBytes;
+        if (replacedBytes > Math.max(MIN_COMPACTION_BYTES, Math.max(live, (long) size * 16))) compactStrings();
+    }
+    
+    // Copies every referenced value into a fresh area; the old buffers are freed once
+    // collected. Values are shared again as far as the area's recent-value cache finds them.
+    private void compactStrings() {
+        OffHeapStrings compacted = new OffHeapStrings();
+        for (int row = 0; row < size; row++) {
+            ByteBuffer chunk = chunk(row);
+            int at = offset(row);
+            chunk.putLong(at + 24, compacted.add(strings.get(chunk.getLong(at + 24))));
+            chunk.putLong(at + 32, compacted.add(strings.get(chunk.getLong(at + 32))));
+        }
+        strings = compacted;
+        replacedBytes = 0;
+    }
+    
+    private void updated(Enrollment enrollment, String field, Object oldValue, Object newValue) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).updated(enrollment, field, oldValue, newValue);
+        }
+    }
+    
+    private ByteBuffer chunk(int row) { return chunks.get(row >>> CHUNK_SHIFT); }
+    private static int offset(int row) { return (row & (CHUNK_RECORDS - 1)) * RECORD_BYTES; }
+}
+
+class Page<T> {
+    private final List<T> rows;
+    private final int offset;
+    private final int firstId;
+    private final int lastId;
+    private final boolean hasPrevious;
+    private final boolean hasNext;
+    
+    Page(List<T> rows, int offset, int firstId, int lastId, boolean hasPrevious, boolean hasNext) {
+        this.rows = rows;
+        this.offset = offset;
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.hasPrevious = hasPrevious;
+        this.hasNext = hasNext;
+    }
+    
+    public List<T> getRows() { return rows; }
+    public int getOffset() { return offset; }
+    public int getFirstId() { return firstId; }
+    public int getLastId() { return lastId; }
+    public boolean hasPrevious() { return hasPrevious; }
+    public boolean hasNext() { return hasNext; }
+    public boolean isEmpty() { return rows.isEmpty(); }
+}
+
+// Indexes
+class EnrollmentIndex implements EntityListener<Enrollment> {
+    private static final IntList NONE = new IntList(1);
+    
+    private final LongHashSet studentCourse = new LongHashSet();
+    private final IntObjectMap<IntList> byStudent = new IntObjectMap<>();
+    private final IntObjectMap<IntList> byCourse = new IntObjectMap<>();
+    
+    @Override
+    public void inserted(Enrollment enrollment) {
+        add(enrollment.getEnrollmentId(), enrollment.getStudentId(), enrollment.getCourseId());
+    }
+    
+    public void add(int enrollmentId, int studentId, int courseId) {
+        studentCourse.add(key(studentId, courseId));
+        postings(byStudent, studentId).add(enrollmentId);
+        postings(byCourse, courseId).add(enrollmentId);
+    }
+    
+    public boolean isEnrolled(int studentId, int courseId) {
+        return studentCourse.contains(key(studentId, courseId));
+    }
+    
+    // Enrollment IDs in insertion order; callers must not modify the returned list
+    public IntList enrollmentsOfStudent(int studentId) {
+        IntList ids = byStudent.get(studentId);
+        return ids != null ? ids : NONE;
+    }
+    
+    public IntList enrollmentsOfCourse(int courseId) {
+        IntList ids = byCourse.get(courseId);
+        return ids != null ? ids : NONE;
+    }
+    
+    private static IntList postings(IntObjectMap<IntList> map, int key) {
+        IntList ids = map.get(key);
+        if (ids == null) {
+            ids = new IntList();
+            map.put(key, ids);
+        }
+        return ids;
+    }
+    
+    private static long key(int studentId, int courseId) {
+        return ((long) studentId << 32) | (courseId & 0xFFFFFFFFL);
+    }
+}
+
+// One IdBitmap per status value, kept current through insert and status-change
+// events. Status filters and counts read a single bitmap; combined predicates
+// such as "approved enrollments in a course" intersect it with another bitmap.
+class StatusIndex<T, S extends Enum<S>> implements EntityListener<T> {
+    private final IdBitmap[] byStatus;
+    private final ToIntFunction<T> idOf;
+    private final Function<T, S> statusOf;
+    
+    StatusIndex(Class<S> type, ToIntFunction<T> idOf, Function<T, S> statusOf) {
+        this.byStatus = new IdBitmap[type.getEnumConstants().length];
+        for (int i = 0; i < byStatus.length; i++) byStatus[i] = new IdBitmap();
+        this.idOf = idOf;
+        this.statusOf = statusOf;
+    }
+    
+    @Override
+    public void inserted(T entity) {
+        add(idOf.applyAsInt(entity), statusOf.apply(entity));
+    }
+    
+    @Override
+    public void updated(T entity, String field, Object oldValue, Object newValue) {
+        if (!field.equals("status")) return;
+        int id = idOf.applyAsInt(entity);
+        if (oldValue != null) byStatus[((Enum<?>) oldValue).ordinal()].remove(id);
+        byStatus[((Enum<?>) newValue).ordinal()].add(id);
+    }
+    
+    public void add(int id, S status) {
+        byStatus[status.ordinal()].add(id);
+    }
+    
+    // Callers must not modify the returned bitmap
+    public IdBitmap withStatus(S status) {
+        return byStatus[status.ordinal()];
+    }
+    
+    public long count(S status) {
+        return byStatus[status.ordinal()].cardinality();
+    }
+}
+
+class SearchResults<T> {
+    private final List<T> hits;
+    private final int totalMatches;
+    
+    public SearchResults(List<T> hits, int totalMatches) {
+        this.hits = hits;
+        this.totalMatches = totalMatches;
+    }
+    
+    public List<T> getHits() { return hits; }
+    public int getTotalMatches() { return totalMatches; }
+    public boolean isEmpty() { return totalMatches == 0; }
+}
+
+// Trigram inverted index over student name, email and phone. Posting lists hold
+// student IDs in ascending order; a query intersects the lists of its trigrams and
+// verifies only the surviving candidates.
+class StudentSearchIndex implements EntityListener<Student> {
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int CONTAINS = 1;
+    
+    private final IntObjectMap<IntList> postings = new IntObjectMap<>(4096);
+    private final IntFunction<Student> lookup;
+    private final Iterable<Student> all;
+    
+    public StudentSearchIndex(IntFunction<Student> lookup, Iterable<Student> all) {
+        this.lookup = lookup;
+        this.all = all;
+    }
+    
+    @Override
+    public void inserted(Student student) {
+        add(student.getStudentId(), student.getFirstName(), student.getLastName(), student.getEmail(),
+            student.getPhone());
+    }
+    
+    public void add(int id, String firstName, String lastName, String email, String phone) {
+        addField(id, firstName);
+        addField(id, lastName);
+        addField(id, email);
+        addField(id, phone);
+    }
+    
+    @Override
+    public void updated(Student student, String field, Object oldValue, Object newValue) {
+        String first = student.getFirstName();
+        String last = student.getLastName();
+        String email = student.getEmail();
+        String phone = student.getPhone();
+        int[] after = trigramsOf(first, last, email, phone);
+        switch (field) {
+            case "firstName" -> first = (String) oldValue;
+            case "lastName" -> last = (String) oldValue;
+            case "email" -> email = (String) oldValue;
+            case "phone" -> phone = (String) oldValue;
+            default -> { return; }
+        }
+        int[] before = trigramsOf(first, last, email, phone);
+        
+        int id = student.getStudentId();
+        int i = 0, j = 0;
+        while (i < before.length || j < after.length) {
+            if (j == after.length || (i < before.length && before[i] < after[j])) {
+                IntList ids = postings.get(before[i++]);
+                if (ids != null) ids.removeSorted(id);
+            } else if (i == before.length || after[j] < before[i]) {
+                postingsFor(after[j++]).addSorted(id);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+    
+    public SearchResults<Student> search(String term, int limit) {
+        String needle = term.trim().toLowerCase(Locale.ROOT);
+        TopK top = new TopK(limit);
+        int matches = 0;
+        
+        if (needle.length() < 3) {
+            for (Student student : all) {
+                int score = score(student, needle);
+                if (score > 0) {
+                    matches++;
+                    top.offer(student.getStudentId(), score);
+                }
+            }
+        } else {
+            IntList[] lists = postingListsFor(needle);
+            if (lists == null) return new SearchResults<>(Collections.emptyList(), 0);
+            
+            IntList smallest = lists[0];
+            int[] cursors = new int[lists.length];
+            candidates:
+            for (int c = 0; c < smallest.size(); c++) {
+                int id = smallest.get(c);
+                for (int l = 1; l < lists.length; l++) {
+                    int position = lists[l].seek(id, cursors[l]);
+                    cursors[l] = position;
+                    if (position == lists[l].size()) break candidates;
+                    if (lists[l].get(position) != id) continue candidates;
+                }
+                Student student = lookup.apply(id);
+                int score = score(student, needle);
+                if (score > 0) {
+                    matches++;
+                    top.offer(id, score);
+                }
+            }
+        }
+        
+        int[] ids = top.drainBestFirst();
+        List<Student> hits = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            hits.add(lookup.apply(id));
+        }
+        return new SearchResults<>(hits, matches);
+    }
+    
+    // Posting lists for every distinct trigram of the term, smallest first, or
+    // null when some trigram has no postings and nothing can match
+    private IntList[] postingListsFor(String needle) {
+        int[] grams = trigramsOf(needle);
+        IntList[] lists = new IntList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            IntList ids = postings.get(grams[i]);
+            if (ids == null || ids.isEmpty()) return null;
+            lists[i] = ids;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(IntList::size));
+        return lists;
+    }
+    
+    // Match quality: exact field match beats prefix beats substring, and
+    // name fields beat email, which beats phone
+    private static int score(Student student, String needle) {
+        int best = Math.max(quality(student.getFirstName(), needle) * 10 + 2,
+                            quality(student.getLastName(), needle) * 10 + 2);
+        best = Math.max(best, quality(student.getEmail(), needle) * 10 + 1);
+        best = Math.max(best, quality(student.getPhone(), needle) * 10);
+        return best >= 10 ? best : 0;
+    }
+    
+    private static int quality(String value, String needle) {
+        if (value == null || value.length() < needle.length()) return 0;
+        if (value.length() == needle.length()) {
+            return value.equalsIgnoreCase(needle) ? EXACT : 0;
+        }
+        if (value.regionMatches(true, 0, needle, 0, needle.length())) return PREFIX;
+        for (int offset = 1; offset <= value.length() - needle.length(); offset++) {
+            if (value.regionMatches(true, offset, needle, 0, needle.length())) return CONTAINS;
+        }
+        return 0;
+    }
+    
+    private void addField(int id, String value) {
+        if (value == null) return;
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            postingsFor(trigram(value, i)).addSorted(id);
+        }
+    }
+    
+    private IntList postingsFor(int gram) {
+        IntList ids = postings.get(gram);
+        if (ids == null) {
+            ids = new IntList(2);
+            postings.put(gram, ids);
+        }
+        return ids;
+    }
+    
+    // Sorted, distinct trigram keys of all given values
+    private static int[] trigramsOf(String... values) {
+        int count = 0;
+        for (String value : values) {
+            if (value != null) count += Math.max(0, value.length() - 2);
+        }
+        int[] grams = new int[count];
+        int n = 0;
+        for (String value : values) {
+            if (value == null) continue;
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                grams[n++] = trigram(value, i);
+            }
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+    
+    // Characters above 0x3FF fold together; verification filters the collisions
+    private static int trigram(String value, int offset) {
+        int a = Character.toLowerCase(value.charAt(offset)) & 0x3FF;
+        int b = Character.toLowerCase(value.charAt(offset + 1)) & 0x3FF;
+        int c = Character.toLowerCase(value.charAt(offset + 2)) & 0x3FF;
+        return (a << 20) | (b << 10) | c;
+    }
+    
+    // Bounded min-heap keeping the best k (score, id) pairs; lower IDs win ties
+    private static final class TopK {
+        private final int[] ids;
+        private final int[] scores;
+        private int size;
+        
+        TopK(int capacity) {
+            ids = new int[Math.max(1, capacity)];
+            scores = new int[ids.length];
+        }
+        
+        void offer(int id, int score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(score, id, scores[0], ids[0])) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+        
+        int[] drainBestFirst() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+        
+        private static boolean better(int score, int id, int otherScore, int otherId) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+        
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(scores[parent], ids[parent], scores[i], ids[i])) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+        
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int worst = left;
+                int right = left + 1;
+                if (right < size && better(scores[left], ids[left], scores[right], ids[right])) worst = right;
+                if (!better(scores[i], ids[i], scores[worst], ids[worst])) break;
+                swap(i, worst);
+                i = worst;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            int score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
+
+// Compressed prefix trie (radix tree) from lowercase keys to sorted ID sets.
+// Edges carry multi-character labels; a node splits only where keys diverge.
+class RadixTrie {
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    
+    // Whether an ID still has a key starting with the prefix, so a cursor can
+    // narrow its previous results instead of walking the subtree again
+    interface PrefixTest {
+        boolean hasPrefix(int id, String prefix);
+    }
+    
+    private final Node root = new Node(NO_CHARS);
+    private final PrefixTest prefixTest;
+    private int modifications;
+    
+    RadixTrie(PrefixTest prefixTest) {
+        this.prefixTest = prefixTest;
+    }
+    
+    public void insert(String key, int id) {
+        modifications++;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = node.slotOf(key.charAt(i));
+            if (slot < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                node.insertChild(-slot - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.insertChild(0, child);
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.ids == null) node.ids = new IntList(1);
+        node.ids.addSorted(id);
+    }
+    
+    public void remove(String key, int id) {
+        modifications++;
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = node.slotOf(key.charAt(i));
+            if (slot < 0) return;
+            Node child = node.children[slot];
+            if (commonPrefix(child.label, key, i) < child.label.length) return;
+            parent = node;
+            node = child;
+            i += child.label.length;
+        }
+        if (node.ids == null || !node.ids.removeSorted(id)) return;
+        if (node.ids.isEmpty() && node.childCount == 0 && parent != null) {
+            parent.removeChild(parent.slotOf(node.label[0]));
+        }
+    }
+    
+    public Cursor cursor() {
+        return new Cursor();
+    }
+    
+    private static int commonPrefix(char[] label, String key, int from) {
+        int max = Math.min(label.length, key.length() - from);
+        int n = 0;
+        while (n < max && label[n] == key.charAt(from + n)) n++;
+        return n;
+    }
+    
+    private static final class Node {
+        char[] label;
+        char[] firsts = NO_CHARS;
+        Node[] children = NO_NODES;
+        int childCount;
+        IntList ids;
+        
+        Node(char[] label) {
+            this.label = label;
+        }
+        
+        int slotOf(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (firsts[mid] < c) low = mid + 1;
+                else if (firsts[mid] > c) high = mid - 1;
+                else return mid;
+            }
+            return -(low + 1);
+        }
+        
+        void insertChild(int slot, Node child) {
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount * 2);
+                firsts = Arrays.copyOf(firsts, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(firsts, slot, firsts, slot + 1, childCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, childCount - slot);
+            firsts[slot] = child.label[0];
+            children[slot] = child;
+            childCount++;
+        }
+        
+        void removeChild(int slot) {
+            System.arraycopy(firsts, slot + 1, firsts, slot, childCount - slot - 1);
+            System.arraycopy(children, slot + 1, children, slot, childCount - slot - 1);
+            children[--childCount] = null;
+        }
+    }
+    
+    // Position inside the trie for an incrementally typed prefix. Each typed
+    // character moves one step down from the previous position, so refining a
+    // prefix never restarts at the root; backspace pops back to the last state.
+    // Results are kept per typed length: a longer prefix filters the last results
+    // through the PrefixTest, and backspace returns the earlier ones unchanged.
+    public final class Cursor {
+        private Node node = root;
+        private int offset;
+        private int depth;
+        private int deadAt = -1;
+        private Node[] nodeHistory = new Node[16];
+        private int[] offsetHistory = new int[16];
+        private IntList[] results = new IntList[17];
+        private int resultsVersion = modifications;
+        private final StringBuilder prefix = new StringBuilder();
+        
+        public boolean type(char c) {
+            if (depth == nodeHistory.length) {
+                nodeHistory = Arrays.copyOf(nodeHistory, depth * 2);
+                offsetHistory = Arrays.copyOf(offsetHistory, depth * 2);
+                results = Arrays.copyOf(results, depth * 2 + 1);
+            }
+            nodeHistory[depth] = node;
+            offsetHistory[depth] = offset;
+            depth++;
+            char lower = Character.toLowerCase(c);
+            prefix.append(lower);
+            if (deadAt >= 0) return false;
+            if (offset < node.label.length) {
+                if (node.label[offset] == lower) {
+                    offset++;
+                    return true;
+                }
+            } else {
+                int slot = node.slotOf(lower);
+                if (slot >= 0) {
+                    node = node.children[slot];
+                    offset = 1;
+                    return true;
+                }
+            }
+            deadAt = depth;
+            return false;
+        }
+        
+        public void type(CharSequence chars) {
+            for (int i = 0; i < chars.length(); i++) {
+                type(chars.charAt(i));
+            }
+        }
+        
+        public void backspace() {
+            if (depth == 0) return;
+            if (deadAt == depth) deadAt = -1;
+            results[depth] = null;
+            depth--;
+            node = nodeHistory[depth];
+            offset = offsetHistory[depth];
+            nodeHistory[depth] = null;
+            prefix.setLength(depth);
+        }
+        
+        public boolean hasMatches() {
+            return deadAt < 0;
+        }
+        
+        public String prefix() {
+            return prefix.toString();
+        }
+        
+        // Distinct IDs stored under the current prefix, in ascending order. The list
+        // is shared with later calls and must not be modified.
+        public IntList ids() {
+            if (deadAt >= 0) return new IntList();
+            if (resultsVersion != modifications) {
+                // Keys changed since the results were taken
+                Arrays.fill(results, null);
+                resultsVersion = modifications;
+            }
+            if (results[depth] != null) return results[depth];
+            int known = depth - 1;
+            while (known >= 0 && results[known] == null) known--;
+            IntList ids;
+            if (known < 0) {
+                ids = collect(node);
+            } else if (known == depth - 1 && nodeHistory[known] == node) {
+                // Still inside the same edge label, so the same subtree
+                ids = results[known];
+            } else {
+                IntList previous = results[known];
+                String current = prefix.toString();
+                ids = new IntList();
+                for (int i = 0; i < previous.size(); i++) {
+                    if (prefixTest.hasPrefix(previous.get(i), current)) ids.add(previous.get(i));
+                }
+            }
+            results[depth] = ids;
+            return ids;
+        }
+        
+        private IntList collect(Node from) {
+            IntList result = new IntList();
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(from);
+            while (!pending.isEmpty()) {
+                Node next = pending.pop();
+                if (next.ids != null) {
+                    for (int i = 0; i < next.ids.size(); i++) result.add(next.ids.get(i));
+                }
+                for (int i = 0; i < next.childCount; i++) pending.push(next.children[i]);
+            }
+            int[] sorted = result.toArray();
+            Arrays.sort(sorted);
+            IntList distinct = new IntList(sorted.length);
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) distinct.add(sorted[i]);
+            }
+            return distinct;
+        }
+    }
+}
+
+// Prefix index over course code, course name and department. Every word of the
+// name and department starts its own key, so "prog" finds "Introduction to Programming".
+class CourseSearchIndex implements EntityListener<Course> {
+    private final RadixTrie trie = new RadixTrie(this::hasPrefix);
+    private final IntFunction<Course> lookup;
+    
+    public CourseSearchIndex(IntFunction<Course> lookup) {
+        this.lookup = lookup;
+    }
+    
+    @Override
+    public void inserted(Course course) {
+        add(course.getCourseId(), course.getCourseCode(), course.getCourseName(), course.getDepartment());
+    }
+    
+    public void add(int id, String code, String name, String department) {
+        for (String key : keysOf(code, name, department)) {
+            trie.insert(key, id);
+        }
+    }
+    
+    @Override
+    public void updated(Course course, String field, Object oldValue, Object newValue) {
+        String name = course.getCourseName();
+        String department = course.getDepartment();
+        Set<String> after = keysOf(course.getCourseCode(), name, department);
+        switch (field) {
+            case "courseName" -> name = (String) oldValue;
+            case "department" -> department = (String) oldValue;
+            default -> { return; }
+        }
+        Set<String> before = keysOf(course.getCourseCode(), name, department);
+        for (String key : before) {
+            if (!after.contains(key)) trie.remove(key, course.getCourseId());
+        }
+        for (String key : after) {
+            if (!before.contains(key)) trie.insert(key, course.getCourseId());
+        }
+    }
+    
+    public SearchResults<Course> search(String prefix, int limit) {
+        RadixTrie.Cursor cursor = trie.cursor();
+        cursor.type(prefix.trim());
+        return resolve(cursor, limit);
+    }
+    
+    // Starts an autocomplete session; feed it keystrokes and call resolve after each
+    public RadixTrie.Cursor autocomplete() {
+        return trie.cursor();
+    }
+    
+    public SearchResults<Course> resolve(RadixTrie.Cursor cursor, int limit) {
+        IntList ids = cursor.ids();
+        int count = Math.min(limit, ids.size());
+        List<Course> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(lookup.apply(ids.get(i)));
+        }
+        return new SearchResults<>(hits, ids.size());
+    }
+    
+    // Same keys as keysOf, tested in place
+    private boolean hasPrefix(int id, String prefix) {
+        Course course = lookup.apply(id);
+        if (course == null) return false;
+        for (String value : new String[] { course.getCourseCode(), course.getCourseName(), course.getDepartment() }) {
+            if (value == null) continue;
+            String normalized = value.trim().toLowerCase(Locale.ROOT);
+            if (normalized.startsWith(prefix)) return true;
+            for (int i = 1; i < normalized.length(); i++) {
+                if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))
+                    && normalized.startsWith(prefix, i)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static Set<String> keysOf(String... values) {
+        Set<String> keys = new HashSet<>();
+        for (String value : values) {
+            if (value == null) continue;
+            String normalized = value.trim().toLowerCase(Locale.ROOT);
+            keys.add(normalized);
+            for (int i = 1; i < normalized.length(); i++) {
+                if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))) {
+                    keys.add(normalized.substring(i));
+                }
+            }
+        }
+        return keys;
+    }
+}
+
+// Statistics
+// Grade counters maintained on every insert and score change, so reading the
+// dashboard never touches the entity lists. Status counts come from the
+// StatusIndex bitmaps.
+class StatisticsAggregator {
+    private static final String LETTERS = "ABCDF";
+    
+    private final long[] gradesByLetter = new long[LETTERS.length()];
+    private double scoreSum;
+    private long scoreCount;
+    
+    final EntityListener<Grade> gradeListener = new EntityListener<>() {
+        @Override
+        public void inserted(Grade grade) {
+            countGrade(grade.getScore());
+        }
+        
+        @Override
+        public void updated(Grade grade, String field, Object oldValue, Object newValue) {
+            if (!field.equals("score")) return;
+            double oldScore = (Double) oldValue;
+            gradesByLetter[LETTERS.indexOf(Grade.letterFor(oldScore))]--;
+            gradesByLetter[LETTERS.indexOf(grade.getGrade())]++;
+            scoreSum += grade.getScore() - oldScore;
+        }
+    };
+    
+    public void countGrade(double score) {
+        gradesByLetter[LETTERS.indexOf(Grade.letterFor(score))]++;
+        scoreSum += score;
+        scoreCount++;
+    }
+    
+    // Adds grades summarized elsewhere; byLetter is indexed A, B, C, D, F
+    public void countGrades(long count, double sum, long[] byLetter) {
+        for (int i = 0; i < gradesByLetter.length; i++) gradesByLetter[i] += byLetter[i];
+        scoreSum += sum;
+        scoreCount += count;
+    }
+    
+    public long getGradeCount(String letter) {
+        int index = LETTERS.indexOf(letter);
+        return letter.length() == 1 && index >= 0 ? gradesByLetter[index] : 0;
+    }
+    
+    public long getScoreCount() { return scoreCount; }
+    public double getAverageScore() { return scoreCount == 0 ? 0.0 : scoreSum / scoreCount; }
+}
+
+// Credit-weighted GPA per student, kept as a materialized view of the grades so
+// reading a GPA or a rank never joins grades to assignments, enrollments and
+// courses. A student's grade in a course is the letter of their mean assignment
+// score there (A = 4 points down to F = 0), and the GPA weights those points by the
+// course credits. The course and its credits are resolved once, when a student's
+// first grade in it arrives; later grades and score changes only adjust sums.
+// Students are ranked on the GPA rounded to two decimals: one bitmap of student IDs
+// per value from 0.00 to 4.00 and a Fenwick tree over the bitmap sizes, so a rank
+// is a few array reads and the top of the class is read off the highest bitmaps.
+// Equal rounded GPAs share a rank.
+class GpaIndex implements EntityListener<Grade> {
+    private static final int STEPS = 401;
+    
+    private final IntUnaryOperator courseOfAssignment;
+    private final IntUnaryOperator creditsOfCourse;
+    private final IntObjectMap<Transcript> transcripts = new IntObjectMap<>();
+    private final IntObjectMap<IntList> studentsByCourse = new IntObjectMap<>();
+    // Grade ID -> the course the grade was counted under; grades left out have no entry
+    private final IntIntMap countedCourses = new IntIntMap(16, -1);
+    private final IdBitmap[] standings = new IdBitmap[STEPS];
+    private final int[] tree = new int[STEPS + 1];
+    private IntList loaded = new IntList();
+    private int ranked;
+    
+    final EntityListener<Course> courseListener = new EntityListener<>() {
+        @Override
+        public void inserted(Course course) {}
+        
+        @Override
+        public void updated(Course course, String field, Object oldValue, Object newValue) {
+            if (field.equals("credits")) changeCredits(course.getCourseId(), course.getCredits());
+        }
+    };
+    
+    // courseOfAssignment answers -1 for an unknown assignment; grades for those are
+    // left out of the GPA
+    GpaIndex(IntUnaryOperator courseOfAssignment, IntUnaryOperator creditsOfCourse) {
+        this.courseOfAssignment = courseOfAssignment;
+        this.creditsOfCourse = creditsOfCourse;
+        for (int i = 0; i < STEPS; i++) standings[i] = new IdBitmap();
+    }
+    
+    @Override
+    public void inserted(Grade grade) {
+        int courseId = courseOfAssignment.applyAsInt(grade.getAssignmentId());
+        if (courseId >= 0) add(grade.getGradeId(), grade.getStudentId(), courseId, grade.getScore());
+    }
+    
+    @Override
+    public void updated(Grade grade, String field, Object oldValue, Object newValue) {
+        if (!field.equals("score")) return;
+        // A grade left out when it arrived stays out, even once its assignment exists
+        int courseId = countedCourses.get(grade.getGradeId());
+        if (courseId < 0) return;
+        Transcript transcript = transcripts.get(grade.getStudentId());
+        int course = transcript.indexOf(courseId);
+        transcript.rescore(course, grade.getScore() - (Double) oldValue, 0);
+        rerank(transcript);
+    }
+    
+    public void add(int gradeId, int studentId, int courseId, double score) {
+        rerank(accumulate(gradeId, studentId, courseId, score));
+    }
+    
+    // Bulk loads, which know each grade's course, add grades through load and
+    // rank everyone once at the end
+    public void load(int gradeId, int studentId, int courseId, double score) {
+        if (transcripts.get(studentId) == null) loaded.add(studentId);
+        accumulate(gradeId, studentId, courseId, score);
+    }
+    
+    public void rankLoaded() {
+        for (int i = 0; i < loaded.size(); i++) rerank(transcripts.get(loaded.get(i)));
+        loaded = new IntList();
+    }
+    
+    private Transcript accumulate(int gradeId, int studentId, int courseId, double score) {
+        countedCourses.put(gradeId, courseId);
+        Transcript transcript = transcripts.get(studentId);
+        if (transcript == null) {
+            transcript = new Transcript(studentId);
+            transcripts.put(studentId, transcript);
+        }
+        int course = transcript.indexOf(courseId);
+        if (course < 0) {
+            course = transcript.addCourse(courseId, creditsOfCourse.applyAsInt(courseId));
+            IntList students = studentsByCourse.get(courseId);
+            if (students == null) {
+                students = new IntList();
+                studentsByCourse.put(courseId, students);
+            }
+            students.add(studentId);
+        }
+        transcript.rescore(course, score, 1);
+        return transcript;
+    }
+    
+    // Null for a student without grades
+    public Transcript transcriptOf(int studentId) {
+        return transcripts.get(studentId);
+    }
+    
+    public double gpaOf(int studentId) {
+        Transcript transcript = transcripts.get(studentId);
+        return transcript == null ? 0.0 : transcript.getGpa();
+    }
+    
+    // 1 for the best GPA, 0 for students without graded credits
+    public int rankOf(int studentId) {
+        Transcript transcript = transcripts.get(studentId);
+        return transcript == null ? 0 : transcript.getRank();
+    }
+    
+    public int getRankedCount() { return ranked; }
+    
+    // Best GPAs first; students sharing a rank are listed by ID
+    public List<Transcript> top(int limit) {
+        List<Transcript> top = new ArrayList<>(Math.min(limit, ranked));
+        for (int step = STEPS - 1; step >= 0 && top.size() < limit; step--) {
+            if (standings[step].isEmpty()) continue;
+            IntList ids = standings[step].toList();
+            for (int i = 0; i < ids.size() && top.size() < limit; i++) top.add(transcripts.get(ids.get(i)));
+        }
+        return top;
+    }
+    
+    // Credit changes are rare, so they walk the course's students
+    private void changeCredits(int courseId, int credits) {
+        IntList students = studentsByCourse.get(courseId);
+        if (students == null) return;
+        for (int i = 0; i < students.size(); i++) {
+            Transcript transcript = transcripts.get(students.get(i));
+            transcript.recredit(transcript.indexOf(courseId), credits);
+            rerank(transcript);
+        }
+    }
+    
+    private void rerank(Transcript transcript) {
+        // Courses reject negative credits; clamped anyway, as a bad step would fail
+        // inside the grade listener after the grade is stored
+        int step = transcript.attemptedCredits <= 0 ? -1
+                 : (int) Math.max(0, Math.min(STEPS - 1, Math.round(transcript.qualityPoints * 100.0 / transcript.attemptedCredits)));
+        if (step == transcript.step) return;
+        if (transcript.step >= 0) {
+            standings[transcript.step].remove(transcript.studentId);
+            count(transcript.step, -1);
+            ranked--;
+        }
+        if (step >= 0) {
+            standings[step].add(transcript.studentId);
+            count(step, 1);
+            ranked++;
+        }
+        transcript.step = step;
+    }
+    
+    private void count(int step, int delta) {
+        for (int i = step + 1; i <= STEPS; i += i & -i) tree[i] += delta;
+    }
+    
+    private int atOrBelow(int step) {
+        int students = 0;
+        for (int i = step + 1; i > 0; i -= i & -i) students += tree[i];
+        return students;
+    }
+    
+    // One student's courses as parallel arrays; students take few courses, so
+    // finding one is a short scan
+    final class Transcript {
+        private final int studentId;
+        private int[] courseIds = new int[2];
+        private int[] credits = new int[2];
+        private int[] gradeCounts = new int[2];
+        private double[] scoreSums = new double[2];
+        private int courses;
+        private int qualityPoints;
+        private int attemptedCredits;
+        private int step = -1;
+        
+        private Transcript(int studentId) {
+            this.studentId = studentId;
+        }
+        
+        public int getStudentId() { return studentId; }
+        public int getAttemptedCredits() { return attemptedCredits; }
+        public int getQualityPoints() { return qualityPoints; }
+        public double getGpa() { return attemptedCredits == 0 ? 0.0 : (double) qualityPoints / attemptedCredits; }
+        public int getRank() { return step < 0 ? 0 : ranked - atOrBelow(step) + 1; }
+        
+        public List<CourseGrade> getCourses() {
+            List<CourseGrade> list = new ArrayList<>(courses);
+            for (int i = 0; i < courses; i++) {
+                list.add(new CourseGrade(courseIds[i], credits[i], gradeCounts[i], scoreSums[i] / gradeCounts[i]));
+            }
+            return list;
+        }
+        
+        private int indexOf(int courseId) {
+            for (int i = 0; i < courses; i++) {
+                if (courseIds[i] == courseId) return i;
+            }
+            return -1;
+        }
+        
+        private int addCourse(int courseId, int courseCredits) {
+            if (courses == courseIds.length) {
+                courseIds = Arrays.copyOf(courseIds, courses * 2);
+                credits = Arrays.copyOf(credits, courses * 2);
+                gradeCounts = Arrays.copyOf(gradeCounts, courses * 2);
+                scoreSums = Arrays.copyOf(scoreSums, courses * 2);
+            }
+            courseIds[courses] = courseId;
+            credits[courses] = courseCredits;
+            return courses++;
+        }
+        
+        // The course's points leave the totals and come back at its new letter
+        private void rescore(int course, double scoreDelta, int gradeDelta) {
+            weigh(course, -1);
+            scoreSums[course] += scoreDelta;
+            gradeCounts[course] += gradeDelta;
+            weigh(course, 1);
+        }
+        
+        private void recredit(int course, int courseCredits) {
+            weigh(course, -1);
+            credits[course] = courseCredits;
+            weigh(course, 1);
+        }
+        
+        private void weigh(int course, int sign) {
+            if (gradeCounts[course] == 0) return;
+            qualityPoints += sign * CourseGrade.points(scoreSums[course] / gradeCounts[course]) * credits[course];
+            attemptedCredits += sign * credits[course];
+        }
+    }
+    
+    static final class CourseGrade {
+        private final int courseId;
+        private final int credits;
+        private final int gradeCount;
+        private final double averageScore;
+        
+        CourseGrade(int courseId, int credits, int gradeCount, double averageScore) {
+            this.courseId = courseId;
+            this.credits = credits;
+            this.gradeCount = gradeCount;
+            this.averageScore = averageScore;
+        }
+        
+        // A mean summed from many scores can come out a hair under a letter boundary,
+        // so it is rounded first
+        static byte letterCode(double averageScore) {
+            return Grade.letterCode(Math.round(averageScore * 1e6) / 1e6);
+        }
+        
+        static int points(double averageScore) {
+            return 4 - letterCode(averageScore);
+        }
+        
+        public int getCourseId() { return courseId; }
+        public int getCredits() { return credits; }
+        public int getGradeCount() { return gradeCount; }
+        public double getAverageScore() { return averageScore; }
+        public String getLetter() { return Grade.letter(letterCode(averageScore)); }
+        public int getPoints() { return points(averageScore); }
+    }
+}
+
+// Ad-hoc group-by averages of grade scores per course, department or instructor.
+// Grades are joined to their course through primitive columns mapping assignment
+// rows and grade rows to course positions. A grade's assignment, an assignment's
+// enrollment and an enrollment's course never change, so the columns only grow:
+// each query resolves just the rows added since the last one, and the scan itself
+// reads two arrays.
+// The grade rows are cut into chunks by a spliterator over the store's columns;
+// on the common fork/join pool each chunk is summed into its own per-course arrays,
+// which are added together at the end and only then rolled up to departments or
+// instructors. Below PARALLEL_THRESHOLD rows, or with a single core, the same code
+// runs on the calling thread.
+class GradeAnalytics {
+    enum GroupBy {
+        COURSE, DEPARTMENT, INSTRUCTOR;
+        
+        static GroupBy parse(String name) {
+            for (GroupBy groupBy : values()) {
+                if (groupBy.name().equalsIgnoreCase(name.trim())) return groupBy;
+            }
+            throw new IllegalArgumentException("Unknown grouping " + name + "; use course, department or instructor");
+        }
+    }
+    
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MIN_CHUNK = 1 << 12;
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    private final Repository<Course> courses;
+    private final Repository<Instructor> instructors;
+    private final EnrollmentStore enrollments;
+    private final Repository<Assignment> assignments;
+    private final GradeStore grades;
+    private int[] assignmentCourses = new int[16];
+    private int resolvedAssignments;
+    private IntList unresolvedAssignments = new IntList();
+    private int[] gradeCourses = new int[16];
+    private int resolvedGrades;
+    private IntList unresolvedGrades = new IntList();
+    
+    GradeAnalytics(Repository<Course> courses, Repository<Instructor> instructors, EnrollmentStore enrollments,
+                   Repository<Assignment> assignments, GradeStore grades) {
+        this.courses = courses;
+        this.instructors = instructors;
+        this.enrollments = enrollments;
+        this.assignments = assignments;
+        this.grades = grades;
+    }
+    
+    public Report averageScores(GroupBy groupBy) {
+        long started = System.nanoTime();
+        GradeColumn resolved = resolveGrades();
+        int[] column = resolved.courses;
+        int rows = resolved.rows;
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        boolean parallel = rows >= PARALLEL_THRESHOLD && threads > 1;
+        int chunk = Math.max(MIN_CHUNK, rows / (threads * CHUNKS_PER_THREAD));
+        int courseCount = courses.size();
+        Partial total = StreamSupport.intStream(new RowSpliterator(0, rows, chunk), parallel).collect(
+            () -> new Partial(courseCount),
+            (partial, row) -> partial.add(column[row], grades.scoreAt(row)),
+            Partial::merge);
+        List<GroupAverage> groups = switch (groupBy) {
+            case COURSE -> byCourse(total);
+            case DEPARTMENT -> byDepartment(total);
+            case INSTRUCTOR -> byInstructor(total);
+        };
+        groups.sort(Comparator.comparingDouble(GroupAverage::getAverageScore).reversed());
+        return new Report(groupBy, groups, rows, total.unmatched, parallel ? threads : 1, System.nanoTime() - started);
+    }
+    
+    // Readers share a lock while querying, so extending the columns is serialized
+    // here, and the column is returned with its row count as another reader may
+    // extend it right after. Course positions are -1 where an assignment or
+    // enrollment is unknown; those rows are resolved again on every call, as a grade
+    // can be recorded before its assignment exists.
+    private synchronized GradeColumn resolveGrades() {
+        int size = assignments.size();
+        unresolvedAssignments = retry(unresolvedAssignments, assignmentCourses, this::assignmentCourse);
+        if (resolvedAssignments < size) {
+            if (assignmentCourses.length < size) assignmentCourses = Arrays.copyOf(assignmentCourses, size + size / 4);
+            int[] column = assignmentCourses;
+            rows(resolvedAssignments, size).forEach(row -> column[row] = assignmentCourse(row));
+            collectUnresolved(column, resolvedAssignments, size, unresolvedAssignments);
+            resolvedAssignments = size;
+        }
+        size = grades.size();
+        unresolvedGrades = retry(unresolvedGrades, gradeCourses, this::gradeCourse);
+        if (resolvedGrades < size) {
+            if (gradeCourses.length < size) gradeCourses = Arrays.copyOf(gradeCourses, size + size / 4);
+            int[] column = gradeCourses;
+            rows(resolvedGrades, size).forEach(row -> column[row] = gradeCourse(row));
+            collectUnresolved(column, resolvedGrades, size, unresolvedGrades);
+            resolvedGrades = size;
+        }
+        return new GradeColumn(gradeCourses, resolvedGrades);
+    }
+    
+    private int assignmentCourse(int row) {
+        int enrollment = enrollments.positionOf(assignments.peek(row).getEnrollmentId());
+        return enrollment < 0 ? -1 : courses.positionOf(enrollments.courseIdAt(enrollment));
+    }
+    
+    // Assignments are resolved up to the current size first
+    private int gradeCourse(int row) {
+        int assignment = assignments.positionOf(grades.assignmentIdAt(row));
+        return assignment < 0 ? -1 : assignmentCourses[assignment];
+    }
+    
+    private static IntList retry(IntList rows, int[] column, IntUnaryOperator resolve) {
+        if (rows.isEmpty()) return rows;
+        IntList still = new IntList();
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.get(i);
+            column[row] = resolve.applyAsInt(row);
+            if (column[row] < 0) still.add(row);
+        }
+        return still;
+    }
+    
+    private static void collectUnresolved(int[] column, int from, int to, IntList unresolved) {
+        for (int row = from; row < to; row++) {
+            if (column[row] < 0) unresolved.add(row);
+        }
+    }
+    
+    private static IntStream rows(int from, int to) {
+        IntStream rows = IntStream.range(from, to);
+        return to - from >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+    
+    private List<GroupAverage> byCourse(Partial total) {
+        List<GroupAverage> groups = new ArrayList<>();
+        for (int i = 0; i < total.counts.length; i++) {
+            if (total.counts[i] == 0) continue;
+            Course course = courses.get(i);
+            groups.add(total.group(i, course.getCourseId(), course.getCourseCode() + " " + course.getCourseName()));
+        }
+        return groups;
+    }
+    
+    private List<GroupAverage> byDepartment(Partial total) {
+        Map<String, GroupAverage> departments = new HashMap<>();
+        for (int i = 0; i < total.counts.length; i++) {
+            if (total.counts[i] == 0) continue;
+            String department = Objects.requireNonNullElse(courses.get(i).getDepartment(), "");
+            departments.merge(department, total.group(i, 0, department), GroupAverage::plus);
+        }
+        return new ArrayList<>(departments.values());
+    }
+    
+    // An instructor is credited with the grades of their assigned course
+    private List<GroupAverage> byInstructor(Partial total) {
+        List<GroupAverage> groups = new ArrayList<>();
+        for (int i = 0; i < instructors.size(); i++) {
+            Instructor instructor = instructors.get(i);
+            int course = courses.positionOf(instructor.getAssignedCourseId());
+            if (course < 0 || total.counts[course] == 0) continue;
+            groups.add(total.group(course, instructor.getInstructorId(), instructor.getName()));
+        }
+        return groups;
+    }
+    
+    private static final class GradeColumn {
+        final int[] courses;
+        final int rows;
+        
+        GradeColumn(int[] courses, int rows) {
+            this.courses = courses;
+            this.rows = rows;
+        }
+    }
+    
+    // Row numbers [from, to) of a columnar store, split in halves down to the chunk size
+    private static final class RowSpliterator implements Spliterator.OfInt {
+        private int from;
+        private final int to;
+        private final int chunk;
+        
+        RowSpliterator(int from, int to, int chunk) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+        
+        @Override
+        public OfInt trySplit() {
+            int size = to - from;
+            if (size <= chunk) return null;
+            int middle = from + size / 2;
+            RowSpliterator prefix = new RowSpliterator(from, middle, chunk);
+            from = middle;
+            return prefix;
+        }
+        
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (from >= to) return false;
+            action.accept(from++);
+            return true;
+        }
+        
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (int row = from; row < to; row++) action.accept(row);
+            from = to;
+        }
+        
+        @Override
+        public long estimateSize() { return to - from; }
+        
+        @Override
+        public int characteristics() { return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE; }
+    }
+    
+    // Per-course sums of one chunk of grade rows, indexed by course position
+    private static final class Partial {
+        final long[] counts;
+        final double[] sums;
+        final double[] minimums;
+        final double[] maximums;
+        long unmatched;
+        
+        Partial(int courses) {
+            counts = new long[courses];
+            sums = new double[courses];
+            minimums = new double[courses];
+            maximums = new double[courses];
+            Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+            Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+        }
+        
+        void add(int course, double score) {
+            if (course < 0 || course >= counts.length) {
+                unmatched++;
+                return;
+            }
+            counts[course]++;
+            sums[course] += score;
+            if (score < minimums[course]) minimums[course] = score;
+            if (score > maximums[course]) maximums[course] = score;
+        }
+        
+        void merge(Partial other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+                minimums[i] = Math.min(minimums[i], other.minimums[i]);
+                maximums[i] = Math.max(maximums[i], other.maximums[i]);
+            }
+            unmatched += other.unmatched;
+        }
+        
+        GroupAverage group(int course, int id, String name) {
+            return new GroupAverage(id, name, counts[course], sums[course], minimums[course], maximums[course]);
+        }
+    }
+    
+    static final class GroupAverage {
+        private final int id;
+        private final String name;
+        private final long grades;
+        private final double scoreSum;
+        private final double minimum;
+        private final double maximum;
+        
+        GroupAverage(int id, String name, long grades, double scoreSum, double minimum, double maximum) {
+            this.id = id;
+            this.name = name;
+            this.grades = grades;
+            this.scoreSum = scoreSum;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+        
+        GroupAverage plus(GroupAverage other) {
+            return new GroupAverage(id, name, grades + other.grades, scoreSum + other.scoreSum,
+                                    Math.min(minimum, other.minimum), Math.max(maximum, other.maximum));
+        }
+        
+        // 0 for departments, which have no ID
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public long getGrades() { return grades; }
+        public double getAverageScore() { return scoreSum / grades; }
+        public double getMinimum() { return minimum; }
+        public double getMaximum() { return maximum; }
+        
+        static final TableLayout<GroupAverage> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, g) ->
+            row.cell(g.getId() == 0 ? null : Integer.toString(g.getId())).truncatedCell(g.getName()).cell(g.getGrades())
+               .cell(g.getAverageScore(), 2).cell(g.getMinimum(), 2).cell(g.getMaximum(), 2));
+        
+        public static String getHeader() {
+            return "┌────────┬──────────────────────────────────────────┬────────────┬──────────┬──────────┬──────────┐\n" +
+                   "│   ID   │ Group                                    │ Grades     │ Average  │ Min      │ Max      │\n" +
+                   "├────────┼──────────────────────────────────────────┼────────────┼──────────┼──────────┼──────────┤";
+        }
+        
+        public static String getFooter() {
+            return "└────────┴──────────────────────────────────────────┴────────────┴──────────┴──────────┴──────────┘";
+        }
+    }
+    
+    static final class Report {
+        private final GroupBy groupBy;
+        private final List<GroupAverage> groups;
+        private final long grades;
+        private final long unmatched;
+        private final int threads;
+        private final long elapsedNanos;
+        
+        Report(GroupBy groupBy, List<GroupAverage> groups, long grades, long unmatched, int threads, long elapsedNanos) {
+            this.groupBy = groupBy;
+            this.groups = groups;
+            this.grades = grades;
+            this.unmatched = unmatched;
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public GroupBy getGroupBy() { return groupBy; }
+        public List<GroupAverage> getGroups() { return groups; }
+        public long getGrades() { return grades; }
+        // Grades whose assignment or enrollment is unknown
+        public long getUnmatched() { return unmatched; }
+        public int getThreads() { return threads; }
+        public long getElapsedNanos() { return elapsedNanos; }
+    }
+}
+
+// Metrics
+// Latency histogram in the style of HdrHistogram: values below 128 ns have a
+// bucket each, and every power of two above that is split into 64 linear buckets,
+// so any recorded value is off by less than 1/64 (1.6%). Counts are atomic and
+// recording allocates nothing, so reader threads can record concurrently.
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_SHIFT = 63 - SUB_BUCKET_BITS + 1;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_SHIFT * HALF + SUB_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+    
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        total.reset();
+        max.reset();
+    }
+    
+    // Consistent enough for reporting: counts are copied once and every percentile
+    // is read from the copy
+    public Summary summary() {
+        long[] copy = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < copy.length; i++) count += copy[i] = counts.get(i);
+        long highest = max.get();
+        return new Summary(count, count == 0 ? 0 : (double) total.sum() / count, highest,
+                           Math.min(highest, percentile(copy, count, 50)), Math.min(highest, percentile(copy, count, 99)),
+                           Math.min(highest, percentile(copy, count, 99.9)));
+    }
+    
+    static int index(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * HALF + (int) (value >>> shift);
+    }
+    
+    // Highest value that falls into the bucket
+    static long valueAt(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / HALF - 1;
+        long low = (long) (index - shift * HALF) << shift;
+        return low + (1L << shift) - 1;
+    }
+    
+    private static long percentile(long[] counts, long count, double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return valueAt(i);
+        }
+        return valueAt(counts.length - 1);
+    }
+    
+    static final class Summary {
+        final long count;
+        final double mean;
+        final long max;
+        final long p50;
+        final long p99;
+        final long p999;
+        
+        Summary(long count, double mean, long max, long p50, long p99, long p999) {
+            this.count = count;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+    }
+}
+
+enum Operation {
+    ADD_STUDENT("addStudent", "Add student"),
+    ENROLL("enroll", "Enroll"),
+    RECORD_GRADE("recordGrade", "Record grade"),
+    SEARCH_STUDENTS("searchStudents", "Search students"),
+    SEARCH_COURSES("searchCourses", "Search courses"),
+    SEARCH_ASSIGNMENTS("searchAssignments", "Assignments by status"),
+    COURSE_ROSTER("courseRoster", "Course roster"),
+    STATISTICS("statistics", "Statistics"),
+    ANALYTICS("analytics", "Score analytics"),
+    RENDER("render", "Table rendering");
+    
+    final String key;
+    final String label;
+    
+    Operation(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+}
+
+// Call count and latency of one service operation. Callers take System.nanoTime()
+// before the work and pass it to record afterwards.
+class OperationStats {
+    private final Operation operation;
+    private final LongAdder calls = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile long since = System.nanoTime();
+    
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+    
+    public void record(long startedNanos) {
+        latency.record(System.nanoTime() - startedNanos);
+        calls.increment();
+    }
+    
+    public Operation getOperation() { return operation; }
+    public long getCalls() { return calls.sum(); }
+    public LatencyHistogram.Summary summary() { return latency.summary(); }
+    
+    // Calls per second since creation or the last reset
+    public double throughput() {
+        double seconds = (System.nanoTime() - since) / 1e9;
+        return seconds <= 0 ? 0 : calls.sum() / seconds;
+    }
+    
+    public void reset() {
+        calls.reset();
+        latency.reset();
+        since = System.nanoTime();
+    }
+    
+    static final TableLayout<OperationStats> TABLE = new TableLayout<>(getHeader(), getFooter(), (row, o) -> {
+        LatencyHistogram.Summary latency = o.summary();
+        row.cell(o.getOperation().label).cell(latency.count).cell(o.throughput(), 1).cell(latency.mean / 1000, 2)
+           .cell(latency.p50 / 1000.0, 2).cell(latency.p99 / 1000.0, 2).cell(latency.p999 / 1000.0, 2)
+           .cell(latency.max / 1000.0, 2);
+    });
+    
+    public static String getHeader() {
+        return "┌─────────────────────────┬────────────┬────────────┬─────────────┬─────────────┬─────────────┬─────────────┬─────────────┐\n" +
+               "│ Operation               │ Calls      │ Calls/s    │ Mean (µs)   │ p50 (µs)    │ p99 (µs)    │ p99.9 (µs)  │ Max (µs)    │\n" +
+               "├─────────────────────────┼────────────┼────────────┼─────────────┼─────────────┼─────────────┼─────────────┼─────────────┤";
+    }
+    
+    public static String getFooter() {
+        return "└─────────────────────────┴────────────┴────────────┴─────────────┴─────────────┴─────────────┴─────────────┴─────────────┘";
+    }
+}
+
+// One OperationStats per operation, published over JMX as
+// education:type=ServiceMetrics,operation=<key> with the attributes Calls,
+// Throughput (calls per second), MeanMicros, P50Micros, P99Micros, P999Micros and
+// MaxMicros and a reset operation.
+class ServiceMetrics {
+    private static final String[] ATTRIBUTES = { "Calls", "Throughput", "MeanMicros", "P50Micros", "P99Micros",
+                                                 "P999Micros", "MaxMicros" };
+    
+    private final OperationStats[] stats;
+    
+    public ServiceMetrics() {
+        Operation[] operations = Operation.values();
+        stats = new OperationStats[operations.length];
+        for (Operation operation : operations) stats[operation.ordinal()] = new OperationStats(operation);
+    }
+    
+    public OperationStats get(Operation operation) {
+        return stats[operation.ordinal()];
+    }
+    
+    public List<OperationStats> all() {
+        return List.of(stats);
+    }
+    
+    public void reset() {
+        for (OperationStats operation : stats) operation.reset();
+    }
+    
+    // Replaces beans left by an earlier service in the same JVM
+    public void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationStats operation : stats) {
+            ObjectName name = new ObjectName("education:type=ServiceMetrics,operation=" + operation.getOperation().key);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(new OperationMBean(operation), name);
+        }
+    }
+    
+    private static final class OperationMBean implements DynamicMBean {
+        private final OperationStats operation;
+        
+        OperationMBean(OperationStats operation) {
+            this.operation = operation;
+        }
+        
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            LatencyHistogram.Summary summary = operation.summary();
+            return switch (attribute) {
+                case "Calls" -> operation.getCalls();
+                case "Throughput" -> operation.throughput();
+                case "MeanMicros" -> summary.mean / 1000;
+                case "P50Micros" -> summary.p50 / 1000.0;
+                case "P99Micros" -> summary.p99 / 1000.0;
+                case "P999Micros" -> summary.p999 / 1000.0;
+                case "MaxMicros" -> summary.max / 1000.0;
+                default -> throw new AttributeNotFoundException(attribute);
+            };
+        }
+        
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList values = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    values.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // Unknown names are left out, as the DynamicMBean contract allows
+                }
+            }
+            return values;
+        }
+        
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+        
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+        
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+            if (!action.equals("reset")) {
+                throw new ReflectionException(new NoSuchMethodException(action), "Unknown operation " + action);
+            }
+            operation.reset();
+            return null;
+        }
+        
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[ATTRIBUTES.length];
+            for (int i = 0; i < attributes.length; i++) {
+                String type = i == 0 ? "long" : "double";
+                attributes[i] = new MBeanAttributeInfo(ATTRIBUTES[i], type, ATTRIBUTES[i], true, false, false);
+            }
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clears the counters and latencies",
+                                                              new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(OperationMBean.class.getName(), operation.getOperation().label + " metrics", attributes,
+                                 null, new MBeanOperationInfo[] { reset }, null);
+        }
+    }
+}
+
+// Flight Recorder events
+// Custom JFR events for the service operations, all in the "Education" category, so
+// a recording ties CPU and allocation samples to the business operation that ran.
+// Callers create and begin an event before the work and call finish after it;
+// finish fills in the fields and commits only when a recording wants the event, and
+// with no recording running the JIT drops the event entirely. education.jfc at the
+// top of the repository enables them along with sampling settings.
+@Name("education.Enrollment")
+@Label("Enrollment")
+@Category("Education")
+@Description("A student enrolled in a course")
+class EnrollmentEvent extends Event {
+    @Label("Student ID")
+    int studentId;
+    
+    @Label("Course ID")
+    int courseId;
+    
+    @Label("Enrolled")
+    boolean enrolled;
+    
+    void finish(int studentId, int courseId, boolean enrolled) {
+        if (!shouldCommit()) return;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.enrolled = enrolled;
+        commit();
+    }
+}
+
+@Name("education.GradeEntry")
+@Label("Grade Entry")
+@Category("Education")
+@Description("A grade recorded for an assignment")
+class GradeEntryEvent extends Event {
+    @Label("Student ID")
+    int studentId;
+    
+    @Label("Assignment ID")
+    int assignmentId;
+    
+    @Label("Score")
+    double score;
+    
+    void finish(int studentId, int assignmentId, double score) {
+        if (!shouldCommit()) return;
+        this.studentId = studentId;
+        this.assignmentId = assignmentId;
+        this.score = score;
+        commit();
+    }
+}
+
+@Name("education.Search")
+@Label("Search")
+@Category("Education")
+@Description("A student, course, assignment or roster query")
+class SearchEvent extends Event {
+    @Label("Kind")
+    String kind;
+    
+    @Label("Term Length")
+    int termLength;
+    
+    @Label("Results")
+    int results;
+    
+    void finish(String kind, int termLength, int results) {
+        if (!shouldCommit()) return;
+        this.kind = kind;
+        this.termLength = termLength;
+        this.results = results;
+        commit();
+    }
+}
+
+@Name("education.Statistics")
+@Label("Statistics")
+@Category("Education")
+@Description("A statistics dashboard, batch or API statistics run")
+class StatisticsEvent extends Event {
+    @Label("Source")
+    String source;
+    
+    void finish(String source) {
+        if (!shouldCommit()) return;
+        this.source = source;
+        commit();
+    }
+}
+
+@Name("education.BulkLoad")
+@Label("Bulk Load")
+@Category("Education")
+@Description("Rows loaded at once from a CSV import, a snapshot or the dataset generator")
+class BulkLoadEvent extends Event {
+    @Label("Source")
+    String source;
+    
+    @Label("Entity")
+    String entity;
+    
+    @Label("Rows")
+    long rows;
+    
+    @Label("Rejected")
+    long rejected;
+    
+    void finish(String source, String entity, long rows, long rejected) {
+        if (!shouldCommit()) return;
+        this.source = source;
+        this.entity = entity;
+        this.rows = rows;
+        this.rejected = rejected;
+        commit();
+    }
+}
+
+// Due dates
+// Hierarchical timing wheel (Varghese and Lauck) that hands back assignment IDs once
+// their due date has passed. Time is counted in whole seconds of the wall clock,
+// read as UTC like every stored timestamp. Four levels of 256 slots cover 2^32
+// seconds, and later deadlines wait in one overflow list. An entry sits at the
+// level of the highest byte in which its second differs from the clock and moves
+// down when the clock reaches its slot, so it is moved at most four times before
+// it fires. Entries are nodes in primitive arrays, linked per slot and recycled
+// through a free list.
+// Nothing is ever unscheduled: a new due date, or a return to PENDING, schedules
+// the assignment again, and the owner checks its current state when the ID comes
+// back.
+class DueDateWheel implements EntityListener<Assignment> {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    // Entries already due when scheduled, handed back by the next advance
+    private static final int READY = OVERFLOW + 1;
+    
+    private final int[] heads = new int[READY + 1];
+    private final int[] sizes = new int[LEVELS + 2];
+    private int[] ids = new int[64];
+    private long[] seconds = new long[64];
+    private int[] next = new int[64];
+    private int allocated;
+    private int free = -1;
+    private int size;
+    private long current;
+    private volatile LongConsumer scheduled;
+    
+    DueDateWheel(long now) {
+        current = now;
+        Arrays.fill(heads, -1);
+    }
+    
+    static long second(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    // The first whole second after the due date, from which an assignment is overdue
+    static long expirySecond(long dueSeconds) {
+        return dueSeconds + 1;
+    }
+    
+    static long expirySecond(LocalDateTime dueDate) {
+        return expirySecond(second(dueDate));
+    }
+    
+    @Override
+    public void inserted(Assignment assignment) {
+        if (assignment.getStatus() == AssignmentStatus.PENDING) {
+            schedule(assignment.getAssignmentId(), assignment.getDueDateTime());
+        }
+    }
+    
+    @Override
+    public void updated(Assignment assignment, String field, Object oldValue, Object newValue) {
+        boolean changed = field.equals("dueDate") || field.equals("status") && newValue == AssignmentStatus.PENDING;
+        if (changed && assignment.getStatus() == AssignmentStatus.PENDING) {
+            schedule(assignment.getAssignmentId(), assignment.getDueDateTime());
+        }
+    }
+    
+    public void schedule(int id, LocalDateTime dueDate) {
+        if (dueDate != null) schedule(id, expirySecond(dueDate));
+    }
+    
+    public void schedule(int id, long second) {
+        int node = allocate(id, second);
+        if (second <= current) link(READY, node);
+        else place(node);
+        size++;
+        LongConsumer hook = scheduled;
+        if (hook != null) hook.accept(second);
+    }
+    
+    // Told every newly scheduled second, by the thread scheduling it
+    void onSchedule(LongConsumer hook) {
+        scheduled = hook;
+    }
+    
+    public int size() { return size; }
+    
+    // Moves the clock to now and hands back every ID due by then, earliest first
+    public void advance(long now, IntConsumer due) {
+        fire(READY, due);
+        while (current < now) {
+            int level = 0;
+            while (level <= LEVELS && sizes[level] == 0) level++;
+            if (level > LEVELS) {
+                current = now;
+                break;
+            }
+            // Nothing can fire before the lowest occupied level's next slot begins
+            current = level == 0 ? current + 1 : Math.min(now, ((current >> shift(level)) + 1) << shift(level));
+            for (int l = LEVELS; l >= 1; l--) {
+                if ((current & ((1L << shift(l)) - 1)) == 0) cascade(slot(l, current));
+            }
+            fire(slot(0, current), due);
+        }
+    }
+    
+    // The next second at which advance has work: a deadline on the lowest level, or
+    // else the start of a higher slot, whose entries then move down. Long.MAX_VALUE
+    // when nothing is scheduled.
+    public long nextDeadline() {
+        if (sizes[LEVELS + 1] > 0) return current;
+        for (int level = 0; level < LEVELS; level++) {
+            if (sizes[level] == 0) continue;
+            int shift = shift(level);
+            long start = current >> shift;
+            for (long block = start + 1; block <= start + SLOTS; block++) {
+                if (heads[slot(level, block << shift)] >= 0) return block << shift;
+            }
+        }
+        return sizes[LEVELS] > 0 ? ((current >> shift(LEVELS)) + 1) << shift(LEVELS) : Long.MAX_VALUE;
+    }
+    
+    private static int shift(int level) {
+        return level * SLOT_BITS;
+    }
+    
+    private static int slot(int level, long second) {
+        return level == LEVELS ? OVERFLOW : level * SLOTS + (int) ((second >>> shift(level)) & (SLOTS - 1));
+    }
+    
+    private static int levelOf(int head) {
+        return head >= OVERFLOW ? LEVELS + head - OVERFLOW : head / SLOTS;
+    }
+    
+    private void place(int node) {
+        long difference = seconds[node] ^ current;
+        int level = difference == 0 ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+        link(slot(Math.min(level, LEVELS), seconds[node]), node);
+    }
+    
+    private void link(int head, int node) {
+        next[node] = heads[head];
+        heads[head] = node;
+        sizes[levelOf(head)]++;
+    }
+    
+    private void cascade(int head) {
+        int node = heads[head];
+        heads[head] = -1;
+        while (node >= 0) {
+            int following = next[node];
+            sizes[levelOf(head)]--;
+            place(node);
+            node = following;
+        }
+    }
+    
+    // The slot is detached first, so the consumer may schedule again
+    private void fire(int head, IntConsumer due) {
+        int node = heads[head];
+        heads[head] = -1;
+        while (node >= 0) {
+            int following = next[node];
+            int id = ids[node];
+            next[node] = free;
+            free = node;
+            sizes[levelOf(head)]--;
+            size--;
+            due.accept(id);
+            node = following;
+        }
+    }
+    
+    private int allocate(int id, long second) {
+        int node = free;
+        if (node >= 0) {
+            free = next[node];
+        } else {
+            if (allocated == ids.length) {
+                ids = Arrays.copyOf(ids, allocated * 2);
+                seconds = Arrays.copyOf(seconds, allocated * 2);
+                next = Arrays.copyOf(next, allocated * 2);
+            }
+            node = allocated++;
+        }
+        ids[node] = id;
+        seconds[node] = second;
+        return node;
+    }
+}
+
+// Daemon thread that expires the assignments of a shared service at each deadline
+// of its wheel. It sleeps until the next deadline, or at most a minute so a change
+// of the wall clock is noticed; scheduling an earlier deadline wakes it up.
+class DueDateTimer implements AutoCloseable {
+    private static final long MAX_SLEEP_MILLIS = 60_000;
+    
+    private final ConcurrentEducationService service;
+    private final Thread thread;
+    private volatile long planned = Long.MAX_VALUE;
+    private volatile boolean closed;
+    
+    DueDateTimer(ConcurrentEducationService service, DueDateWheel wheel) {
+        this.service = service;
+        thread = new Thread(this::run, "due-dates");
+        thread.setDaemon(true);
+        wheel.onSchedule(second -> {
+            if (second < planned) LockSupport.unpark(thread);
+        });
+    }
+    
+    public void start() { thread.start(); }
+    
+    private void run() {
+        while (!closed) {
+            // Any deadline scheduled from here on wakes the thread, so none is missed
+            // between reading the next deadline and parking
+            planned = Long.MAX_VALUE;
+            long sleepMillis = MAX_SLEEP_MILLIS;
+            try {
+                service.write(EducationService::expireOverdue);
+                long deadline = service.read(s -> s.dueDates().nextDeadline());
+                planned = deadline;
+                if (deadline < Long.MAX_VALUE / 1000) {
+                    long now = LocalDateTime.now().toInstant(ZoneOffset.UTC).toEpochMilli();
+                    sleepMillis = Math.min(MAX_SLEEP_MILLIS, deadline * 1000 - now);
+                }
+            } catch (RuntimeException e) {
+                if (!closed) System.err.println("⚠️ Could not expire assignments: " + e.getMessage());
+            }
+            if (sleepMillis > 0) LockSupport.parkNanos(this, sleepMillis * 1_000_000);
+        }
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+}
+
+// Persistence
+// Growable buffer used to encode one record payload at a time
+class RecordBuffer {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    
+    public RecordBuffer clear() {
+        buffer.clear();
+        return this;
+    }
+    
+    public RecordBuffer putByte(int value) {
+        ensure(1).put((byte) value);
+        return this;
+    }
+    
+    public RecordBuffer putInt(int value) {
+        ensure(4).putInt(value);
+        return this;
+    }
+    
+    public RecordBuffer putLong(long value) {
+        ensure(8).putLong(value);
+        return this;
+    }
+    
+    public RecordBuffer putDouble(double value) {
+        ensure(8).putDouble(value);
+        return this;
+    }
+    
+    public RecordBuffer putString(String value) {
+        if (value == null) return putInt(-1);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length).put(bytes);
+        return this;
+    }
+    
+    // Timestamps are stored as epoch seconds of the local date-time read as UTC
+    public RecordBuffer putTime(LocalDateTime value) {
+        return putLong(value == null ? NO_TIME : value.toEpochSecond(ZoneOffset.UTC));
+    }
+    
+    // Flips the buffer for reading; call clear() before encoding the next record
+    public ByteBuffer payload() {
+        return buffer.flip();
+    }
+    
+    public static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+    
+    public static LocalDateTime getTime(ByteBuffer in) {
+        long seconds = in.getLong();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+    
+    private ByteBuffer ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
+
+// Append-only log of framed records: [int length][int crc32][byte type][payload].
+// Appenders copy records into an in-memory batch; a single writer thread writes
+// the whole batch and issues one fsync for it (group commit), then wakes every
+// appender waiting on a sequence number covered by that batch.
+//
+// The header carries a generation number. A checkpoint writes a snapshot tagged
+// with the next generation and then resets the log to it, so a log left behind by
+// a crash between those two steps is recognized as already covered by the snapshot.
+class WriteAheadLog implements AutoCloseable {
+    private static final long MAGIC_V1 = 0x4544554C4F470001L; // "EDULOG" + format version 1, no generation
+    private static final long MAGIC = 0x4544554C4F470002L;    // "EDULOG" + format version 2
+    private static final int HEADER_BYTES = 16;
+    private static final int FRAME_HEADER = 9;
+    private static final int BATCH_BYTES = 1 << 20;
+    // Larger frame lengths can only come from a corrupt tail
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+    
+    interface RecordHandler {
+        void handle(byte type, ByteBuffer payload);
+    }
+    
+    private final FileChannel channel;
+    private ByteBuffer filling = ByteBuffer.allocate(BATCH_BYTES);
+    private ByteBuffer flushing = ByteBuffer.allocate(BATCH_BYTES);
+    private final CRC32 crc = new CRC32();
+    private long generation;
+    private long appendedSequence;
+    private long durableSequence;
+    private long size;
+    private long records;
+    private IOException failure;
+    private boolean closed;
+    private final Thread writer;
+    
+    private WriteAheadLog(FileChannel channel, long generation, long size, long records) {
+        this.channel = channel;
+        this.generation = generation;
+        this.size = size;
+        this.records = records;
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    // Opens the log, replaying every intact record into the handler first. A torn
+    // or corrupt tail left by a crash is truncated away. A log older than the
+    // given generation is already covered by a snapshot and is reset unread.
+    public static WriteAheadLog open(Path path, long generation, RecordHandler handler) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) { }
+            long magic = header.position() >= 8 ? header.getLong(0) : 0;
+            long fileGeneration;
+            long start;
+            if (magic == MAGIC && header.position() == HEADER_BYTES) {
+                fileGeneration = header.getLong(8);
+                start = HEADER_BYTES;
+            } else if (magic == MAGIC_V1) {
+                fileGeneration = 0;
+                start = 8;
+            } else if (channel.size() < HEADER_BYTES) {
+                // Empty, or truncated by a crash in the middle of a reset
+                fileGeneration = -1;
+                start = 0;
+            } else {
+                throw new IOException("Not an education data log: " + path);
+            }
+            
+            if (fileGeneration < generation) {
+                writeHeader(channel, generation);
+                return new WriteAheadLog(channel, generation, HEADER_BYTES, 0);
+            }
+            long[] replayed = new long[1];
+            long end = replay(channel, start, (type, payload) -> {
+                replayed[0]++;
+                handler.handle(type, payload);
+            });
+            channel.truncate(end);
+            channel.position(end);
+            return new WriteAheadLog(channel, fileGeneration, end, replayed[0]);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public synchronized long append(byte type, ByteBuffer payload) throws IOException {
+        if (failure != null) throw failure;
+        if (closed) throw new IOException("Log is closed");
+        int length = payload.remaining() + 1;
+        if (length > MAX_RECORD_BYTES) throw new IOException("Record of " + length + " bytes exceeds the log's limit");
+        if (filling.remaining() < length + 8) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(filling.capacity() * 2, filling.position() + length + 8));
+            filling.flip();
+            grown.put(filling);
+            filling = grown;
+        }
+        crc.reset();
+        crc.update(type);
+        crc.update(payload.duplicate());
+        filling.putInt(length).putInt((int) crc.getValue()).put(type).put(payload);
+        size += length + 8;
+        records++;
+        notifyAll();
+        return ++appendedSequence;
+    }
+    
+    public synchronized void awaitDurable(long sequence) throws IOException {
+        boolean interrupted = false;
+        while (durableSequence < sequence && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+    }
+    
+    public synchronized long size() { return size; }
+    public synchronized long records() { return records; }
+    public synchronized long generation() { return generation; }
+    
+    // Discards every record and starts the given generation. Callers must have
+    // written a snapshot covering the discarded records first.
+    public synchronized void reset(long newGeneration) throws IOException {
+        // Holding the monitor with nothing pending means the writer thread is idle
+        while ((durableSequence < appendedSequence || filling.position() > 0) && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for pending writes");
+            }
+        }
+        if (failure != null) throw failure;
+        writeHeader(channel, newGeneration);
+        generation = newGeneration;
+        size = HEADER_BYTES;
+        records = 0;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+    
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchSequence;
+            synchronized (this) {
+                while (filling.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (filling.position() == 0) return;
+                batch = filling;
+                filling = flushing;
+                flushing = batch;
+                batchSequence = appendedSequence;
+            }
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) channel.write(batch);
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+            synchronized (this) {
+                durableSequence = batchSequence;
+                notifyAll();
+            }
+        }
+    }
+    
+    // Truncates before writing the new header, so a crash in between leaves an
+    // empty log rather than a new header in front of stale records
+    private static void writeHeader(FileChannel channel, long generation) throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putLong(MAGIC).putLong(generation).flip();
+        channel.position(0);
+        while (header.hasRemaining()) channel.write(header);
+        channel.force(true);
+    }
+    
+    private static long replay(FileChannel channel, long start, RecordHandler handler) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BATCH_BYTES);
+        CRC32 checksum = new CRC32();
+        long valid = start;
+        long fileSize = channel.size();
+        channel.position(start);
+        while (true) {
+            int read = channel.read(buffer);
+            buffer.flip();
+            while (buffer.remaining() >= FRAME_HEADER) {
+                int frame = buffer.position();
+                int length = buffer.getInt(frame);
+                if (length < 1 || length > MAX_RECORD_BYTES || valid + length + 8 > fileSize) return valid;
+                if (buffer.remaining() < length + 8) {
+                    if (length + 8 > buffer.capacity()) {
+                        ByteBuffer grown = ByteBuffer.allocate(length + 8);
+                        grown.put(buffer);
+                        buffer = grown;
+                        buffer.flip();
+                    }
+                    break;
+                }
+                int expected = buffer.getInt(frame + 4);
+                byte type = buffer.get(frame + 8);
+                ByteBuffer payload = buffer.duplicate();
+                payload.position(frame + 9).limit(frame + 8 + length);
+                checksum.reset();
+                checksum.update(type);
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expected) return valid;
+                handler.handle(type, payload.slice());
+                buffer.position(frame + 8 + length);
+                valid += length + 8;
+            }
+            buffer.compact();
+            if (read < 0) return valid;
+        }
+    }
+}
+
+// Versioned binary snapshot of every entity. Each entity type is a section of
+// fixed-width columns stored column after column; strings are kept once in a shared
+// string table and referenced by index, and timestamps are epoch seconds. A loaded
+// snapshot is read through a read-only memory mapping: restoring registers lazy rows
+// and rebuilds the indexes straight from the columns, and an entity object is only
+// built the first time it is accessed.
+class Snapshot {
+    private static final long MAGIC = 0x454455534E500001L; // "EDUSNP" + format version 1
+    private static final int HEADER_BYTES = 128;
+    private static final int TYPES = 7;
+    
+    // Column layouts per entity type: I = int, S = string reference, T = epoch seconds, D = double
+    private static final String[] LAYOUTS = {
+        "",
+        "ISSSST",     // student: id, first name, last name, email, phone, created at
+        "ISSSIST",    // course: id, code, name, description, credits, department, created at
+        "ISSSSSSTI",  // instructor: id, name, status, location, contact, email, specialization, assigned since, course id
+        "IIISTSS",    // enrollment: id, student id, course id, description, date, status, remarks
+        "IISSTTSS",   // assignment: id, enrollment id, title, description, date, due date, status, remarks
+        "IIIDST"      // grade: id, student id, assignment id, score, comments, created at
+    };
+    private static final long NO_TIME = Long.MIN_VALUE;
+    
+    private final ByteBuffer data;
+    private final long logGeneration;
+    private final int[] nextIds = new int[TYPES];
+    private final Section[] sections = new Section[TYPES];
+    private final int stringCount;
+    private final int stringOffsets;
+    private final int stringBytes;
+    private final String[] strings;
+    
+    private Snapshot(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getLong(0) != MAGIC) {
+            throw new IOException("Not an education snapshot or unsupported version");
+        }
+        logGeneration = data.getLong(8);
+        for (int type = 1; type < TYPES; type++) {
+            int rows = data.getInt(24 + (type - 1) * 4);
+            nextIds[type] = data.getInt(48 + (type - 1) * 4);
+            sections[type] = new Section(type, rows, (int) data.getLong(72 + (type - 1) * 8));
+        }
+        int table = (int) data.getLong(120);
+        stringCount = data.getInt(table);
+        stringOffsets = table + 4;
+        stringBytes = stringOffsets + (stringCount + 1) * 4;
+        strings = new String[stringCount];
+    }
+    
+    public static Snapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshots larger than 2 GiB are not supported: " + path);
+            }
+            return new Snapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    public long getLogGeneration() { return logGeneration; }
+    
+    public long getTotalRows() {
+        long total = 0;
+        for (int type = 1; type < TYPES; type++) total += sections[type].rows;
+        return total;
+    }
+    
+    // Registers every row lazily, rebuilds the service's derived indexes from the
+    // columns and restores the entity ID counters
+    public void restoreInto(EducationService service) {
+        BulkLoadEvent event = new BulkLoadEvent();
+        event.begin();
+        Section s = sections[ServiceJournal.STUDENT];
+        service.students().addLazy(s.rows, row -> s.getInt(0, row), this::student);
+        for (int row = 0; row < s.rows; row++) {
+            service.studentSearchIndex().add(s.getInt(0, row), s.getString(1, row), s.getString(2, row),
+                                             s.getString(3, row), s.getString(4, row));
+        }
+        
+        Section c = sections[ServiceJournal.COURSE];
+        service.courses().addLazy(c.rows, row -> c.getInt(0, row), this::course);
+        for (int row = 0; row < c.rows; row++) {
+            service.courseSearchIndex().add(c.getInt(0, row), c.getString(1, row), c.getString(2, row),
+                                            c.getString(5, row));
+        }
+        
+        Section i = sections[ServiceJournal.INSTRUCTOR];
+        service.instructors().addLazy(i.rows, row -> i.getInt(0, row), this::instructor);
+        
+        Section e = sections[ServiceJournal.ENROLLMENT];
+        for (int row = 0; row < e.rows; row++) {
+            EnrollmentStatus status = EnrollmentStatus.valueOf(e.getString(5, row));
+            service.enrollments().addRow(e.getInt(0, row), e.getInt(1, row), e.getInt(2, row), e.getString(3, row),
+                                         e.getLong(4, row), status, e.getString(6, row));
+            service.enrollmentIndex().add(e.getInt(0, row), e.getInt(1, row), e.getInt(2, row));
+            service.enrollmentStatusIndex().add(e.getInt(0, row), status);
+        }
+        
+        Section a = sections[ServiceJournal.ASSIGNMENT];
+        service.assignments().addLazy(a.rows, row -> a.getInt(0, row), this::assignment);
+        for (int row = 0; row < a.rows; row++) {
+            AssignmentStatus status = AssignmentStatus.valueOf(a.getString(6, row));
+            service.assignmentStatusIndex().add(a.getInt(0, row), status);
+            if (status == AssignmentStatus.PENDING && a.getLong(5, row) != NO_TIME) {
+                service.dueDates().schedule(a.getInt(0, row), DueDateWheel.expirySecond(a.getLong(5, row)));
+            }
+        }
+        
+        Section g = sections[ServiceJournal.GRADE];
+        GradeStore grades = service.grades();
+        EnrollmentStore enrollments = service.enrollments();
+        for (int row = 0; row < g.rows; row++) {
+            grades.addRow(g.getInt(0, row), g.getInt(1, row), g.getInt(2, row), g.getDouble(3, row),
+                          g.getString(4, row), g.getLong(5, row));
+            int assignment = service.assignments().positionOf(g.getInt(2, row));
+            int enrollment = assignment < 0 ? -1 : enrollments.positionOf(a.getInt(1, assignment));
+            if (enrollment >= 0) {
+                service.gpaIndex().load(g.getInt(0, row), g.getInt(1, row), enrollments.courseIdAt(enrollment),
+                                        g.getDouble(3, row));
+            }
+        }
+        service.gpaIndex().rankLoaded();
+        service.getStatistics().countGrades(grades.size(), grades.scoreSum(), grades.letterHistogram());
+        
+        Student.setNextId(nextIds[ServiceJournal.STUDENT]);
+        Course.setNextId(nextIds[ServiceJournal.COURSE]);
+        Instructor.setNextId(nextIds[ServiceJournal.INSTRUCTOR]);
+        Enrollment.setNextId(nextIds[ServiceJournal.ENROLLMENT]);
+        Assignment.setNextId(nextIds[ServiceJournal.ASSIGNMENT]);
+        Grade.setNextId(nextIds[ServiceJournal.GRADE]);
+        event.finish("snapshot", "all", getTotalRows(), 0);
+    }
+    
+    private Student student(int row) {
+        Section s = sections[ServiceJournal.STUDENT];
+        return new Student(s.getInt(0, row), s.getString(1, row), s.getString(2, row), s.getString(3, row),
+                           s.getString(4, row), s.getTime(5, row));
+    }
+    
+    private Course course(int row) {
+        Section c = sections[ServiceJournal.COURSE];
+        return new Course(c.getInt(0, row), c.getString(1, row), c.getString(2, row), c.getString(3, row),
+                          c.getInt(4, row), c.getString(5, row), c.getTime(6, row));
+    }
+    
+    private Instructor instructor(int row) {
+        Section i = sections[ServiceJournal.INSTRUCTOR];
+        return new Instructor(i.getInt(0, row), i.getString(1, row), i.getString(2, row), i.getString(3, row),
+                              i.getString(4, row), i.getString(5, row), i.getString(6, row), i.getTime(7, row),
+                              i.getInt(8, row));
+    }
+    
+    private Assignment assignment(int row) {
+        Section a = sections[ServiceJournal.ASSIGNMENT];
+        return new Assignment(a.getInt(0, row), a.getInt(1, row), a.getString(2, row), a.getString(3, row),
+                              a.getTime(4, row), a.getTime(5, row), AssignmentStatus.valueOf(a.getString(6, row)),
+                              a.getString(7, row));
+    }
+    
+    private String string(int index) {
+        if (index < 0) return null;
+        String value = strings[index];
+        if (value == null) {
+            int start = data.getInt(stringOffsets + index * 4);
+            int end = data.getInt(stringOffsets + (index + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            data.get(stringBytes + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+    
+    private static int width(char column) {
+        return column == 'T' || column == 'D' ? 8 : 4;
+    }
+    
+    private final class Section {
+        final int rows;
+        final int[] columnStart;
+        
+        Section(int type, int rows, int offset) {
+            this.rows = rows;
+            String layout = LAYOUTS[type];
+            columnStart = new int[layout.length()];
+            for (int column = 0; column < layout.length(); column++) {
+                columnStart[column] = offset;
+                offset += width(layout.charAt(column)) * rows;
+            }
+        }
+        
+        int getInt(int column, int row) { return data.getInt(columnStart[column] + row * 4); }
+        long getLong(int column, int row) { return data.getLong(columnStart[column] + row * 8); }
+        double getDouble(int column, int row) { return data.getDouble(columnStart[column] + row * 8); }
+        String getString(int column, int row) { return string(getInt(column, row)); }
+        
+        LocalDateTime getTime(int column, int row) {
+            long seconds = data.getLong(columnStart[column] + row * 8);
+            return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+        }
+    }
+    
+    // Writes a snapshot of the service under a temporary name and atomically
+    // renames it into place
+    public static void write(Path path, EducationService service, long logGeneration) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(out);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putLong(0, MAGIC).putLong(8, logGeneration)
+                  .putLong(16, LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
+            writer.position(HEADER_BYTES);
+            
+            header.putLong(72, writer.position());
+            Repository<Student> students = service.students();
+            SectionWriter section = new SectionWriter(writer, ServiceJournal.STUDENT, students.size());
+            for (int row = 0; row < students.size(); row++) {
+                Student x = students.peek(row);
+                section.putInt(x.getStudentId());
+                section.putString(x.getFirstName());
+                section.putString(x.getLastName());
+                section.putString(x.getEmail());
+                section.putString(x.getPhone());
+                section.putTime(x.getCreatedAtTime());
+            }
+            section.finish();
+            
+            header.putLong(80, writer.position());
+            Repository<Course> courses = service.courses();
+            section = new SectionWriter(writer, ServiceJournal.COURSE, courses.size());
+            for (int row = 0; row < courses.size(); row++) {
+                Course x = courses.peek(row);
+                section.putInt(x.getCourseId());
+                section.putString(x.getCourseCode());
+                section.putString(x.getCourseName());
+                section.putString(x.getDescription());
+                section.putInt(x.getCredits());
+                section.putString(x.getDepartment());
+                section.putTime(x.getCreatedAtTime());
+            }
+            section.finish();
+            
+            header.putLong(88, writer.position());
+            Repository<Instructor> instructors = service.instructors();
+            section = new SectionWriter(writer, ServiceJournal.INSTRUCTOR, instructors.size());
+            for (int row = 0; row < instructors.size(); row++) {
+                Instructor x = instructors.peek(row);
+                section.putInt(x.getInstructorId());
+                section.putString(x.getName());
+                section.putString(x.getStatus());
+                section.putString(x.getLocation());
+                section.putString(x.getContact());
+                section.putString(x.getEmail());
+                section.putString(x.getSpecialization());
+                section.putTime(x.getAssignedSinceTime());
+                section.putInt(x.getAssignedCourseId());
+            }
+            section.finish();
+            
+            header.putLong(96, writer.position());
+            EnrollmentStore enrollments = service.enrollments();
+            for (int row = 0; row < enrollments.size(); row++) writer.putInt(enrollments.idAt(row));
+            for (int row = 0; row < enrollments.size(); row++) writer.putInt(enrollments.studentIdAt(row));
+            for (int row = 0; row < enrollments.size(); row++) writer.putInt(enrollments.courseIdAt(row));
+            for (int row = 0; row < enrollments.size(); row++) writer.putString(enrollments.descriptionAt(row));
+            for (int row = 0; row < enrollments.size(); row++) writer.putLong(enrollments.dateSecondsAt(row));
+            for (int row = 0; row < enrollments.size(); row++) writer.putString(enrollments.statusAt(row).name());
+            for (int row = 0; row < enrollments.size(); row++) writer.putString(enrollments.remarksAt(row));
+            
+            header.putLong(104, writer.position());
+            Repository<Assignment> assignments = service.assignments();
+            section = new SectionWriter(writer, ServiceJournal.ASSIGNMENT, assignments.size());
+            for (int row = 0; row < assignments.size(); row++) {
+                Assignment x = assignments.peek(row);
+                section.putInt(x.getAssignmentId());
+                section.putInt(x.getEnrollmentId());
+                section.putString(x.getTitle());
+                section.putString(x.getDescription());
+                section.putTime(x.getDateTime());
+                section.putTime(x.getDueDateTime());
+                section.putString(x.getStatus().name());
+                section.putString(x.getRemarks());
+            }
+            section.finish();
+            
+            header.putLong(112, writer.position());
+            GradeStore grades = service.grades();
+            for (int row = 0; row < grades.size(); row++) writer.putInt(grades.idAt(row));
+            for (int row = 0; row < grades.size(); row++) writer.putInt(grades.studentIdAt(row));
+            for (int row = 0; row < grades.size(); row++) writer.putInt(grades.assignmentIdAt(row));
+            for (int row = 0; row < grades.size(); row++) writer.putDouble(grades.scoreAt(row));
+            for (int row = 0; row < grades.size(); row++) writer.putString(grades.commentsAt(row));
+            for (int row = 0; row < grades.size(); row++) writer.putLong(grades.createdAtSecondsAt(row));
+            
+            int[] rows = { 0, students.size(), courses.size(), instructors.size(), enrollments.size(),
+                           assignments.size(), grades.size() };
+            int[] nextIds = { 0, Student.getNextId(), Course.getNextId(), Instructor.getNextId(),
+                              Enrollment.getNextId(), Assignment.getNextId(), Grade.getNextId() };
+            for (int type = 1; type < TYPES; type++) {
+                header.putInt(24 + (type - 1) * 4, rows[type]);
+                header.putInt(48 + (type - 1) * 4, nextIds[type]);
+            }
+            header.putLong(120, writer.position());
+            writer.writeStringTable();
+            writer.flush();
+            if (writer.position() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshots larger than 2 GiB are not supported");
+            }
+            
+            out.write(header, 0);
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // Writes a section of entity rows row by row. Every column has its own buffer
+    // that is flushed to where the column lies in the file, so each row is read
+    // once; peeking lazily loaded rows instead of getting them keeps a checkpoint
+    // from pulling them onto the heap.
+    private static final class SectionWriter {
+        private static final int COLUMN_BUFFER = 1 << 16;
+        
+        private final Writer writer;
+        private final ByteBuffer[] columns;
+        private final long[] positions;
+        private final long end;
+        private int column;
+        
+        SectionWriter(Writer writer, int type, int rows) throws IOException {
+            this.writer = writer;
+            String layout = LAYOUTS[type];
+            columns = new ByteBuffer[layout.length()];
+            positions = new long[layout.length()];
+            long position = writer.position();
+            for (int i = 0; i < layout.length(); i++) {
+                columns[i] = ByteBuffer.allocate(COLUMN_BUFFER);
+                positions[i] = position;
+                position += (long) width(layout.charAt(i)) * rows;
+            }
+            end = position;
+            writer.flush();
+        }
+        
+        void putInt(int value) throws IOException { next(4).putInt(value); }
+        void putString(String value) throws IOException { next(4).putInt(writer.stringId(value)); }
+        
+        void putTime(LocalDateTime value) throws IOException {
+            next(8).putLong(value == null ? NO_TIME : value.toEpochSecond(ZoneOffset.UTC));
+        }
+        
+        void finish() throws IOException {
+            for (int i = 0; i < columns.length; i++) flush(i);
+            writer.position(end);
+        }
+        
+        private ByteBuffer next(int bytes) throws IOException {
+            int current = column;
+            column = column + 1 == columns.length ? 0 : column + 1;
+            if (columns[current].remaining() < bytes) flush(current);
+            return columns[current];
+        }
+        
+        private void flush(int i) throws IOException {
+            ByteBuffer buffer = columns[i];
+            buffer.flip();
+            while (buffer.hasRemaining()) positions[i] += writer.out.write(buffer, positions[i]);
+            buffer.clear();
+        }
+    }
+    
+    private static final class Writer {
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<byte[]> stringTable = new ArrayList<>();
+        private long flushed;
+        
+        Writer(FileChannel out) {
+            this.out = out;
+        }
+        
+        long position() { return flushed + buffer.position(); }
+        
+        void position(long position) throws IOException {
+            flush();
+            out.position(position);
+            flushed = position;
+        }
+        
+        void putInt(int value) throws IOException { ensure(4).putInt(value); }
+        void putLong(long value) throws IOException { ensure(8).putLong(value); }
+        void putDouble(double value) throws IOException { ensure(8).putDouble(value); }
+        
+        void putTime(LocalDateTime value) throws IOException {
+            putLong(value == null ? NO_TIME : value.toEpochSecond(ZoneOffset.UTC));
+        }
+        
+        void putString(String value) throws IOException {
+            putInt(stringId(value));
+        }
+        
+        int stringId(String value) {
+            if (value == null) return -1;
+            Integer id = stringIds.get(value);
+            if (id == null) {
+                id = stringTable.size();
+                stringIds.put(value, id);
+                stringTable.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return id;
+        }
+        
+        void writeStringTable() throws IOException {
+            putInt(stringTable.size());
+            int offset = 0;
+            putInt(offset);
+            for (byte[] bytes : stringTable) {
+                offset += bytes.length;
+                putInt(offset);
+            }
+            for (byte[] bytes : stringTable) {
+                int written = 0;
+                while (written < bytes.length) {
+                    int chunk = Math.min(bytes.length - written, Math.max(1, buffer.remaining()));
+                    ensure(chunk).put(bytes, written, chunk);
+                    written += chunk;
+                }
+            }
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) out.write(buffer);
+            flushed = out.position();
+            buffer.clear();
+        }
+        
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+            return buffer;
+        }
+    }
+}
+
+// Journals every insert and setter-based update of the service's entities into a
+// WriteAheadLog. On startup the service is restored from the latest snapshot and the
+// log written since; once the log grows large a checkpoint folds it into a new snapshot.
+class ServiceJournal implements AutoCloseable {
+    static final byte STUDENT = 1;
+    static final byte COURSE = 2;
+    static final byte INSTRUCTOR = 3;
+    static final byte ENROLLMENT = 4;
+    static final byte ASSIGNMENT = 5;
+    static final byte GRADE = 6;
+    static final byte UPDATE = 16;
+    
+    // Field codes of setter updates are indexes into these tables
+    private static final String[][] FIELDS = {
+        {},
+        { "firstName", "lastName", "email", "phone" },
+        { "courseName", "description", "credits", "department" },
+        { "name", "status", "location", "contact", "email", "specialization", "assignedCourseId" },
+        { "description", "status", "remarks" },
+        { "title", "description", "dueDate", "status", "remarks" },
+        { "score", "comments" }
+    };
+    
+    private static final long CHECKPOINT_BYTES = 64L << 20;
+    private static final long CHECKPOINT_ON_CLOSE_BYTES = 4L << 20;
+    
+    private final EducationService service;
+    private final Path snapshotPath;
+    private final RecordBuffer record = new RecordBuffer();
+    private WriteAheadLog log;
+    private long snapshotRows;
+    private long replayedRecords;
+    private long lastSequence;
+    private boolean deferSync;
+    private volatile boolean checkpointDue;
+    
+    private ServiceJournal(EducationService service, Path snapshotPath) {
+        this.service = service;
+        this.snapshotPath = snapshotPath;
+    }
+    
+    public static ServiceJournal open(Path logPath, Path snapshotPath, EducationService service) throws IOException {
+        ServiceJournal journal = new ServiceJournal(service, snapshotPath);
+        long generation = 0;
+        if (Files.exists(snapshotPath)) {
+            Snapshot snapshot = Snapshot.open(snapshotPath);
+            snapshot.restoreInto(service);
+            journal.snapshotRows = snapshot.getTotalRows();
+            generation = snapshot.getLogGeneration();
+        }
+        journal.log = WriteAheadLog.open(logPath, generation, journal::apply);
+        service.students().addListener(journal.listener(STUDENT, Student::getStudentId, journal::encode));
+        service.courses().addListener(journal.listener(COURSE, Course::getCourseId, journal::encode));
+        service.instructors().addListener(journal.listener(INSTRUCTOR, Instructor::getInstructorId, journal::encode));
+        service.enrollments().addListener(journal.listener(ENROLLMENT, Enrollment::getEnrollmentId, journal::encode));
+        service.assignments().addListener(journal.listener(ASSIGNMENT, Assignment::getAssignmentId, journal::encode));
+        service.grades().addListener(journal.listener(GRADE, Grade::getGradeId, journal::encode));
+        return journal;
+    }
+    
+    public long getSnapshotRows() { return snapshotRows; }
+    public long getReplayedRecords() { return replayedRecords; }
+    public long getLogSize() { return log.size(); }
+    
+    // While a batch is open, mutations are not individually waited on; endBatch
+    // waits once for everything appended in the meantime.
+    public synchronized void beginBatch() {
+        deferSync = true;
+    }
+    
+    public synchronized void endBatch() {
+        deferSync = false;
+        sync();
+    }
+    
+    // Like endBatch, but returns the sequence to wait for instead of waiting, so the
+    // caller can release its own locks first and let other writers share the flush
+    public synchronized long endBatchDeferred() {
+        deferSync = false;
+        return lastSequence;
+    }
+    
+    public synchronized void sync() {
+        awaitDurable(lastSequence);
+    }
+    
+    public void awaitDurable(long sequence) {
+        try {
+            log.awaitDurable(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Writes a snapshot tagged with the next log generation, then empties the log
+    public synchronized void checkpoint() throws IOException {
+        long generation = log.generation() + 1;
+        Snapshot.write(snapshotPath, service, generation);
+        log.reset(generation);
+        checkpointDue = false;
+    }
+    
+    // Set once the log outgrows CHECKPOINT_BYTES. The checkpoint itself is left to
+    // the caller of checkpointIfDue, outside any change and without excluding readers.
+    public boolean isCheckpointDue() {
+        return checkpointDue;
+    }
+    
+    public synchronized void checkpointIfDue() {
+        if (!checkpointDue) return;
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot", e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (log.size() > CHECKPOINT_ON_CLOSE_BYTES) checkpoint();
+        } finally {
+            log.close();
+        }
+    }
+    
+    private <T> EntityListener<T> listener(byte type, ToIntFunction<T> idOf, BiConsumer<RecordBuffer, T> encoder) {
+        return new EntityListener<>() {
+            @Override
+            public void inserted(T entity) {
+                synchronized (ServiceJournal.this) {
+                    encoder.accept(record.clear(), entity);
+                    commit(type);
+                }
+            }
+            
+            @Override
+            public void updated(T entity, String field, Object oldValue, Object newValue) {
+                synchronized (ServiceJournal.this) {
+                    record.clear().putByte(type).putInt(idOf.applyAsInt(entity)).putByte(fieldCode(type, field));
+                    putValue(newValue);
+                    commit(UPDATE);
+                }
+            }
+        };
+    }
+    
+    private void commit(byte type) {
+        try {
+            lastSequence = log.append(type, record.payload());
+            if (!deferSync) log.awaitDurable(lastSequence);
+            if (log.size() > CHECKPOINT_BYTES) checkpointDue = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write data log", e);
+        }
+    }
+    
+    private static int fieldCode(byte type, String field) {
+        String[] fields = FIELDS[type];
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) return i;
+        }
+        throw new IllegalArgumentException("Unknown field: " + field);
+    }
+    
+    private void putValue(Object value) {
+        if (value instanceof String text) record.putByte('S').putString(text);
+        else if (value instanceof Integer number) record.putByte('I').putInt(number);
+        else if (value instanceof Double number) record.putByte('D').putDouble(number);
+        else if (value instanceof LocalDateTime time) record.putByte('T').putTime(time);
+        else if (value instanceof Enum<?> constant) record.putByte('S').putString(constant.name());
+        else if (value == null) record.putByte('S').putString(null);
+        else throw new IllegalArgumentException("Unsupported value: " + value.getClass());
+    }
+    
+    private static Object getValue(ByteBuffer in) {
+        return switch (in.get()) {
+            case 'S' -> RecordBuffer.getString(in);
+            case 'I' -> in.getInt();
+            case 'D' -> in.getDouble();
+            case 'T' -> RecordBuffer.getTime(in);
+            default -> throw new IllegalStateException("Corrupt value tag");
+        };
+    }
+    
+    private void encode(RecordBuffer out, Student s) {
+        out.putInt(s.getStudentId()).putString(s.getFirstName()).putString(s.getLastName())
+           .putString(s.getEmail()).putString(s.getPhone()).putTime(s.getCreatedAtTime());
+    }
+    
+    private void encode(RecordBuffer out, Course c) {
+        out.putInt(c.getCourseId()).putString(c.getCourseCode()).putString(c.getCourseName())
+           .putString(c.getDescription()).putInt(c.getCredits()).putString(c.getDepartment())
+           .putTime(c.getCreatedAtTime());
+    }
+    
+    private void encode(RecordBuffer out, Instructor i) {
+        out.putInt(i.getInstructorId()).putString(i.getName()).putString(i.getStatus()).putString(i.getLocation())
+           .putString(i.getContact()).putString(i.getEmail()).putString(i.getSpecialization())
+           .putTime(i.getAssignedSinceTime()).putInt(i.getAssignedCourseId());
+    }
+    
+    private void encode(RecordBuffer out, Enrollment e) {
+        out.putInt(e.getEnrollmentId()).putInt(e.getStudentId()).putInt(e.getCourseId())
+           .putString(e.getDescription()).putTime(e.getDateTime()).putString(e.getStatus().name())
+           .putString(e.getRemarks());
+    }
+    
+    private void encode(RecordBuffer out, Assignment a) {
+        out.putInt(a.getAssignmentId()).putInt(a.getEnrollmentId()).putString(a.getTitle())
+           .putString(a.getDescription()).putTime(a.getDateTime()).putTime(a.getDueDateTime())
+           .putString(a.getStatus().name()).putString(a.getRemarks());
+    }
+    
+    private void encode(RecordBuffer out, Grade g) {
+        out.putInt(g.getGradeId()).putInt(g.getStudentId()).putInt(g.getAssignmentId())
+           .putDouble(g.getScore()).putString(g.getComments()).putTime(g.getCreatedAtTime());
+    }
+    
+    private void apply(byte type, ByteBuffer in) {
+        replayedRecords++;
+        switch (type) {
+            case STUDENT -> service.students().add(new Student(in.getInt(), RecordBuffer.getString(in),
+                RecordBuffer.getString(in), RecordBuffer.getString(in), RecordBuffer.getString(in),
+                RecordBuffer.getTime(in)));
+            case COURSE -> service.courses().add(new Course(in.getInt(), RecordBuffer.getString(in),
+                RecordBuffer.getString(in), RecordBuffer.getString(in), in.getInt(), RecordBuffer.getString(in),
+                RecordBuffer.getTime(in)));
+            case INSTRUCTOR -> service.instructors().add(new Instructor(in.getInt(), RecordBuffer.getString(in),
+                RecordBuffer.getString(in), RecordBuffer.getString(in), RecordBuffer.getString(in),
+                RecordBuffer.getString(in), RecordBuffer.getString(in), RecordBuffer.getTime(in), in.getInt()));
+            case ENROLLMENT -> service.enrollments().add(new Enrollment(in.getInt(), in.getInt(), in.getInt(),
+                RecordBuffer.getString(in), RecordBuffer.getTime(in), EnrollmentStatus.valueOf(RecordBuffer.getString(in)),
+                RecordBuffer.getString(in)));
+            case ASSIGNMENT -> service.assignments().add(new Assignment(in.getInt(), in.getInt(),
+                RecordBuffer.getString(in), RecordBuffer.getString(in), RecordBuffer.getTime(in),
+                RecordBuffer.getTime(in), AssignmentStatus.valueOf(RecordBuffer.getString(in)), RecordBuffer.getString(in)));
+            case GRADE -> service.grades().add(new Grade(in.getInt(), in.getInt(), in.getInt(), in.getDouble(),
+                RecordBuffer.getString(in), RecordBuffer.getTime(in)));
+            case UPDATE -> {
+                byte entityType = in.get();
+                int id = in.getInt();
+                String field = FIELDS[entityType][in.get()];
+                applyUpdate(entityType, id, field, getValue(in));
+            }
+            default -> throw new IllegalStateException("Unknown record type: " + type);
+        }
+    }
+    
+    private void applyUpdate(byte type, int id, String field, Object value) {
+        switch (type) {
+            case STUDENT -> {
+                Student s = service.students().findById(id);
+                if (s == null) return;
+                switch (field) {
+                    case "firstName" -> s.setFirstName((String) value);
+                    case "lastName" -> s.setLastName((String) value);
+                    case "email" -> s.setEmail((String) value);
+                    case "phone" -> s.setPhone((String) value);
+                }
+            }
+            case COURSE -> {
+                Course c = service.courses().findById(id);
+                if (c == null) return;
+                switch (field) {
+                    case "courseName" -> c.setCourseName((String) value);
+                    case "description" -> c.setDescription((String) value);
+                    case "credits" -> c.setCredits((Integer) value);
+                    case "department" -> c.setDepartment((String) value);
+                }
+            }
+            case INSTRUCTOR -> {
+                Instructor i = service.instructors().findById(id);
+                if (i == null) return;
+                switch (field) {
+                    case "name" -> i.setName((String) value);
+                    case "status" -> i.setStatus((String) value);
+                    case "location" -> i.setLocation((String) value);
+                    case "contact" -> i.setContact((String) value);
+                    case "email" -> i.setEmail((String) value);
+                    case "specialization" -> i.setSpecialization((String) value);
+                    case "assignedCourseId" -> i.setAssignedCourseId((Integer) value);
+                }
+            }
+            case ENROLLMENT -> {
+                Enrollment e = service.enrollments().findById(id);
+                if (e == null) return;
+                switch (field) {
+                    case "description" -> e.setDescription((String) value);
+                    case "status" -> e.setStatus(EnrollmentStatus.valueOf((String) value));
+                    case "remarks" -> e.setRemarks((String) value);
+                }
+            }
+            case ASSIGNMENT -> {
+                Assignment a = service.assignments().findById(id);
+                if (a == null) return;
+                switch (field) {
+                    case "title" -> a.setTitle((String) value);
+                    case "description" -> a.setDescription((String) value);
+                    case "dueDate" -> a.setDueDate((LocalDateTime) value);
+                    case "status" -> a.setStatus(AssignmentStatus.valueOf((String) value));
+                    case "remarks" -> a.setRemarks((String) value);
+                }
+            }
+            case GRADE -> {
+                Grade g = service.grades().findById(id);
+                if (g == null) return;
+                switch (field) {
+                    case "score" -> g.setScore((Double) value);
+                    case "comments" -> g.setComments((String) value);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown entity type: " + type);
+        }
+    }
+}
+
+// Import and export
+// Streaming CSV reader over a file channel. Records are parsed in place in a reusable
+// byte buffer (RFC 4180 quoting, LF or CRLF line ends) and a field is only decoded
+// into a String when it is asked for.
+class CsvReader implements AutoCloseable {
+    private final ReadableByteChannel channel;
+    private byte[] buffer = new byte[1 << 16];
+    private ByteBuffer window = ByteBuffer.wrap(buffer);
+    private int start;
+    private int limit;
+    private boolean endOfFile;
+    private int fields;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private long line;
+    private long nextLine = 1;
+    private Runnable beforeRead;
+    
+    public CsvReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+    
+    public CsvReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        fill();
+        if (limit >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+            start = 3;
+        }
+    }
+    
+    // Advances to the next non-blank record; returns false at end of file
+    public boolean next() throws IOException {
+        while (true) {
+            int end = parse(start, endOfFile);
+            if (end < 0) {
+                if (beforeRead != null) beforeRead.run();
+                fill();
+                continue;
+            }
+            if (end == start && endOfFile) return false;
+            start = end;
+            if (fields > 1 || fieldEnd[0] > fieldStart[0]) return true;
+        }
+    }
+    
+    public long getLine() { return line; }
+    public int fieldCount() { return fields; }
+    
+    // Runs before each further read from the channel, which may block on a pipe
+    public void setBeforeRead(Runnable action) { this.beforeRead = action; }
+    
+    public boolean isBlank(int field) {
+        return field < 0 || field >= fields || fieldEnd[field] == fieldStart[field];
+    }
+    
+    public String field(int field) {
+        if (field < 0 || field >= fields) return null;
+        int from = fieldStart[field];
+        int to = fieldEnd[field];
+        if (!escaped[field]) return new String(buffer, from, to - from, StandardCharsets.UTF_8);
+        byte[] bytes = new byte[to - from];
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            bytes[length++] = buffer[i];
+            if (buffer[i] == '"') i++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    public int intField(int field) {
+        if (isBlank(field)) throw new NumberFormatException("empty value");
+        int i = fieldStart[field];
+        int to = fieldEnd[field];
+        boolean negative = buffer[i] == '-';
+        if (negative || buffer[i] == '+') i++;
+        if (i == to || to - i > 10) throw new NumberFormatException(field(field));
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException(field(field));
+            value = value * 10 + digit;
+        }
+        if (negative) value = -value;
+        if (value != (int) value) throw new NumberFormatException(field(field));
+        return (int) value;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    // Parses one record starting at pos. Returns the position after it, or -1 when
+    // the record is not complete in the buffer yet.
+    private int parse(int pos, boolean atEnd) {
+        fields = 0;
+        int lines = 1;
+        int i = pos;
+        while (true) {
+            if (fields == fieldStart.length) growFields();
+            boolean quoted = i < limit && buffer[i] == '"';
+            boolean hasEscapes = false;
+            int from = quoted ? i + 1 : i;
+            int to;
+            if (quoted) {
+                i++;
+                while (true) {
+                    if (i >= limit) {
+                        if (!atEnd) return -1;
+                        to = limit;
+                        break;
+                    }
+                    byte b = buffer[i];
+                    if (b == '"') {
+                        if (i + 1 >= limit && !atEnd) return -1;
+                        if (i + 1 < limit && buffer[i + 1] == '"') {
+                            hasEscapes = true;
+                            i += 2;
+                            continue;
+                        }
+                        to = i++;
+                        break;
+                    }
+                    if (b == '\n') lines++;
+                    i++;
+                }
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n') i++;
+            } else {
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n') i++;
+                to = i;
+            }
+            if (i >= limit && !atEnd) return -1;
+            if (i >= limit || buffer[i] == '\n') {
+                if (!quoted && to > from && buffer[to - 1] == '\r') to--;
+            }
+            fieldStart[fields] = from;
+            fieldEnd[fields] = to;
+            escaped[fields] = hasEscapes;
+            fields++;
+            if (i >= limit) {
+                line = nextLine;
+                nextLine += lines;
+                return limit;
+            }
+            if (buffer[i++] == '\n') {
+                line = nextLine;
+                nextLine += lines;
+                return i;
+            }
+        }
+    }
+    
+    private void fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            limit -= start;
+            start = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            window = ByteBuffer.wrap(buffer);
+        }
+        window.limit(buffer.length).position(limit);
+        int read = channel.read(window);
+        if (read < 0) endOfFile = true;
+        else limit += read;
+    }
+    
+    private void growFields() {
+        fieldStart = Arrays.copyOf(fieldStart, fields * 2);
+        fieldEnd = Arrays.copyOf(fieldEnd, fields * 2);
+        escaped = Arrays.copyOf(escaped, fields * 2);
+    }
+}
+
+class ImportReport {
+    private static final int MAX_REJECTIONS_KEPT = 20;
+    
+    private final String entity;
+    private final List<String> rejections = new ArrayList<>();
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedNanos;
+    
+    public ImportReport(String entity) {
+        this.entity = entity;
+    }
+    
+    void accepted() {
+        rowsRead++;
+        imported++;
+    }
+    
+    void rejected(long line, String reason) {
+        rowsRead++;
+        rejected++;
+        if (rejections.size() < MAX_REJECTIONS_KEPT) rejections.add("line " + line + ": " + reason);
+    }
+    
+    void finished(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    public String getEntity() { return entity; }
+    public long getRowsRead() { return rowsRead; }
+    public long getImported() { return imported; }
+    public long getRejected() { return rejected; }
+    public List<String> getRejections() { return rejections; }
+    public double getSeconds() { return elapsedNanos / 1e9; }
+    public long getRowsPerSecond() { return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000L / elapsedNanos; }
+}
+
+// Bulk loader for students, courses and enrollments from CSV files with a header
+// row. Columns are matched by name, every row is validated (including foreign keys
+// against the repositories) and inserted as it is read, and journal syncs are
+// grouped per batch instead of per row.
+class CsvImporter {
+    private static final int BATCH_SIZE = 10_000;
+    
+    private final EducationService service;
+    
+    public CsvImporter(EducationService service) {
+        this.service = service;
+    }
+    
+    // Columns: firstName, lastName, email, phone
+    public ImportReport importStudents(Path path) throws IOException {
+        return load(path, "students", new String[] { "firstName", "lastName", "email", "phone" }, 2, (row, col) -> {
+            if (row.isBlank(col[0]) || row.isBlank(col[1])) return "first and last name are required";
+            String email = row.field(col[2]);
+            if (email != null && !email.isEmpty() && email.indexOf('@') < 0) return "invalid email: " + email;
+            service.students().add(new Student(row.field(col[0]), row.field(col[1]), email, row.field(col[3])));
+            return null;
+        });
+    }
+    
+    // Columns: courseCode, courseName, credits, description, department
+    public ImportReport importCourses(Path path) throws IOException {
+        Set<String> codes = new HashSet<>();
+        for (Course course : service.courses()) codes.add(course.getCourseCode());
+        return load(path, "courses",
+                    new String[] { "courseCode", "courseName", "credits", "description", "department" }, 3,
+                    (row, col) -> {
+            if (row.isBlank(col[0]) || row.isBlank(col[1])) return "course code and name are required";
+            int credits = row.intField(col[2]);
+            if (credits < 0) return "credits must not be negative";
+            String code = row.field(col[0]);
+            if (!codes.add(code)) return "duplicate course code " + code;
+            service.courses().add(new Course(code, row.field(col[1]), row.field(col[3]), credits, row.field(col[4])));
+            return null;
+        });
+    }
+    
+    // Columns: studentId, courseId, description, status
+    public ImportReport importEnrollments(Path path) throws IOException {
+        return load(path, "enrollments", new String[] { "studentId", "courseId", "description", "status" }, 2,
+                    (row, col) -> {
+            int studentId = row.intField(col[0]);
+            int courseId = row.intField(col[1]);
+            if (!service.students().containsId(studentId)) return "unknown student ID " + studentId;
+            if (!service.courses().containsId(courseId)) return "unknown course ID " + courseId;
+            if (service.isEnrolled(studentId, courseId)) return "student " + studentId + " is already enrolled in course " + courseId;
+            Enrollment enrollment = new Enrollment(studentId, courseId, row.field(col[2]));
+            if (!row.isBlank(col[3])) {
+                String status = row.field(col[3]).toUpperCase(Locale.ROOT);
+                try {
+                    enrollment.setStatus(EnrollmentStatus.valueOf(status));
+                } catch (IllegalArgumentException e) {
+                    return "invalid status " + status;
+                }
+            }
+            service.enrollments().add(enrollment);
+            return null;
+        });
+    }
+    
+    private interface RowLoader {
+        // Inserts the row and returns null, or returns why it was rejected
+        String load(CsvReader row, int[] columns);
+    }
+    
+    private ImportReport load(Path path, String entity, String[] names, int required, RowLoader loader)
+            throws IOException {
+        ImportReport report = new ImportReport(entity);
+        ServiceJournal journal = service.getJournal();
+        BulkLoadEvent event = new BulkLoadEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try (CsvReader csv = new CsvReader(path)) {
+            if (!csv.next()) throw new IOException("File is empty: " + path);
+            int[] columns = columns(csv, names, required);
+            if (journal != null) journal.beginBatch();
+            try {
+                long inBatch = 0;
+                while (csv.next()) {
+                    String rejection;
+                    try {
+                        rejection = loader.load(csv, columns);
+                    } catch (NumberFormatException e) {
+                        rejection = "invalid number " + e.getMessage();
+                    }
+                    if (rejection == null) report.accepted();
+                    else report.rejected(csv.getLine(), rejection);
+                    if (journal != null && ++inBatch == BATCH_SIZE) {
+                        journal.endBatch();
+                        journal.beginBatch();
+                        inBatch = 0;
+                    }
+                }
+            } finally {
+                if (journal != null) journal.endBatch();
+            }
+        }
+        report.finished(System.nanoTime() - started);
+        event.finish("csv import", entity, report.getImported(), report.getRejected());
+        return report;
+    }
+    
+    // Maps each expected column to its position in the header row, or -1 when an
+    // optional column is absent
+    private static int[] columns(CsvReader header, String[] names, int required) throws IOException {
+        int[] columns = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = -1;
+            for (int f = 0; f < header.fieldCount(); f++) {
+                if (normalize(header.field(f)).equals(normalize(names[i]))) columns[i] = f;
+            }
+            if (columns[i] < 0 && i < required) throw new IOException("Missing column: " + names[i]);
+        }
+        return columns;
+    }
+    
+    private static String normalize(String name) {
+        return name.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+}
+
+// Buffered record writer for CSV or JSON Lines. Values are encoded straight into one
+// reusable byte buffer that is written to the channel whenever it fills up, so no
+// per-row strings are built.
+class ExportWriter implements AutoCloseable {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int RAW = 0;
+    private static final int CSV_QUOTED = 1;
+    private static final int JSON_STRING = 2;
+    
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final byte[] digits = new byte[20];
+    private final StringBuilder number = new StringBuilder(32);
+    private final boolean json;
+    private final byte[][] keys;
+    private int position;
+    private int column;
+    private long records;
+    private long flushed;
+    
+    public ExportWriter(Path path, boolean json, String... columns) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                              StandardOpenOption.TRUNCATE_EXISTING), 1 << 20, json, columns);
+    }
+    
+    public ExportWriter(WritableByteChannel channel, int bufferBytes, boolean json, String... columns) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferBytes);
+        this.bytes = buffer.array();
+        this.json = json;
+        keys = new byte[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            keys[i] = ((i == 0 ? "{\"" : ",\"") + columns[i] + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+        if (!json) {
+            for (String name : columns) value(name);
+            endRecord();
+            records = 0;
+        }
+    }
+    
+    public ExportWriter value(String value) throws IOException {
+        separator();
+        if (value == null) {
+            if (json) ascii("null");
+        } else if (json) {
+            put('"');
+            chars(value, JSON_STRING);
+            put('"');
+        } else if (needsQuotes(value)) {
+            put('"');
+            chars(value, CSV_QUOTED);
+            put('"');
+        } else {
+            chars(value, RAW);
+        }
+        return this;
+    }
+    
+    public ExportWriter value(long value) throws IOException {
+        separator();
+        if (value == Long.MIN_VALUE) {
+            ascii(Long.toString(value));
+            return this;
+        }
+        ensure(20);
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+        int i = digits.length;
+        do {
+            digits[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        System.arraycopy(digits, i, bytes, position, digits.length - i);
+        position += digits.length - i;
+        return this;
+    }
+    
+    public ExportWriter value(double value) throws IOException {
+        separator();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            if (json) ascii("null");
+            return this;
+        }
+        number.setLength(0);
+        number.append(value);
+        ensure(number.length());
+        for (int i = 0; i < number.length(); i++) bytes[position++] = (byte) number.charAt(i);
+        return this;
+    }
+    
+    // Timestamps are written as yyyy-MM-dd HH:mm:ss, like the menus show them
+    public ExportWriter value(LocalDateTime value) throws IOException {
+        separator();
+        if (value == null) {
+            if (json) ascii("null");
+            return this;
+        }
+        ensure(21);
+        if (json) bytes[position++] = '"';
+        pad(value.getYear(), 4);
+        bytes[position++] = '-';
+        pad(value.getMonthValue(), 2);
+        bytes[position++] = '-';
+        pad(value.getDayOfMonth(), 2);
+        bytes[position++] = ' ';
+        pad(value.getHour(), 2);
+        bytes[position++] = ':';
+        pad(value.getMinute(), 2);
+        bytes[position++] = ':';
+        pad(value.getSecond(), 2);
+        if (json) bytes[position++] = '"';
+        return this;
+    }
+    
+    public void endRecord() throws IOException {
+        ensure(2);
+        if (json) bytes[position++] = '}';
+        bytes[position++] = '\n';
+        column = 0;
+        records++;
+    }
+    
+    public long getRecords() { return records; }
+    public long getBytesWritten() { return flushed + position; }
+    
+    // Writes ASCII text as is, to frame JSON records into a larger document
+    public ExportWriter raw(String text) throws IOException {
+        ascii(text);
+        return this;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private void separator() throws IOException {
+        if (json) {
+            byte[] key = keys[column];
+            ensure(key.length);
+            System.arraycopy(key, 0, bytes, position, key.length);
+            position += key.length;
+        } else if (column > 0) {
+            put(',');
+        }
+        column++;
+    }
+    
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+    
+    private void chars(String value, int escape) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (position + 6 > bytes.length) flush();
+            if (c < 0x80) {
+                if (escape == JSON_STRING && (c == '"' || c == '\\' || c < 0x20)) {
+                    jsonEscape(c);
+                } else {
+                    if (escape == CSV_QUOTED && c == '"') bytes[position++] = '"';
+                    bytes[position++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | c >> 6);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                bytes[position++] = '?';
+            } else {
+                bytes[position++] = (byte) (0xE0 | c >> 12);
+                bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+    
+    private void jsonEscape(char c) {
+        bytes[position++] = '\\';
+        switch (c) {
+            case '"' -> bytes[position++] = '"';
+            case '\\' -> bytes[position++] = '\\';
+            case '\n' -> bytes[position++] = 'n';
+            case '\r' -> bytes[position++] = 'r';
+            case '\t' -> bytes[position++] = 't';
+            default -> {
+                bytes[position++] = 'u';
+                bytes[position++] = '0';
+                bytes[position++] = '0';
+                bytes[position++] = HEX[c >> 4];
+                bytes[position++] = HEX[c & 0xF];
+            }
+        }
+    }
+    
+    private void pad(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+    
+    private void ascii(String text) throws IOException {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) bytes[position++] = (byte) text.charAt(i);
+    }
+    
+    private void put(char c) throws IOException {
+        ensure(1);
+        bytes[position++] = (byte) c;
+    }
+    
+    private void ensure(int length) throws IOException {
+        if (position + length > bytes.length) flush();
+    }
+    
+    private void flush() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) channel.write(buffer);
+        flushed += position;
+        position = 0;
+    }
+}
+
+// Streams every entity type to a CSV or JSON Lines file. Rows are read from the
+// repositories one at a time without materializing lazily loaded rows, so memory
+// use does not grow with the size of the export.
+class DataExporter {
+    static final RecordLayout<Student> STUDENTS = new RecordLayout<>((out, s) ->
+        out.value(s.getStudentId()).value(s.getStudentNumber()).value(s.getFirstName()).value(s.getLastName())
+           .value(s.getEmail()).value(s.getPhone()).value(s.getCreatedAtTime()),
+        "studentId", "studentNumber", "firstName", "lastName", "email", "phone", "createdAt");
+    
+    static final RecordLayout<Course> COURSES = new RecordLayout<>((out, c) ->
+        out.value(c.getCourseId()).value(c.getCourseCode()).value(c.getCourseName()).value(c.getCredits())
+           .value(c.getDescription()).value(c.getDepartment()).value(c.getCreatedAtTime()),
+        "courseId", "courseCode", "courseName", "credits", "description", "department", "createdAt");
+    
+    static final RecordLayout<Instructor> INSTRUCTORS = new RecordLayout<>((out, n) ->
+        out.value(n.getInstructorId()).value(n.getIdentifier()).value(n.getName()).value(n.getStatus())
+           .value(n.getLocation()).value(n.getContact()).value(n.getEmail()).value(n.getSpecialization())
+           .value(n.getAssignedSinceTime()).value(n.getAssignedCourseId()),
+        "instructorId", "identifier", "name", "status", "location", "contact", "email", "specialization",
+        "assignedSince", "assignedCourseId");
+    
+    static final RecordLayout<Enrollment> ENROLLMENTS = new RecordLayout<>((out, e) ->
+        out.value(e.getEnrollmentId()).value(e.getReferenceId()).value(e.getStudentId()).value(e.getCourseId())
+           .value(e.getDescription()).value(e.getStatus().name()).value(e.getDateTime()).value(e.getRemarks()),
+        "enrollmentId", "referenceId", "studentId", "courseId", "description", "status", "date", "remarks");
+    
+    static final RecordLayout<Assignment> ASSIGNMENTS = new RecordLayout<>((out, a) ->
+        out.value(a.getAssignmentId()).value(a.getReferenceId()).value(a.getEnrollmentId()).value(a.getTitle())
+           .value(a.getDescription()).value(a.getDateTime()).value(a.getDueDateTime()).value(a.getStatus().name())
+           .value(a.getRemarks()),
+        "assignmentId", "referenceId", "enrollmentId", "title", "description", "date", "dueDate", "status", "remarks");
+    
+    static final RecordLayout<Grade> GRADES = new RecordLayout<>((out, g) ->
+        out.value(g.getGradeId()).value(g.getStudentId()).value(g.getAssignmentId()).value(g.getScore())
+           .value(g.getGrade()).value(g.getComments()).value(g.getCreatedAtTime()),
+        "gradeId", "studentId", "assignmentId", "score", "grade", "comments", "createdAt");
+    
+    private final EducationService service;
+    
+    public DataExporter(EducationService service) {
+        this.service = service;
+    }
+    
+    // Writes students, courses, instructors, enrollments, assignments and grades
+    // files into the directory; returns the number of records written per file
+    public Map<String, Long> exportAll(Path directory, boolean json) throws IOException {
+        Files.createDirectories(directory);
+        String extension = json ? ".jsonl" : ".csv";
+        Map<String, Long> written = new LinkedHashMap<>();
+        written.put("students", exportStudents(directory.resolve("students" + extension), json));
+        written.put("courses", exportCourses(directory.resolve("courses" + extension), json));
+        written.put("instructors", exportInstructors(directory.resolve("instructors" + extension), json));
+        written.put("enrollments", exportEnrollments(directory.resolve("enrollments" + extension), json));
+        written.put("assignments", exportAssignments(directory.resolve("assignments" + extension), json));
+        written.put("grades", exportGrades(directory.resolve("grades" + extension), json));
+        return written;
+    }
+    
+    public long exportStudents(Path path, boolean json) throws IOException {
+        return export(path, json, STUDENTS, service.students());
+    }
+    
+    public long exportCourses(Path path, boolean json) throws IOException {
+        return export(path, json, COURSES, service.courses());
+    }
+    
+    public long exportInstructors(Path path, boolean json) throws IOException {
+        return export(path, json, INSTRUCTORS, service.instructors());
+    }
+    
+    public long exportEnrollments(Path path, boolean json) throws IOException {
+        return export(path, json, ENROLLMENTS, service.enrollments());
+    }
+    
+    public long exportAssignments(Path path, boolean json) throws IOException {
+        return export(path, json, ASSIGNMENTS, service.assignments());
+    }
+    
+    public long exportGrades(Path path, boolean json) throws IOException {
+        return export(path, json, GRADES, service.grades());
+    }
+    
+    private static <T> long export(Path path, boolean json, RecordLayout<T> layout, EntityStore<T> store)
+            throws IOException {
+        try (ExportWriter out = new ExportWriter(path, json, layout.getColumns())) {
+            for (int i = 0; i < store.size(); i++) {
+                layout.write(out, store.peek(i));
+            }
+            return out.getRecords();
+        }
+    }
+}
+
+// Column names and row writer of one entity type's exported records, shared by
+// the file export and the HTTP API
+class RecordLayout<T> {
+    interface RowWriter<T> {
+        void write(ExportWriter out, T row) throws IOException;
+    }
+    
+    private final RowWriter<T> writer;
+    private final String[] columns;
+    
+    RecordLayout(RowWriter<T> writer, String... columns) {
+        this.writer = writer;
+        this.columns = columns;
+    }
+    
+    public String[] getColumns() { return columns; }
+    
+    public void write(ExportWriter out, T row) throws IOException {
+        writer.write(out, row);
+        out.endRecord();
+    }
+}
+
+// Synthetic data
+// Seeded generator of realistic datasets for load tests and benchmarks. The same
+// seed and sizes always produce the same rows, however many threads do the work:
+// students are generated in fixed chunks, each with its own random stream derived
+// from the seed and the chunk number, and chunks are inserted in order.
+//   - course popularity follows a Zipf distribution, so a few courses are crowded
+//     and most are small
+//   - scores are normal around each student's own ability, clamped to 0-100
+//   - enrollment and assignment statuses follow fixed shares, with assignments and
+//     grades only for approved and completed enrollments
+// Chunks are built in parallel on the common fork/join pool; the stores and their
+// indexes are then filled on one thread through the same bulk path a snapshot
+// restore takes, without going through the data log.
+class DatasetGenerator {
+    static final String[] FIRST_NAMES = { "John", "Jane", "Bob", "Alice", "Charlie", "Maria", "Wei", "Amara", "Lucas",
+                                          "Priya", "Omar", "Sofia", "Kenji", "Ingrid", "Tariq", "Elena", "Mateo", "Aisha",
+                                          "Noah", "Yuki", "Ivan", "Fatima", "Liam", "Chloe", "Diego", "Hana", "Samuel",
+                                          "Leila", "Oscar", "Nadia", "Felix", "Grace" };
+    static final String[] LAST_NAMES = { "Doe", "Smith", "Johnson", "Williams", "Brown", "Garcia", "Chen", "Okafor",
+                                         "Silva", "Patel", "Haddad", "Rossi", "Tanaka", "Larsen", "Khan", "Novak",
+                                         "Muller", "Kim", "Nguyen", "Mensah", "Costa", "Dubois", "Ivanova", "Cohen",
+                                         "Murphy", "Singh", "Lopez", "Yilmaz", "Andersen", "Kowalski", "Reyes", "Sato" };
+    static final String[] DEPARTMENTS = { "Computer Science", "Mathematics", "Physics", "Chemistry", "Biology",
+                                          "History", "Economics", "Philosophy", "Literature", "Engineering" };
+    static final String[] DEPARTMENT_CODES = { "CS", "MATH", "PHY", "CHEM", "BIO", "HIST", "ECON", "PHIL", "LIT", "ENG" };
+    static final String[] SUBJECTS = { "Programming", "Algebra", "Mechanics", "Databases", "Statistics", "Genetics",
+                                       "Networks", "Ethics", "Optics", "Compilers", "Calculus", "Thermodynamics",
+                                       "Ecology", "Microeconomics", "Poetry", "Robotics" };
+    private static final String[] LEVELS = { "Introduction to", "Foundations of", "Applied", "Advanced", "Topics in" };
+    private static final int[] CREDITS = { 1, 2, 3, 3, 3, 3, 4, 4, 5 };
+    private static final EnrollmentStatus[] ENROLLMENT_STATUSES = EnrollmentStatus.values();
+    private static final AssignmentStatus[] ASSIGNMENT_STATUSES = AssignmentStatus.values();
+    private static final String[] ENROLLMENT_REMARKS = { "Awaiting approval", "Approved", "Rejected", "Completed" };
+    private static final String[] ASSIGNMENT_REMARKS = { "Not submitted", "Submitted", "Graded", "Past due date" };
+    private static final String[] ASSIGNMENT_TITLES = { "Homework", "Quiz", "Lab Report", "Project", "Essay" };
+    
+    private static final int CHUNK = 1 << 14;
+    private static final int ENROLLMENTS_PER_STUDENT = 4;  // mean; 1 to 7 per student
+    private static final int ASSIGNMENTS_PER_ENROLLMENT = 3;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final double SCORE_MEAN = 74;
+    private static final double ABILITY_STDDEV = 9;
+    private static final double SCORE_STDDEV = 8;
+    private static final LocalDateTime TERM_START = LocalDateTime.of(2025, 9, 1, 8, 0);
+    private static final long TERM_START_SECONDS = TERM_START.toEpochSecond(ZoneOffset.UTC);
+    
+    private final long seed;
+    private final int studentCount;
+    private final int courseCount;
+    private final double[] popularity;
+    private final int[] courseByRank;
+    
+    public DatasetGenerator(long seed, int students, int courses) {
+        if (students < 0 || courses < 1) throw new IllegalArgumentException("Need at least one course");
+        this.seed = seed;
+        this.studentCount = students;
+        this.courseCount = courses;
+        
+        // Cumulative Zipf weights by popularity rank, and a seeded shuffle so the
+        // most popular courses are spread over the ID range
+        popularity = new double[courses];
+        double total = 0;
+        for (int rank = 0; rank < courses; rank++) {
+            total += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            popularity[rank] = total;
+        }
+        courseByRank = new int[courses];
+        for (int i = 0; i < courses; i++) courseByRank[i] = i + 1;
+        SplittableRandom random = random(0, 0);
+        for (int i = courses - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = courseByRank[i];
+            courseByRank[i] = courseByRank[j];
+            courseByRank[j] = swap;
+        }
+    }
+    
+    // About one course per 500 students, kept between 20 and 20,000
+    public static int defaultCourses(int students) {
+        return Math.max(20, Math.min(20_000, students / 500));
+    }
+    
+    // Fills an empty service that has no data log open
+    public void fill(EducationService service) {
+        if (service.getJournal() != null) throw new IllegalStateException("Generate into a service without a data log");
+        if (!service.students().isEmpty() || !service.courses().isEmpty() || !service.enrollments().isEmpty()) {
+            throw new IllegalStateException("Generate into an empty service");
+        }
+        BulkLoadEvent event = new BulkLoadEvent();
+        event.begin();
+        
+        SplittableRandom random = random(1, 0);
+        LocalDateTime courseCreated = TERM_START.minusMonths(6);
+        for (int id = 1; id <= courseCount; id++) {
+            int department = random.nextInt(DEPARTMENTS.length);
+            String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+            int level = random.nextInt(LEVELS.length);
+            service.courses().add(new Course(id, DEPARTMENT_CODES[department] + (1000 + id), LEVELS[level] + " " + subject,
+                                             subject + " for " + DEPARTMENTS[department],
+                                             CREDITS[random.nextInt(CREDITS.length)], DEPARTMENTS[department],
+                                             courseCreated));
+            if (id % 3 == 1) {
+                String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                            + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                int instructorId = id / 3 + 1;
+                service.instructors().add(new Instructor(instructorId, name, "ACTIVE", "Campus",
+                                                         "555-" + (2_000_000 + instructorId),
+                                                         "staff" + instructorId + "@example.edu", subject,
+                                                         courseCreated, id));
+            }
+        }
+        
+        int chunks = (studentCount + CHUNK - 1) / CHUNK;
+        Chunk[] built = IntStream.range(0, chunks).parallel().mapToObj(this::chunk).toArray(Chunk[]::new);
+        int enrollmentId = 1;
+        int assignmentId = 1;
+        for (Chunk chunk : built) {
+            chunk.firstEnrollmentId = enrollmentId;
+            chunk.firstAssignmentId = assignmentId;
+            enrollmentId += chunk.enrollmentStudents.size();
+            assignmentId += chunk.assignmentEnrollments.size();
+        }
+        IntStream.range(0, chunks).parallel().forEach(c -> built[c].buildAssignments());
+        
+        int gradeId = 1;
+        for (Chunk chunk : built) {
+            for (Student student : chunk.students) service.students().add(student);
+            for (int i = 0; i < chunk.enrollmentStudents.size(); i++) {
+                int id = chunk.firstEnrollmentId + i;
+                int studentId = chunk.enrollmentStudents.get(i);
+                int courseId = chunk.enrollmentCourses.get(i);
+                EnrollmentStatus status = ENROLLMENT_STATUSES[chunk.enrollmentStatuses.get(i)];
+                long enrolledAt = TERM_START_SECONDS + chunk.enrollmentOffsets.get(i);
+                service.enrollments().addRow(id, studentId, courseId, null, enrolledAt, status,
+                                             ENROLLMENT_REMARKS[status.ordinal()]);
+                service.enrollmentIndex().add(id, studentId, courseId);
+                service.enrollmentStatusIndex().add(id, status);
+            }
+            for (Assignment assignment : chunk.assignments) service.assignments().add(assignment);
+            for (int i = 0; i < chunk.gradeAssignments.size(); i++) {
+                int assignment = chunk.gradeAssignments.get(i);
+                int enrollment = chunk.assignmentEnrollments.get(assignment);
+                int studentId = chunk.enrollmentStudents.get(enrollment);
+                long gradedAt = TERM_START_SECONDS + chunk.assignmentDueOffsets.get(assignment) + 86_400;
+                int id = gradeId++;
+                service.grades().addRow(id, studentId, chunk.firstAssignmentId + assignment,
+                                        chunk.gradeTenths.get(i) / 10.0, null, gradedAt);
+                service.gpaIndex().load(id, studentId, chunk.enrollmentCourses.get(enrollment), chunk.gradeTenths.get(i) / 10.0);
+            }
+        }
+        service.gpaIndex().rankLoaded();
+        GradeStore grades = service.grades();
+        service.getStatistics().countGrades(grades.size(), grades.scoreSum(), grades.letterHistogram());
+        Enrollment.setNextId(Math.max(Enrollment.getNextId(), enrollmentId));
+        Grade.setNextId(Math.max(Grade.getNextId(), gradeId));
+        long rows = (long) service.students().size() + service.courses().size() + service.instructors().size()
+                  + service.enrollments().size() + service.assignments().size() + grades.size();
+        event.finish("generator", "all", rows, 0);
+    }
+    
+    // Students of one chunk with their enrollments, assignments and grades. Rows
+    // refer to each other by position within the chunk until IDs are assigned.
+    private Chunk chunk(int chunkIndex) {
+        SplittableRandom random = random(2, chunkIndex);
+        int firstStudent = chunkIndex * CHUNK + 1;
+        int count = Math.min(CHUNK, studentCount - chunkIndex * CHUNK);
+        Chunk chunk = new Chunk(count);
+        int[] taken = new int[2 * ENROLLMENTS_PER_STUDENT];
+        for (int i = 0; i < count; i++) {
+            int studentId = firstStudent + i;
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            LocalDateTime createdAt = TERM_START.minusMinutes(random.nextInt(4 * 365 * 24 * 60));
+            chunk.students[i] = new Student(studentId, first, last,
+                                            first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + studentId + "@example.edu",
+                                            "555-" + (1_000_000 + studentId % 9_000_000), createdAt);
+            double ability = SCORE_MEAN + random.nextGaussian() * ABILITY_STDDEV;
+            
+            int enrollments = Math.min(courseCount, 1 + random.nextInt(2 * ENROLLMENTS_PER_STUDENT - 1));
+            for (int e = 0; e < enrollments; e++) {
+                int courseId;
+                do {
+                    courseId = popularCourse(random);
+                } while (contains(taken, e, courseId));
+                taken[e] = courseId;
+                
+                EnrollmentStatus status = enrollmentStatus(random.nextInt(100));
+                int enrollment = chunk.enrollmentStudents.size();
+                int enrolledAt = random.nextInt(14 * 24 * 3600);
+                chunk.enrollmentStudents.add(studentId);
+                chunk.enrollmentCourses.add(courseId);
+                chunk.enrollmentStatuses.add(status.ordinal());
+                chunk.enrollmentOffsets.add(enrolledAt);
+                if (status != EnrollmentStatus.APPROVED && status != EnrollmentStatus.COMPLETED) continue;
+                
+                for (int a = 0; a < ASSIGNMENTS_PER_ENROLLMENT; a++) {
+                    AssignmentStatus assignmentStatus = status == EnrollmentStatus.COMPLETED
+                        ? AssignmentStatus.GRADED : assignmentStatus(random.nextInt(100));
+                    int assignment = chunk.assignmentEnrollments.size();
+                    int issued = enrolledAt + (a + 1) * 21 * 24 * 3600;
+                    chunk.assignmentEnrollments.add(enrollment);
+                    chunk.assignmentStatuses.add(assignmentStatus.ordinal());
+                    chunk.assignmentTitles.add(random.nextInt(ASSIGNMENT_TITLES.length));
+                    chunk.assignmentIssuedOffsets.add(issued);
+                    chunk.assignmentDueOffsets.add(issued + 14 * 24 * 3600);
+                    if (assignmentStatus != AssignmentStatus.GRADED) continue;
+                    double score = ability + random.nextGaussian() * SCORE_STDDEV;
+                    chunk.gradeAssignments.add(assignment);
+                    chunk.gradeTenths.add((int) Math.round(Math.max(0, Math.min(100, score)) * 10));
+                }
+            }
+        }
+        return chunk;
+    }
+    
+    private int popularCourse(SplittableRandom random) {
+        int rank = Arrays.binarySearch(popularity, random.nextDouble() * popularity[courseCount - 1]);
+        return courseByRank[Math.min(courseCount - 1, rank >= 0 ? rank : -rank - 1)];
+    }
+    
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+    
+    // 10% pending, 70% approved, 5% rejected, 15% completed
+    private static EnrollmentStatus enrollmentStatus(int percent) {
+        if (percent < 10) return EnrollmentStatus.PENDING;
+        if (percent < 80) return EnrollmentStatus.APPROVED;
+        if (percent < 85) return EnrollmentStatus.REJECTED;
+        return EnrollmentStatus.COMPLETED;
+    }
+    
+    // 20% pending, 20% submitted, 55% graded, 5% overdue
+    private static AssignmentStatus assignmentStatus(int percent) {
+        if (percent < 20) return AssignmentStatus.PENDING;
+        if (percent < 40) return AssignmentStatus.SUBMITTED;
+        if (percent < 95) return AssignmentStatus.GRADED;
+        return AssignmentStatus.OVERDUE;
+    }
+    
+    private static LocalDateTime termTime(int offsetSeconds) {
+        return LocalDateTime.ofEpochSecond(TERM_START_SECONDS + offsetSeconds, 0, ZoneOffset.UTC);
+    }
+    
+    private SplittableRandom random(int phase, int chunk) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + ((long) phase << 32) + chunk);
+    }
+    
+    private static final class Chunk {
+        final Student[] students;
+        final IntList enrollmentStudents = new IntList(CHUNK * ENROLLMENTS_PER_STUDENT);
+        final IntList enrollmentCourses = new IntList(CHUNK * ENROLLMENTS_PER_STUDENT);
+        final IntList enrollmentStatuses = new IntList(CHUNK * ENROLLMENTS_PER_STUDENT);
+        final IntList enrollmentOffsets = new IntList(CHUNK * ENROLLMENTS_PER_STUDENT);
+        final IntList assignmentEnrollments = new IntList();
+        final IntList assignmentStatuses = new IntList();
+        final IntList assignmentTitles = new IntList();
+        final IntList assignmentIssuedOffsets = new IntList();
+        final IntList assignmentDueOffsets = new IntList();
+        final IntList gradeAssignments = new IntList();
+        final IntList gradeTenths = new IntList();
+        int firstEnrollmentId;
+        int firstAssignmentId;
+        Assignment[] assignments;
+        
+        Chunk(int students) {
+            this.students = new Student[students];
+        }
+        
+        void buildAssignments() {
+            assignments = new Assignment[assignmentEnrollments.size()];
+            for (int i = 0; i < assignments.length; i++) {
+                AssignmentStatus status = ASSIGNMENT_STATUSES[assignmentStatuses.get(i)];
+                // An enrollment's assignments are consecutive, so i % 3 numbers them 1 to 3
+                String title = ASSIGNMENT_TITLES[assignmentTitles.get(i)] + " " + (i % ASSIGNMENTS_PER_ENROLLMENT + 1);
+                assignments[i] = new Assignment(firstAssignmentId + i, firstEnrollmentId + assignmentEnrollments.get(i),
+                                                title, null, termTime(assignmentIssuedOffsets.get(i)),
+                                                termTime(assignmentDueOffsets.get(i)), status,
+                                                ASSIGNMENT_REMARKS[status.ordinal()]);
+            }
+        }
+    }
+}
+
+// Batch commands
+// Runs commands read as CSV records, one per line, straight against the service
+// and writes one tab-separated result line per command: "ok" followed by the
+// command's values, or "error", the input line number and a message.
+//
+//   add-student,<first>,<last>,<email>,<phone>           ok <studentId>
+//   enroll,<studentId>,<courseId>,<description>          ok <enrollmentId>
+//   grade,<studentId>,<assignmentId>,<score>,<comments>  ok <gradeId> <letter>
+//   set-status,enrollment|assignment,<id>,<status>       ok
+//   search,students|courses,<term>,<limit>               ok <matches> <id id ...>
+//   stats                                                ok <name>=<value> ...
+//   analytics,department|course|instructor               ok <groups> <name>=<average> ...
+//
+// Trailing arguments may be left out. Lines starting with # are skipped. Changes
+// are journaled in batches, and a batch's results are written only once the batch
+// is durable.
+class CommandInterpreter {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int SEARCH_LIMIT = 50;
+    
+    private final EducationService service;
+    private final Writer out;
+    private final StringBuilder result = new StringBuilder();
+    private long commands;
+    private long failures;
+    private int pending;
+    
+    public CommandInterpreter(EducationService service, Writer out) {
+        this.service = service;
+        this.out = out;
+    }
+    
+    public long getCommands() { return commands; }
+    public long getFailures() { return failures; }
+    
+    public void run(CsvReader in) throws IOException {
+        while (in.next()) {
+            String command = in.field(0).trim();
+            if (command.startsWith("#")) continue;
+            if (pending == 0 && service.getJournal() != null) service.getJournal().beginBatch();
+            // Due dates that passed are applied before the command, in its batch
+            service.expireOverdue();
+            result.setLength(0);
+            try {
+                execute(command, in);
+            } catch (IllegalArgumentException e) {
+                result.setLength(0);
+                result.append("error\t").append(in.getLine()).append('\t').append(clean(e.getMessage()));
+                failures++;
+            }
+            out.append(result).append('\n');
+            commands++;
+            if (++pending == BATCH_SIZE) commit();
+        }
+        commit();
+    }
+    
+    // Waits until the open batch is durable, then releases its results
+    public void commit() {
+        if (pending > 0 && service.getJournal() != null) {
+            service.getJournal().endBatch();
+            service.getJournal().checkpointIfDue();
+        }
+        pending = 0;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void execute(String command, CsvReader in) {
+        switch (command) {
+            case "add-student" -> {
+                require(in, 3, "add-student,<first>,<last>,<email>,<phone>");
+                ok().value(service.addStudent(in.field(1), in.field(2), in.field(3), in.field(4)).getStudentId());
+            }
+            case "enroll" -> {
+                require(in, 3, "enroll,<studentId>,<courseId>,<description>");
+                ok().value(service.enroll(number(in, 1), number(in, 2), in.field(3)).getEnrollmentId());
+            }
+            case "grade" -> {
+                require(in, 4, "grade,<studentId>,<assignmentId>,<score>,<comments>");
+                Grade grade = service.recordGrade(number(in, 1), number(in, 2), decimal(in, 3), in.field(4));
+                ok().value(grade.getGradeId()).value(grade.getGrade());
+            }
+            case "set-status" -> {
+                require(in, 4, "set-status,enrollment|assignment,<id>,<status>");
+                switch (in.field(1).trim()) {
+                    case "enrollment" -> service.setEnrollmentStatus(number(in, 2), status(EnrollmentStatus.class, in.field(3)));
+                    case "assignment" -> service.setAssignmentStatus(number(in, 2), status(AssignmentStatus.class, in.field(3)));
+                    default -> throw new IllegalArgumentException("Unknown entity type " + in.field(1));
+                }
+                ok();
+            }
+            case "search" -> {
+                require(in, 3, "search,students|courses,<term>,<limit>");
+                int limit = in.isBlank(4) ? SEARCH_LIMIT : number(in, 4);
+                switch (in.field(1).trim()) {
+                    case "students" -> {
+                        SearchResults<Student> found = service.findStudents(in.field(2), limit);
+                        ok().value(found.getTotalMatches()).ids(found.getHits(), Student::getStudentId);
+                    }
+                    case "courses" -> {
+                        SearchResults<Course> found = service.findCourses(in.field(2), limit);
+                        ok().value(found.getTotalMatches()).ids(found.getHits(), Course::getCourseId);
+                    }
+                    default -> throw new IllegalArgumentException("Unknown entity type " + in.field(1));
+                }
+            }
+            case "stats" -> {
+                StatisticsEvent event = new StatisticsEvent();
+                event.begin();
+                long started = System.nanoTime();
+                ok().stat("students", service.students().size())
+                    .stat("courses", service.courses().size())
+                    .stat("instructors", service.instructors().size())
+                    .stat("enrollments", service.enrollments().size())
+                    .stat("assignments", service.assignments().size())
+                    .stat("grades", service.grades().size());
+                for (EnrollmentStatus status : EnrollmentStatus.values()) {
+                    stat("enrollments." + status.name().toLowerCase(Locale.ROOT), service.enrollmentStatusIndex().count(status));
+                }
+                for (AssignmentStatus status : AssignmentStatus.values()) {
+                    stat("assignments." + status.name().toLowerCase(Locale.ROOT), service.assignmentStatusIndex().count(status));
+                }
+                result.append("\taverageScore=").append(String.format(Locale.ROOT, "%.2f", service.getStatistics().getAverageScore()));
+                service.metrics().get(Operation.STATISTICS).record(started);
+                event.finish("batch");
+            }
+            case "analytics" -> {
+                require(in, 2, "analytics,department|course|instructor");
+                List<GradeAnalytics.GroupAverage> groups = service.analyzeScores(GradeAnalytics.GroupBy.parse(in.field(1))).getGroups();
+                ok().value(groups.size());
+                for (GradeAnalytics.GroupAverage group : groups) {
+                    result.append('\t').append(clean(group.getName())).append('=')
+                          .append(String.format(Locale.ROOT, "%.2f", group.getAverageScore()));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown command " + command);
+        }
+    }
+    
+    private CommandInterpreter ok() {
+        result.append("ok");
+        return this;
+    }
+    
+    private CommandInterpreter value(Object value) {
+        result.append('\t').append(value);
+        return this;
+    }
+    
+    private CommandInterpreter stat(String name, long value) {
+        result.append('\t').append(name).append('=').append(value);
+        return this;
+    }
+    
+    private <T> void ids(List<T> hits, ToIntFunction<T> idOf) {
+        result.append('\t');
+        for (int i = 0; i < hits.size(); i++) {
+            if (i > 0) result.append(' ');
+            result.append(idOf.applyAsInt(hits.get(i)));
+        }
+    }
+    
+    private static void require(CsvReader in, int fields, String usage) {
+        if (in.fieldCount() < fields) throw new IllegalArgumentException("Usage: " + usage);
+    }
+    
+    private static int number(CsvReader in, int field) {
+        try {
+            return in.intField(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in field " + (field + 1) + ": " + in.field(field));
+        }
+    }
+    
+    private static double decimal(CsvReader in, int field) {
+        try {
+            return Double.parseDouble(in.field(field).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in field " + (field + 1) + ": " + in.field(field));
+        }
+    }
+    
+    private static <E extends Enum<E>> E status(Class<E> type, String name) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(name.trim())) return constant;
+        }
+        throw new IllegalArgumentException("Unknown status " + name);
+    }
+    
+    private static String clean(String message) {
+        return message == null ? "failed" : message.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
+
+// HTTP API
+// JSON over HTTP on the JDK's built-in server. Each request runs on its own
+// virtual thread where the runtime has them and on a bounded worker pool
+// otherwise; idle keep-alive connections cost the server's selector, not a
+// thread. Responses are encoded with the export record layouts into a small
+// per-request buffer while the query holds its lock, and sent after it is gone.
+//
+//   GET  /api/students?after=&limit=       POST /api/students      GET|PATCH /api/students/{id}
+//   GET  /api/students/{id}/enrollments   GET /api/students/{id}/transcript
+//   GET  /api/courses?after=&limit=        POST /api/courses       GET|PATCH /api/courses/{id}
+//   GET  /api/courses/{id}/roster?status=
+//   GET  /api/enrollments?after=&limit=    POST /api/enrollments   GET|PATCH /api/enrollments/{id}
+//   GET  /api/assignments?after=&limit=&status=
+//                                          POST /api/assignments   GET|PATCH /api/assignments/{id}
+//   GET  /api/grades?after=&limit=         POST /api/grades        GET|PATCH /api/grades/{id}
+//   GET  /api/search/students?q=&limit=    GET /api/search/courses?q=&limit=
+//   GET  /api/statistics                  GET /api/rankings?limit=
+//   GET  /api/analytics?by=department|course|instructor
+//
+// Fields are read from the query string and from a form-encoded or flat JSON
+// body. Lists answer {"items":[...]} with "nextAfter" (the "after" value of the
+// next page, or null) and, for filtered lists and searches, "total". A transcript
+// lists the student's courses with "gpa", "credits" and "rank" beside them. Failures
+// answer {"error":"..."} with a 4xx or 5xx status.
+class ApiServer {
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY_BYTES = 64 << 10;
+    private static final int BUFFER_BYTES = 8 << 10;
+    private static final Set<String> RESOURCES = Set.of("students", "courses", "enrollments", "assignments", "grades",
+                                                           "rankings", "analytics");
+    private static final String[] STATISTICS_COLUMNS = statisticsColumns();
+    private static final RecordLayout<GpaIndex.CourseGrade> COURSE_GRADES = new RecordLayout<>((out, c) ->
+        out.value(c.getCourseId()).value(c.getCredits()).value(c.getGradeCount()).value(c.getAverageScore())
+           .value(c.getLetter()).value(c.getPoints()),
+        "courseId", "credits", "grades", "averageScore", "letter", "points");
+    private static final RecordLayout<GradeAnalytics.GroupAverage> GROUPS = new RecordLayout<>((out, g) ->
+        out.value(g.getId()).value(g.getName()).value(g.getGrades()).value(g.getAverageScore()).value(g.getMinimum())
+           .value(g.getMaximum()),
+        "id", "name", "grades", "averageScore", "minimum", "maximum");
+    private static final RecordLayout<GpaIndex.Transcript> STANDINGS = new RecordLayout<>((out, t) ->
+        out.value(t.getRank()).value(t.getStudentId()).value(t.getGpa()).value(t.getAttemptedCredits()),
+        "rank", "studentId", "gpa", "credits");
+    
+    private final ConcurrentEducationService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String executorDescription;
+    
+    public ApiServer(ConcurrentEducationService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        ExecutorService virtual = virtualThreadExecutor();
+        if (virtual != null) {
+            executor = virtual;
+            executorDescription = "virtual threads";
+        } else {
+            int threads = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+            AtomicInteger started = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "api-" + started.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executorDescription = threads + " worker threads";
+        }
+        server = HttpServer.create(address, 4096);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+    
+    public void start() { server.start(); }
+    public InetSocketAddress getAddress() { return server.getAddress(); }
+    public String getExecutorDescription() { return executorDescription; }
+    
+    // Waits up to a second for requests in progress
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+    
+    // Virtual threads exist from Java 21; looked up reflectively so the code
+    // still builds and runs on 17
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        int status = method.equals("POST") ? 201 : 200;
+        byte[] body;
+        try {
+            String path = exchange.getRequestURI().getPath().substring("/api/".length());
+            String[] segments = path.isEmpty() ? new String[0] : path.split("/");
+            body = route(method, segments, parameters(exchange));
+        } catch (NoSuchElementException e) {
+            status = 404;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            status = 405;
+            body = error(e.getMessage());
+        } catch (BodyTooLargeException e) {
+            status = 413;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            // The details go to the server's log, not to the client
+            System.err.println("⚠️ " + method + " " + exchange.getRequestURI() + " failed:");
+            e.printStackTrace();
+            status = 500;
+            body = error("Internal server error");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    private byte[] route(String method, String[] path, Map<String, String> in) {
+        String resource = path.length > 0 ? path[0] : "";
+        boolean get = method.equals("GET");
+        boolean post = method.equals("POST");
+        boolean patch = method.equals("PATCH");
+        if (path.length == 1 && get) {
+            switch (resource) {
+                case "students" -> { return page(DataExporter.STUDENTS, EducationService::students, in); }
+                case "courses" -> { return page(DataExporter.COURSES, EducationService::courses, in); }
+                case "enrollments" -> { return page(DataExporter.ENROLLMENTS, EducationService::enrollments, in); }
+                case "assignments" -> {
+                    if (in.get("status") == null) return page(DataExporter.ASSIGNMENTS, EducationService::assignments, in);
+                    AssignmentStatus status = status(AssignmentStatus.class, in.get("status"));
+                    int after = after(in);
+                    int limit = limit(in);
+                    return service.read(s -> {
+                        IdBitmap ids = s.assignmentStatusIndex().withStatus(status);
+                        return idPage(DataExporter.ASSIGNMENTS, ids.after(after, limit + 1), ids.cardinality(),
+                                      s.assignments()::findById, limit);
+                    });
+                }
+                case "grades" -> { return page(DataExporter.GRADES, EducationService::grades, in); }
+                case "statistics" -> { return service.read(ApiServer::statistics); }
+                case "analytics" -> {
+                    GradeAnalytics.GroupBy groupBy = GradeAnalytics.GroupBy.parse(in.getOrDefault("by", "department"));
+                    return service.read(s -> {
+                        GradeAnalytics.Report report = s.analyzeScores(groupBy);
+                        return items(GROUPS, report.getGroups(), ",\"grades\":" + report.getGrades() + ",\"unmatched\":"
+                                     + report.getUnmatched() + ",\"threads\":" + report.getThreads());
+                    });
+                }
+                case "rankings" -> {
+                    int limit = limit(in);
+                    return service.read(s -> items(STANDINGS, s.gpaIndex().top(limit),
+                                                   ",\"total\":" + s.gpaIndex().getRankedCount()));
+                }
+                default -> { }
+            }
+        }
+        if (path.length == 1 && post) {
+            switch (resource) {
+                case "students" -> {
+                    return service.write(s -> record(DataExporter.STUDENTS,
+                        s.addStudent(in.get("firstName"), in.get("lastName"), in.get("email"), in.get("phone"))));
+                }
+                case "courses" -> {
+                    int credits = number(in, "credits");
+                    return service.write(s -> record(DataExporter.COURSES, s.addCourse(in.get("courseCode"),
+                        in.get("courseName"), in.get("description"), credits, in.get("department"))));
+                }
+                case "enrollments" -> {
+                    int studentId = number(in, "studentId");
+                    int courseId = number(in, "courseId");
+                    return service.write(s -> record(DataExporter.ENROLLMENTS,
+                        s.enroll(studentId, courseId, in.get("description"))));
+                }
+                case "assignments" -> {
+                    int enrollmentId = number(in, "enrollmentId");
+                    LocalDateTime dueDate = LocalDateTime.parse(required(in, "dueDate") + "T23:59:59");
+                    return service.write(s -> record(DataExporter.ASSIGNMENTS,
+                        s.createAssignment(enrollmentId, in.get("title"), in.get("description"), dueDate)));
+                }
+                case "grades" -> {
+                    int studentId = number(in, "studentId");
+                    int assignmentId = number(in, "assignmentId");
+                    double score = decimal(in, "score");
+                    return service.write(s -> record(DataExporter.GRADES,
+                        s.recordGrade(studentId, assignmentId, score, in.get("comments"))));
+                }
+                default -> { }
+            }
+        }
+        if (path.length == 2 && resource.equals("search") && get) {
+            String term = required(in, "q");
+            int limit = limit(in);
+            switch (path[1]) {
+                case "students" -> {
+                    return service.read(s -> {
+                        SearchResults<Student> found = s.findStudents(term, limit);
+                        return items(DataExporter.STUDENTS, found.getHits(), ",\"total\":" + found.getTotalMatches());
+                    });
+                }
+                case "courses" -> {
+                    return service.read(s -> {
+                        SearchResults<Course> found = s.findCourses(term, limit);
+                        return items(DataExporter.COURSES, found.getHits(), ",\"total\":" + found.getTotalMatches());
+                    });
+                }
+                default -> { }
+            }
+        }
+        if (path.length >= 2 && !resource.equals("search")) {
+            int id = id(path[1]);
+            if (path.length == 2 && get) {
+                byte[] body = switch (resource) {
+                    case "students" -> service.lookup(EducationService::students, id, e -> record(DataExporter.STUDENTS, e));
+                    case "courses" -> service.lookup(EducationService::courses, id, e -> record(DataExporter.COURSES, e));
+                    case "enrollments" -> service.lookup(EducationService::enrollments, id, e -> record(DataExporter.ENROLLMENTS, e));
+                    case "assignments" -> service.lookup(EducationService::assignments, id, e -> record(DataExporter.ASSIGNMENTS, e));
+                    case "grades" -> service.lookup(EducationService::grades, id, e -> record(DataExporter.GRADES, e));
+                    default -> throw new NoSuchElementException("Unknown resource " + resource);
+                };
+                if (body == null) throw new NoSuchElementException("No " + resource + " entry with ID " + id);
+                return body;
+            }
+            if (path.length == 2 && patch) {
+                return switch (resource) {
+                    case "students" -> service.write(s -> record(DataExporter.STUDENTS,
+                        s.updateStudent(existing(s.students(), resource, id), in.get("firstName"), in.get("lastName"),
+                                        in.get("email"), in.get("phone"))));
+                    case "courses" -> {
+                        Integer credits = in.get("credits") == null ? null : number(in, "credits");
+                        yield service.write(s -> record(DataExporter.COURSES,
+                            s.updateCourse(existing(s.courses(), resource, id), in.get("courseName"), in.get("description"),
+                                           credits, in.get("department"))));
+                    }
+                    case "enrollments" -> {
+                        EnrollmentStatus status = in.get("status") == null ? null : status(EnrollmentStatus.class, in.get("status"));
+                        yield service.write(s -> record(DataExporter.ENROLLMENTS,
+                            s.updateEnrollment(existing(s.enrollments(), resource, id), status, in.get("remarks"))));
+                    }
+                    case "assignments" -> {
+                        AssignmentStatus status = in.get("status") == null ? null : status(AssignmentStatus.class, in.get("status"));
+                        yield service.write(s -> record(DataExporter.ASSIGNMENTS,
+                            s.updateAssignment(existing(s.assignments(), resource, id), status, in.get("remarks"))));
+                    }
+                    case "grades" -> {
+                        Double score = in.get("score") == null ? null : decimal(in, "score");
+                        yield service.write(s -> record(DataExporter.GRADES,
+                            s.updateGrade(existing(s.grades(), resource, id), score, in.get("comments"))));
+                    }
+                    default -> throw new NoSuchElementException("Unknown resource " + resource);
+                };
+            }
+            if (path.length == 3 && get && resource.equals("students") && path[2].equals("enrollments")) {
+                int after = after(in);
+                int limit = limit(in);
+                return service.read(s -> {
+                    if (!s.students().containsId(id)) throw new NoSuchElementException("No students entry with ID " + id);
+                    IntList ids = s.enrollmentIndex().enrollmentsOfStudent(id);
+                    return idPage(DataExporter.ENROLLMENTS, ids.after(after, limit + 1), ids.size(),
+                                  s.enrollments()::findById, limit);
+                });
+            }
+            if (path.length == 3 && get && resource.equals("students") && path[2].equals("transcript")) {
+                return service.read(s -> {
+                    if (!s.students().containsId(id)) throw new NoSuchElementException("No students entry with ID " + id);
+                    GpaIndex.Transcript transcript = s.gpaIndex().transcriptOf(id);
+                    if (transcript == null) return items(COURSE_GRADES, List.of(), ",\"gpa\":0.0,\"credits\":0,\"rank\":0");
+                    return items(COURSE_GRADES, transcript.getCourses(), ",\"gpa\":" + transcript.getGpa()
+                                 + ",\"credits\":" + transcript.getAttemptedCredits() + ",\"rank\":" + transcript.getRank());
+                });
+            }
+            if (path.length == 3 && get && resource.equals("courses") && path[2].equals("roster")) {
+                EnrollmentStatus status = in.get("status") == null ? null : status(EnrollmentStatus.class, in.get("status"));
+                int after = after(in);
+                int limit = limit(in);
+                return service.read(s -> {
+                    if (!s.courses().containsId(id)) throw new NoSuchElementException("No courses entry with ID " + id);
+                    if (status != null) {
+                        return idPage(DataExporter.ENROLLMENTS, s.getCourseRosterIds(id, status, after, limit + 1),
+                                      s.countCourseEnrollments(id, status), s.enrollments()::findById, limit);
+                    }
+                    IntList ids = s.enrollmentIndex().enrollmentsOfCourse(id);
+                    return idPage(DataExporter.ENROLLMENTS, ids.after(after, limit + 1), ids.size(),
+                                  s.enrollments()::findById, limit);
+                });
+            }
+        }
+        if (RESOURCES.contains(resource) && path.length <= 3) {
+            throw new UnsupportedOperationException(method + " is not supported on /api/" + String.join("/", path));
+        }
+        throw new NoSuchElementException("No route for " + method + " /api/" + String.join("/", path));
+    }
+    
+    // Keyset page straight from the store
+    private <T> byte[] page(RecordLayout<T> layout, Function<EducationService, EntityStore<T>> store,
+                            Map<String, String> in) {
+        int after = after(in);
+        int limit = limit(in);
+        return service.read(s -> {
+            Page<T> page = store.apply(s).pageAfter(after, limit);
+            return items(layout, page.getRows(), ",\"nextAfter\":" + (page.hasNext() ? page.getLastId() : "null"));
+        });
+    }
+    
+    // Keyset page over ascending IDs, such as a status bitmap's members. ids holds
+    // up to limit + 1 IDs after the cursor; an extra one means another page follows.
+    private static <T> byte[] idPage(RecordLayout<T> layout, IntList ids, long total, IntFunction<T> lookup, int limit) {
+        int end = Math.min(ids.size(), limit);
+        List<T> rows = new ArrayList<>(end);
+        for (int i = 0; i < end; i++) rows.add(lookup.apply(ids.get(i)));
+        return items(layout, rows, ",\"total\":" + total + ",\"nextAfter\":" + (ids.size() > limit ? ids.get(end - 1) : "null"));
+    }
+    
+    private static byte[] statistics(EducationService s) {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
+        long started = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ExportWriter out = new ExportWriter(Channels.newChannel(bytes), 1024, true, STATISTICS_COLUMNS)) {
+            out.value(s.students().size()).value(s.courses().size()).value(s.instructors().size())
+               .value(s.enrollments().size()).value(s.assignments().size()).value(s.grades().size());
+            for (EnrollmentStatus status : EnrollmentStatus.values()) out.value(s.enrollmentStatusIndex().count(status));
+            for (AssignmentStatus status : AssignmentStatus.values()) out.value(s.assignmentStatusIndex().count(status));
+            StatisticsAggregator statistics = s.getStatistics();
+            out.value(statistics.getAverageScore());
+            for (String letter : new String[] { "A", "B", "C", "D", "F" }) out.value(statistics.getGradeCount(letter));
+            out.endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        s.metrics().get(Operation.STATISTICS).record(started);
+        event.finish("api");
+        return bytes.toByteArray();
+    }
+    
+    private static String[] statisticsColumns() {
+        List<String> columns = new ArrayList<>(List.of("students", "courses", "instructors", "enrollments",
+                                                       "assignments", "grades"));
+        for (EnrollmentStatus status : EnrollmentStatus.values()) columns.add(status.name().toLowerCase(Locale.ROOT) + "Enrollments");
+        for (AssignmentStatus status : AssignmentStatus.values()) columns.add(status.name().toLowerCase(Locale.ROOT) + "Assignments");
+        columns.add("averageScore");
+        for (String letter : new String[] { "A", "B", "C", "D", "F" }) columns.add("grades" + letter);
+        return columns.toArray(new String[0]);
+    }
+    
+    // Null when the row does not exist
+    private static <T> byte[] record(RecordLayout<T> layout, T row) {
+        if (row == null) return null;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ExportWriter out = new ExportWriter(Channels.newChannel(bytes), 512, true, layout.getColumns())) {
+            layout.write(out, row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static <T> byte[] items(RecordLayout<T> layout, List<T> rows, String trailer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_BYTES);
+        try (ExportWriter out = new ExportWriter(Channels.newChannel(bytes), BUFFER_BYTES, true, layout.getColumns())) {
+            out.raw("{\"items\":[");
+            for (int i = 0; i < rows.size(); i++) {
+                if (i > 0) out.raw(",");
+                layout.write(out, rows.get(i));
+            }
+            out.raw("]").raw(trailer).raw("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static byte[] error(String message) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ExportWriter out = new ExportWriter(Channels.newChannel(bytes), 256, true, "error")) {
+            out.value(message == null ? "Request failed" : message).endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    // Answered with 413; any other failure state is an internal error
+    private static final class BodyTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        BodyTooLargeException(String message) {
+            super(message);
+        }
+    }
+    
+    // Query string plus a form-encoded or flat JSON body; body fields win
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) decodeForm(query, fields);
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) throw new BodyTooLargeException("Request body over " + MAX_BODY_BYTES + " bytes");
+            if (body.length == 0) return fields;
+            String text = new String(body, StandardCharsets.UTF_8);
+            String type = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (type != null && type.contains("json")) FlatJson.parse(text, fields);
+            else decodeForm(text, fields);
+        }
+        return fields;
+    }
+    
+    private static void decodeForm(String form, Map<String, String> into) {
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) continue;
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            into.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+    
+    private static int id(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new NoSuchElementException("Not an ID: " + segment);
+        }
+    }
+    
+    private static String required(Map<String, String> in, String name) {
+        String value = in.get(name);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Missing field " + name);
+        return value;
+    }
+    
+    private static int number(Map<String, String> in, String name) {
+        String value = required(in, name);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field " + name + " is not a whole number: " + value);
+        }
+    }
+    
+    private static double decimal(Map<String, String> in, String name) {
+        String value = required(in, name);
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field " + name + " is not a number: " + value);
+        }
+    }
+    
+    // An unknown ID answers 404 here as it does for GET, rather than the 400 of the
+    // service's IllegalArgumentException
+    private static int existing(EntityStore<?> store, String resource, int id) {
+        if (!store.containsId(id)) throw new NoSuchElementException("No " + resource + " entry with ID " + id);
+        return id;
+    }
+    
+    private static int after(Map<String, String> in) {
+        return in.get("after") == null ? 0 : number(in, "after");
+    }
+    
+    private static int limit(Map<String, String> in) {
+        return in.get("limit") == null ? DEFAULT_LIMIT : Math.max(1, Math.min(MAX_LIMIT, number(in, "limit")));
+    }
+    
+    private static <E extends Enum<E>> E status(Class<E> type, String name) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(name.trim())) return constant;
+        }
+        throw new IllegalArgumentException("Unknown status " + name);
+    }
+    
+    // Reads one flat JSON object of string, number, boolean and null members;
+    // numbers and booleans are kept as their text, nested values are rejected
+    private static final class FlatJson {
+        private final String text;
+        private int position;
+        
+        private FlatJson(String text) {
+            this.text = text;
+        }
+        
+        static void parse(String text, Map<String, String> into) {
+            FlatJson json = new FlatJson(text);
+            json.expect('{');
+            if (json.peek() != '}') {
+                do {
+                    String name = json.string();
+                    json.expect(':');
+                    into.put(name, json.value());
+                } while (json.accept(','));
+            }
+            json.expect('}');
+            if (json.peek() != 0) throw json.malformed();
+        }
+        
+        private String value() {
+            if (peek() == '"') return string();
+            int start = position;
+            while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) position++;
+            String token = text.substring(start, position);
+            if (token.equals("null")) return null;
+            if (token.equals("true") || token.equals("false")) return token;
+            try {
+                Double.parseDouble(token);
+                return token;
+            } catch (NumberFormatException e) {
+                throw malformed();
+            }
+        }
+        
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) throw malformed();
+                char c = text.charAt(position++);
+                if (c == '"') return value.toString();
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) throw malformed();
+                char escape = text.charAt(position++);
+                switch (escape) {
+                    case '"', '\\', '/' -> value.append(escape);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) throw malformed();
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw malformed();
+                        }
+                        position += 4;
+                    }
+                    default -> throw malformed();
+                }
+            }
+        }
+        
+        private char peek() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+        
+        private void expect(char c) {
+            if (peek() != c) throw malformed();
+            position++;
+        }
+        
+        private boolean accept(char c) {
+            if (peek() != c) return false;
+            position++;
+            return true;
+        }
+        
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed JSON body at offset " + position);
+        }
+    }
+}
+
+// Service class
+class EducationService {
+    private Repository<Student> students = new Repository<>(Student::getStudentId, Student::setListener);
+    private Repository<Course> courses = new Repository<>(Course::getCourseId, Course::setListener);
+    private Repository<Instructor> instructors = new Repository<>(Instructor::getInstructorId, Instructor::setListener);
+    private EnrollmentStore enrollments = new EnrollmentStore();
+    private Repository<Assignment> assignments = new Repository<>(Assignment::getAssignmentId, Assignment::setListener);
+    private GradeStore grades = new GradeStore();
+    
+    private EnrollmentIndex enrollmentIndex = new EnrollmentIndex();
+    private StudentSearchIndex studentSearchIndex = new StudentSearchIndex(students::findById, students);
+    private CourseSearchIndex courseSearchIndex = new CourseSearchIndex(courses::findById);
+    private StatusIndex<Enrollment, EnrollmentStatus> enrollmentStatusIndex =
+        new StatusIndex<>(EnrollmentStatus.class, Enrollment::getEnrollmentId, Enrollment::getStatus);
+    private StatusIndex<Assignment, AssignmentStatus> assignmentStatusIndex =
+        new StatusIndex<>(AssignmentStatus.class, Assignment::getAssignmentId, Assignment::getStatus);
+    private StatisticsAggregator statistics = new StatisticsAggregator();
+    private GpaIndex gpaIndex = new GpaIndex(this::courseOfAssignment, this::creditsOfCourse);
+    private DueDateWheel dueDates = new DueDateWheel(DueDateWheel.second(LocalDateTime.now()));
+    private GradeAnalytics analytics = new GradeAnalytics(courses, instructors, enrollments, assignments, grades);
+    private ServiceMetrics metrics = new ServiceMetrics();
+    private TableRenderer table = new TableRenderer(metrics.get(Operation.RENDER));
+    private ServiceJournal journal;
+    
+    private Scanner scanner = new Scanner(System.in);
+    
+    private static final int SEARCH_LIMIT = 50;
+    private static final int PAGE_SIZE = 20;
+    
+    public EducationService() {
+        enrollments.addListener(enrollmentIndex);
+        students.addListener(studentSearchIndex);
+        courses.addListener(courseSearchIndex);
+        enrollments.addListener(enrollmentStatusIndex);
+        assignments.addListener(assignmentStatusIndex);
+        grades.addListener(statistics.gradeListener);
+        grades.addListener(gpaIndex);
+        courses.addListener(gpaIndex.courseListener);
+        assignments.addListener(dueDates);
+    }
+    
+    Repository<Student> students() { return students; }
+    Repository<Course> courses() { return courses; }
+    Repository<Instructor> instructors() { return instructors; }
+    EnrollmentStore enrollments() { return enrollments; }
+    Repository<Assignment> assignments() { return assignments; }
+    GradeStore grades() { return grades; }
+    EnrollmentIndex enrollmentIndex() { return enrollmentIndex; }
+    StudentSearchIndex studentSearchIndex() { return studentSearchIndex; }
+    CourseSearchIndex courseSearchIndex() { return courseSearchIndex; }
+    StatusIndex<Enrollment, EnrollmentStatus> enrollmentStatusIndex() { return enrollmentStatusIndex; }
+    StatusIndex<Assignment, AssignmentStatus> assignmentStatusIndex() { return assignmentStatusIndex; }
+    GpaIndex gpaIndex() { return gpaIndex; }
+    DueDateWheel dueDates() { return dueDates; }
+    ServiceMetrics metrics() { return metrics; }
+    
+    // Core operations
+    // For callers without prompts: invalid arguments are reported as an
+    // IllegalArgumentException and leave the data unchanged
+    public Student addStudent(String firstName, String lastName, String email, String phone) {
+        if (firstName == null || firstName.isBlank() || lastName == null || lastName.isBlank()) {
+            throw new IllegalArgumentException("First and last name are required");
+        }
+        long started = System.nanoTime();
+        Student student = new Student(firstName, lastName, email, phone);
+        students.add(student);
+        metrics.get(Operation.ADD_STUDENT).record(started);
+        return student;
+    }
+    
+    public Course addCourse(String code, String name, String description, int credits, String department) {
+        if (code == null || code.isBlank() || name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Course code and name are required");
+        }
+        if (credits < 0) throw new IllegalArgumentException("Credits must not be negative");
+        Course course = new Course(code, name, description, credits, department);
+        courses.add(course);
+        return course;
+    }
+    
+    public Assignment createAssignment(int enrollmentId, String title, String description, LocalDateTime dueDate) {
+        if (!enrollments.containsId(enrollmentId)) throw new IllegalArgumentException("Unknown enrollment ID " + enrollmentId);
+        if (title == null || title.isBlank()) throw new IllegalArgumentException("Title is required");
+        if (dueDate == null) throw new IllegalArgumentException("Due date is required");
+        Assignment assignment = new Assignment(enrollmentId, title, description, dueDate);
+        assignments.add(assignment);
+        return assignment;
+    }
+    
+    // Null arguments leave the field unchanged
+    public Student updateStudent(int studentId, String firstName, String lastName, String email, String phone) {
+        Student student = students.findById(studentId);
+        if (student == null) throw new IllegalArgumentException("Unknown student ID " + studentId);
+        if (firstName != null) student.setFirstName(firstName);
+        if (lastName != null) student.setLastName(lastName);
+        if (email != null) student.setEmail(email);
+        if (phone != null) student.setPhone(phone);
+        return student;
+    }
+    
+    public Course updateCourse(int courseId, String name, String description, Integer credits, String department) {
+        Course course = courses.findById(courseId);
+        if (course == null) throw new IllegalArgumentException("Unknown course ID " + courseId);
+        if (credits != null && credits < 0) throw new IllegalArgumentException("Credits must not be negative");
+        if (name != null) course.setCourseName(name);
+        if (description != null) course.setDescription(description);
+        if (credits != null) course.setCredits(credits);
+        if (department != null) course.setDepartment(department);
+        return course;
+    }
+    
+    public Grade updateGrade(int gradeId, Double score, String comments) {
+        Grade grade = grades.findById(gradeId);
+        if (grade == null) throw new IllegalArgumentException("Unknown grade ID " + gradeId);
+        if (score != null && !(score >= 0 && score <= 100)) throw new IllegalArgumentException("Score must be between 0 and 100");
+        if (score != null) grade.setScore(score);
+        if (comments != null) grade.setComments(comments);
+        return grade;
+    }
+    
+    public Enrollment enroll(int studentId, int courseId, String description) {
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.begin();
+        long started = System.nanoTime();
+        if (!students.containsId(studentId)) throw new IllegalArgumentException("Unknown student ID " + studentId);
+        if (!courses.containsId(courseId)) throw new IllegalArgumentException("Unknown course ID " + courseId);
+        if (isEnrolled(studentId, courseId)) {
+            throw new IllegalArgumentException("Student " + studentId + " is already enrolled in course " + courseId);
+        }
+        Enrollment enrollment = new Enrollment(studentId, courseId, description);
+        enrollments.add(enrollment);
+        metrics.get(Operation.ENROLL).record(started);
+        event.finish(studentId, courseId, true);
+        return enrollment;
+    }
+    
+    public Grade recordGrade(int studentId, int assignmentId, double score, String comments) {
+        if (!students.containsId(studentId)) throw new IllegalArgumentException("Unknown student ID " + studentId);
+        if (!assignments.containsId(assignmentId)) throw new IllegalArgumentException("Unknown assignment ID " + assignmentId);
+        if (!(score >= 0 && score <= 100)) throw new IllegalArgumentException("Score must be between 0 and 100");
+        GradeEntryEvent event = new GradeEntryEvent();
+        event.begin();
+        long started = System.nanoTime();
+        Grade grade = new Grade(studentId, assignmentId, score, comments);
+        grades.add(grade);
+        metrics.get(Operation.RECORD_GRADE).record(started);
+        event.finish(studentId, assignmentId, score);
+        return grade;
+    }
+    
+    public void setEnrollmentStatus(int enrollmentId, EnrollmentStatus status) {
+        updateEnrollment(enrollmentId, status, null);
+    }
+    
+    public void setAssignmentStatus(int assignmentId, AssignmentStatus status) {
+        updateAssignment(assignmentId, status, null);
+    }
+    
+    public Enrollment updateEnrollment(int enrollmentId, EnrollmentStatus status, String remarks) {
+        Enrollment enrollment = enrollments.findById(enrollmentId);
+        if (enrollment == null) throw new IllegalArgumentException("Unknown enrollment ID " + enrollmentId);
+        if (status != null) enrollment.setStatus(status);
+        if (remarks != null) enrollment.setRemarks(remarks);
+        return enrollment;
+    }
+    
+    public Assignment updateAssignment(int assignmentId, AssignmentStatus status, String remarks) {
+        Assignment assignment = assignments.findById(assignmentId);
+        if (assignment == null) throw new IllegalArgumentException("Unknown assignment ID " + assignmentId);
+        if (status != null) assignment.setStatus(status);
+        if (remarks != null) assignment.setRemarks(remarks);
+        return assignment;
+    }
+    
+    // Marks assignments still PENDING after their due date as OVERDUE, journaled like
+    // any other status change. Returns how many were marked.
+    public int expireOverdue() {
+        return expireOverdue(LocalDateTime.now());
+    }
+    
+    int expireOverdue(LocalDateTime now) {
+        long second = DueDateWheel.second(now);
+        int[] expired = new int[1];
+        dueDates.advance(second, assignmentId -> {
+            // Stale entries: since completed, or rescheduled to a later due date
+            Assignment assignment = assignments.findById(assignmentId);
+            if (assignment == null || assignment.getStatus() != AssignmentStatus.PENDING) return;
+            if (DueDateWheel.expirySecond(assignment.getDueDateTime()) > second) return;
+            assignment.setStatus(AssignmentStatus.OVERDUE);
+            expired[0]++;
+        });
+        return expired[0];
+    }
+    
+    // Persistence
+    // Restores the snapshot and data log found in the data directory and journals
+    // every later change. Returns true when existing data was restored.
+    public boolean openDataLog(Path directory) {
+        return openDataLog(directory, System.out);
+    }
+    
+    public boolean openDataLog(Path directory, PrintStream messages) {
+        try {
+            Files.createDirectories(directory);
+            journal = ServiceJournal.open(directory.resolve("education.wal"), directory.resolve("education.snap"), this);
+            if (journal.getSnapshotRows() > 0 || journal.getReplayedRecords() > 0) {
+                messages.println("\n✅ Restored " + journal.getSnapshotRows() + " snapshot rows and "
+                                   + journal.getReplayedRecords() + " log records from " + directory);
+                return true;
+            }
+        } catch (IOException | RuntimeException e) {
+            messages.println("\n⚠️ Could not open data directory " + directory + ": " + e.getMessage());
+            messages.println("   Changes in this session will not be saved.");
+        }
+        return false;
+    }
+    
+    public ServiceJournal getJournal() {
+        return journal;
+    }
+    
+    public void close() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not close data log: " + e.getMessage());
+        }
+    }
+    
+    // Initialize sample data
+    public void initializeSampleData() {
+        System.out.println("\nInitializing sample data...");
+        
+        // Create sample students
+        students.add(new Student("John", "Doe", "john.doe@email.com", "123-456-7890"));
+        students.add(new Student("Jane", "Smith", "jane.smith@email.com", "987-654-3210"));
+        students.add(new Student("Bob", "Johnson", "bob.johnson@email.com", "555-123-4567"));
+        students.add(new Student("Alice", "Williams", "alice.williams@email.com", "444-555-6666"));
+        students.add(new Student("Charlie", "Brown", "charlie.brown@email.com", "777-888-9999"));
+        
+        // Create sample courses
+        courses.add(new Course("CS101", "Introduction to Programming", 
+            "Basic programming concepts and algorithms", 3, "Computer Science"));
+        courses.add(new Course("CS201", "Database Systems", 
+            "Database design, implementation, and management", 4, "Computer Science"));
+        courses.add(new Course("CS301", "Web Development", 
+            "Full-stack web development with modern frameworks", 4, "Computer Science"));
+        courses.add(new Course("MATH101", "Calculus I", 
+            "Limits, derivatives, and integrals", 4, "Mathematics"));
+        courses.add(new Course("ENG101", "English Composition", 
+            "Academic writing and research skills", 3, "English"));
+        
+        // Create sample instructors
+        instructors.add(new Instructor("Dr. Alice Brown", "555-111-2222", 
+            "alice.brown@university.edu", "Programming"));
+        instructors.add(new Instructor("Prof. David Wilson", "555-333-4444", 
+            "david.wilson@university.edu", "Databases"));
+        instructors.add(new Instructor("Dr. Sarah Johnson", "555-555-6666", 
+            "sarah.johnson@university.edu", "Web Technologies"));
+        instructors.add(new Instructor("Prof. Michael Chen", "555-777-8888", 
+            "michael.chen@university.edu", "Mathematics"));
+        
+        // Assign instructors to courses
+        instructors.get(0).setAssignedCourseId(1);
+        instructors.get(1).setAssignedCourseId(2);
+        instructors.get(2).setAssignedCourseId(3);
+        instructors.get(3).setAssignedCourseId(4);
+        
+        // Create sample enrollments
+        enrollments.add(new Enrollment(1, 1, "Fall 2024 Enrollment"));
+        enrollments.get(0).setStatus(EnrollmentStatus.APPROVED);
+        enrollments.add(new Enrollment(2, 1, "Fall 2024 Enrollment"));
+        enrollments.get(1).setStatus(EnrollmentStatus.APPROVED);
+        enrollments.add(new Enrollment(3, 2, "Fall 2024 Enrollment"));
+        enrollments.get(2).setStatus(EnrollmentStatus.APPROVED);
+        enrollments.add(new Enrollment(4, 3, "Fall 2024 Enrollment"));
+        enrollments.get(3).setStatus(EnrollmentStatus.APPROVED);
+        enrollments.add(new Enrollment(5, 4, "Fall 2024 Enrollment"));
+        enrollments.get(4).setStatus(EnrollmentStatus.APPROVED);
+        
+        // Create sample assignments
+        LocalDateTime dueDate1 = LocalDateTime.now().plusDays(14);
+        LocalDateTime dueDate2 = LocalDateTime.now().plusDays(21);
+        
+        assignments.add(new Assignment(1, "Programming Assignment 1", 
+            "Write a Java program to calculate factorial", dueDate1));
+        assignments.add(new Assignment(2, "Database Design Project", 
+            "Design a database schema for library system", dueDate2));
+        assignments.add(new Assignment(3, "Web Development Project", 
+            "Create a responsive website using HTML/CSS/JavaScript", dueDate1));
+        
+        // Create sample grades
+        grades.add(new Grade(1, 1, 92.5, "Excellent work!"));
+        grades.add(new Grade(2, 1, 85.0, "Good effort"));
+        grades.add(new Grade(3, 2, 78.5, "Needs improvement in design"));
+        
+        System.out.println("✅ Sample data initialized successfully!");
+        System.out.println("   - Students: " + students.size());
+        System.out.println("   - Courses: " + courses.size());
+        System.out.println("   - Instructors: " + instructors.size());
+        System.out.println("   - Enrollments: " + enrollments.size());
+        System.out.println("   - Assignments: " + assignments.size());
+        System.out.println("   - Grades: " + grades.size());
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Student Management
+    public void studentManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("STUDENT MANAGEMENT");
+            System.out.println("1. Add New Student");
+            System.out.println("2. View All Students");
+            System.out.println("3. Search Student");
+            System.out.println("4. Update Student");
+            System.out.println("5. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> addStudent();
+                case 2 -> viewAllStudents();
+                case 3 -> searchStudent();
+                case 4 -> updateStudent();
+                case 5 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void addStudent() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("ADD NEW STUDENT");
+        
+        System.out.print("First Name: ");
+        String firstName = scanner.nextLine();
+        
+        System.out.print("Last Name: ");
+        String lastName = scanner.nextLine();
+        
+        System.out.print("Email: ");
+        String email = scanner.nextLine();
+        
+        System.out.print("Phone: ");
+        String phone = scanner.nextLine();
+        
+        long started = System.nanoTime();
+        Student student = new Student(firstName, lastName, email, phone);
+        students.add(student);
+        metrics.get(Operation.ADD_STUDENT).record(started);
+        
+        System.out.println("\n✅ Student added successfully!");
+        System.out.println("Student ID: " + student.getStudentId());
+        System.out.println("Student Number: " + student.getStudentNumber());
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewAllStudents() {
+        browse("ALL STUDENTS", "students", students, Student.TABLE);
+    }
+    
+    private void searchStudent() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("SEARCH STUDENT");
+        
+        System.out.print("Enter search term (name, email, or phone): ");
+        String searchTerm = scanner.nextLine().toLowerCase();
+        
+        SearchResults<Student> results = findStudents(searchTerm, SEARCH_LIMIT);
+        
+        if (results.isEmpty()) {
+            System.out.println("\nNo students found matching: " + searchTerm);
+        } else {
+            System.out.println("\nSearch Results (" + results.getTotalMatches() + " found" +
+                (results.getTotalMatches() > results.getHits().size() ? ", showing top " + results.getHits().size() : "") + "):");
+            table.print(Student.TABLE, results.getHits());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    public SearchResults<Student> findStudents(String term, int limit) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        SearchResults<Student> results = studentSearchIndex.search(term, limit);
+        metrics.get(Operation.SEARCH_STUDENTS).record(started);
+        event.finish("students", term.length(), results.getTotalMatches());
+        return results;
+    }
+    
+    private void updateStudent() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("UPDATE STUDENT");
+        
+        System.out.print("Enter Student ID to update: ");
+        int id = getIntInput();
+        
+        Student student = students.findById(id);
+        
+        if (student != null) {
+            System.out.println("\nCurrent Information:");
+            System.out.println("Name: " + student.getFirstName() + " " + student.getLastName());
+            System.out.println("Email: " + student.getEmail());
+            System.out.println("Phone: " + student.getPhone());
+            
+            System.out.println("\nEnter new information (press Enter to keep current):");
+            
+            System.out.print("First Name [" + student.getFirstName() + "]: ");
+            String firstName = scanner.nextLine();
+            if (!firstName.isEmpty()) student.setFirstName(firstName);
+            
+            System.out.print("Last Name [" + student.getLastName() + "]: ");
+            String lastName = scanner.nextLine();
+            if (!lastName.isEmpty()) student.setLastName(lastName);
+            
+            System.out.print("Email [" + student.getEmail() + "]: ");
+            String email = scanner.nextLine();
+            if (!email.isEmpty()) student.setEmail(email);
+            
+            System.out.print("Phone [" + student.getPhone() + "]: ");
+            String phone = scanner.nextLine();
+            if (!phone.isEmpty()) student.setPhone(phone);
+            
+            System.out.println("\n✅ Student updated successfully!");
+        } else {
+            System.out.println("Student not found with ID: " + id);
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Course Management
+    public void courseManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("COURSE MANAGEMENT");
+            System.out.println("1. Add New Course");
+            System.out.println("2. View All Courses");
+            System.out.println("3. Search Course");
+            System.out.println("4. Update Course");
+            System.out.println("5. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> addCourse();
+                case 2 -> viewAllCourses();
+                case 3 -> searchCourse();
+                case 4 -> updateCourse();
+                case 5 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void addCourse() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("ADD NEW COURSE");
+        
+        System.out.print("Course Code: ");
+        String code = scanner.nextLine();
+        
+        System.out.print("Course Name: ");
+        String name = scanner.nextLine();
+        
+        System.out.print("Description: ");
+        String description = scanner.nextLine();
+        
+        System.out.print("Credits: ");
+        int credits = getIntInput();
+        
+        System.out.print("Department: ");
+        String department = scanner.nextLine();
+        
+        try {
+            Course course = addCourse(code, name, description, credits, department);
+            System.out.println("\n✅ Course added successfully!");
+            System.out.println("Course ID: " + course.getCourseId());
+        } catch (IllegalArgumentException e) {
+            System.out.println("\n❌ " + e.getMessage());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewAllCourses() {
+        browse("ALL COURSES", "courses", courses, Course.TABLE);
+    }
+    
+    private void searchCourse() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("SEARCH COURSE");
+        
+        System.out.print("Enter search term (name, code, or department): ");
+        RadixTrie.Cursor cursor = autocompleteCourses();
+        cursor.type(scanner.nextLine().trim());
+        
+        // Further letters narrow the previous results; each "-" takes one letter back
+        while (true) {
+            SearchResults<Course> results = resolveCourses(cursor, SEARCH_LIMIT);
+            if (results.isEmpty()) {
+                System.out.println("\nNo courses found matching: " + cursor.prefix());
+            } else {
+                System.out.println("\nSearch Results for \"" + cursor.prefix() + "\" (" + results.getTotalMatches() + " found" +
+                    (results.getTotalMatches() > results.getHits().size() ? ", showing first " + results.getHits().size() : "") + "):");
+                table.print(Course.TABLE, results.getHits());
+            }
+            System.out.print("\nMore letters to narrow, - to go back a letter, Enter to finish: ");
+            String more = scanner.nextLine();
+            if (more.isEmpty()) break;
+            if (more.chars().allMatch(c -> c == '-')) {
+                for (int i = 0; i < more.length(); i++) cursor.backspace();
+            } else {
+                cursor.type(more);
+            }
+        }
+    }
+    
+    public SearchResults<Course> findCourses(String prefix, int limit) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        SearchResults<Course> results = courseSearchIndex.search(prefix, limit);
+        metrics.get(Operation.SEARCH_COURSES).record(started);
+        event.finish("courses", prefix.length(), results.getTotalMatches());
+        return results;
+    }
+    
+    public RadixTrie.Cursor autocompleteCourses() {
+        return courseSearchIndex.autocomplete();
+    }
+    
+    public SearchResults<Course> resolveCourses(RadixTrie.Cursor cursor, int limit) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        SearchResults<Course> results = courseSearchIndex.resolve(cursor, limit);
+        metrics.get(Operation.SEARCH_COURSES).record(started);
+        event.finish("courses", cursor.prefix().length(), results.getTotalMatches());
+        return results;
+    }
+    
+    private void updateCourse() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("UPDATE COURSE");
+        
+        System.out.print("Enter Course ID to update: ");
+        int id = getIntInput();
+        
+        Course course = courses.findById(id);
+        
+        if (course != null) {
+            System.out.println("\nCurrent Information:");
+            System.out.println("Code: " + course.getCourseCode());
+            System.out.println("Name: " + course.getCourseName());
+            System.out.println("Credits: " + course.getCredits());
+            System.out.println("Department: " + course.getDepartment());
+            
+            System.out.println("\nEnter new information (press Enter to keep current):");
+            
+            System.out.print("Course Name [" + course.getCourseName() + "]: ");
+            String name = scanner.nextLine();
+            
+            System.out.print("Description [" + course.getDescription() + "]: ");
+            String desc = scanner.nextLine();
+            
+            System.out.print("Credits [" + course.getCredits() + "]: ");
+            String creditsStr = scanner.nextLine();
+            
+            System.out.print("Department [" + course.getDepartment() + "]: ");
+            String dept = scanner.nextLine();
+            
+            // Checked as a whole before anything changes
+            try {
+                Integer credits = null;
+                if (!creditsStr.isEmpty()) {
+                    try {
+                        credits = Integer.parseInt(creditsStr.trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Credits must be a whole number");
+                    }
+                }
+                updateCourse(id, name.isEmpty() ? null : name, desc.isEmpty() ? null : desc, credits,
+                             dept.isEmpty() ? null : dept);
+                System.out.println("\n✅ Course updated successfully!");
+            } catch (IllegalArgumentException e) {
+                System.out.println("\n❌ " + e.getMessage());
+            }
+        } else {
+            System.out.println("Course not found with ID: " + id);
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Instructor Management
+    public void instructorManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("INSTRUCTOR MANAGEMENT");
+            System.out.println("1. Add New Instructor");
+            System.out.println("2. View All Instructors");
+            System.out.println("3. Assign Instructor to Course");
+            System.out.println("4. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> addInstructor();
+                case 2 -> viewAllInstructors();
+                case 3 -> assignInstructorToCourse();
+                case 4 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void addInstructor() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("ADD NEW INSTRUCTOR");
+        
+        System.out.print("Name: ");
+        String name = scanner.nextLine();
+        
+        System.out.print("Email: ");
+        String email = scanner.nextLine();
+        
+        System.out.print("Contact: ");
+        String contact = scanner.nextLine();
+        
+        System.out.print("Specialization: ");
+        String specialization = scanner.nextLine();
+        
+        System.out.print("Location: ");
+        String location = scanner.nextLine();
+        
+        Instructor instructor = new Instructor(name, contact, email, specialization);
+        instructor.setLocation(location);
+        instructors.add(instructor);
+        
+        System.out.println("\n✅ Instructor added successfully!");
+        System.out.println("Instructor ID: " + instructor.getInstructorId());
+        System.out.println("Identifier: " + instructor.getIdentifier());
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewAllInstructors() {
+        browse("ALL INSTRUCTORS", "instructors", instructors, Instructor.TABLE);
+    }
+    
+    private void assignInstructorToCourse() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("ASSIGN INSTRUCTOR TO COURSE");
+        
+        System.out.println("Available Instructors:");
+        table.print(Instructor.TABLE, instructors);
+        
+        System.out.print("\nEnter Instructor ID to assign: ");
+        int instructorId = getIntInput();
+        
+        System.out.println("\nAvailable Courses:");
+        table.print(Course.TABLE, courses);
+        
+        System.out.print("\nEnter Course ID to assign: ");
+        int courseId = getIntInput();
+        
+        Instructor instructor = instructors.findById(instructorId);
+        Course course = courses.findById(courseId);
+        
+        if (instructor != null && course != null) {
+            instructor.setAssignedCourseId(courseId);
+            System.out.println("\n✅ Instructor " + instructor.getName() + 
+                             " assigned to course " + course.getCourseName());
+        } else {
+            System.out.println("Invalid instructor or course ID!");
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Enrollment Management
+    public boolean isEnrolled(int studentId, int courseId) {
+        return enrollmentIndex.isEnrolled(studentId, courseId);
+    }
+    
+    public List<Enrollment> getEnrollmentsForStudent(int studentId) {
+        return resolveEnrollments(enrollmentIndex.enrollmentsOfStudent(studentId));
+    }
+    
+    public List<Enrollment> getCourseRoster(int courseId) {
+        return resolveEnrollments(enrollmentIndex.enrollmentsOfCourse(courseId));
+    }
+    
+    public List<Enrollment> getCourseRoster(int courseId, EnrollmentStatus status) {
+        return resolveEnrollments(getCourseRosterIds(courseId, status));
+    }
+    
+    // Ascending IDs of the course's enrollments with the given status
+    public IntList getCourseRosterIds(int courseId, EnrollmentStatus status) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        IntList ids = courseEnrollments(courseId).and(enrollmentStatusIndex.withStatus(status)).toList();
+        metrics.get(Operation.COURSE_ROSTER).record(started);
+        event.finish("course roster", 0, ids.size());
+        return ids;
+    }
+    
+    // One page of the above: up to limit IDs greater than after
+    public IntList getCourseRosterIds(int courseId, EnrollmentStatus status, int after, int limit) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        IntList course = enrollmentIndex.enrollmentsOfCourse(courseId);
+        IdBitmap matching = enrollmentStatusIndex.withStatus(status);
+        IntList ids = new IntList();
+        int from = after == Integer.MAX_VALUE ? course.size() : course.seek(after + 1, 0);
+        for (int i = from; i < course.size() && ids.size() < limit; i++) {
+            if (matching.contains(course.get(i))) ids.add(course.get(i));
+        }
+        metrics.get(Operation.COURSE_ROSTER).record(started);
+        event.finish("course roster", 0, ids.size());
+        return ids;
+    }
+    
+    public long countCourseEnrollments(int courseId, EnrollmentStatus status) {
+        return courseEnrollments(courseId).andCardinality(enrollmentStatusIndex.withStatus(status));
+    }
+    
+    public List<Assignment> getAssignmentsWithStatus(AssignmentStatus status) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        IntList ids = assignmentStatusIndex.withStatus(status).toList();
+        List<Assignment> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(assignments.findById(ids.get(i)));
+        }
+        metrics.get(Operation.SEARCH_ASSIGNMENTS).record(started);
+        event.finish("assignments by status", 0, result.size());
+        return result;
+    }
+    
+    private IdBitmap courseEnrollments(int courseId) {
+        return IdBitmap.of(enrollmentIndex.enrollmentsOfCourse(courseId));
+    }
+    
+    private List<Enrollment> resolveEnrollments(IntList ids) {
+        List<Enrollment> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(enrollments.findById(ids.get(i)));
+        }
+        return result;
+    }
+    
+    public void enrollmentManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("ENROLLMENT MANAGEMENT");
+            System.out.println("1. Enroll Student in Course");
+            System.out.println("2. View All Enrollments");
+            System.out.println("3. Update Enrollment Status");
+            System.out.println("4. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> enrollStudent();
+                case 2 -> viewAllEnrollments();
+                case 3 -> updateEnrollmentStatus();
+                case 4 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void enrollStudent() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("ENROLL STUDENT IN COURSE");
+        
+        System.out.println("Available Students:");
+        table.print(Student.TABLE, students);
+        
+        System.out.print("\nEnter Student ID: ");
+        int studentId = getIntInput();
+        
+        System.out.println("\nAvailable Courses:");
+        table.print(Course.TABLE, courses);
+        
+        System.out.print("\nEnter Course ID: ");
+        int courseId = getIntInput();
+        
+        System.out.print("Enrollment Description: ");
+        String description = scanner.nextLine();
+        
+        // Check if already enrolled
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.begin();
+        long started = System.nanoTime();
+        if (isEnrolled(studentId, courseId)) {
+            event.finish(studentId, courseId, false);
+            System.out.println("\n⚠️ Student is already enrolled in this course!");
+        } else {
+            Enrollment enrollment = new Enrollment(studentId, courseId, description);
+            enrollments.add(enrollment);
+            metrics.get(Operation.ENROLL).record(started);
+            event.finish(studentId, courseId, true);
+            System.out.println("\n✅ Enrollment created successfully!");
+            System.out.println("Enrollment ID: " + enrollment.getEnrollmentId());
+            System.out.println("Reference: " + enrollment.getReferenceId());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewAllEnrollments() {
+        browse("ALL ENROLLMENTS", "enrollments", enrollments, Enrollment.TABLE);
+    }
+    
+    private void updateEnrollmentStatus() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("UPDATE ENROLLMENT STATUS");
+        
+        System.out.print("Enter Enrollment ID: ");
+        int id = getIntInput();
+        
+        Enrollment enrollment = enrollments.findById(id);
+        
+        if (enrollment != null) {
+            System.out.println("\nCurrent Status: " + enrollment.getStatus());
+            System.out.println("\nAvailable Statuses:");
+            System.out.println("1. PENDING");
+            System.out.println("2. APPROVED");
+            System.out.println("3. REJECTED");
+            System.out.println("4. COMPLETED");
+            System.out.print("\nSelect status (1-4): ");
+            
+            int statusChoice = getIntInput();
+            EnrollmentStatus newStatus = switch (statusChoice) {
+                case 1 -> EnrollmentStatus.PENDING;
+                case 2 -> EnrollmentStatus.APPROVED;
+                case 3 -> EnrollmentStatus.REJECTED;
+                case 4 -> EnrollmentStatus.COMPLETED;
+                default -> enrollment.getStatus();
+            };
+            
+            enrollment.setStatus(newStatus);
+            System.out.print("Remarks: ");
+            String remarks = scanner.nextLine();
+            enrollment.setRemarks(remarks);
+            
+            System.out.println("\n✅ Enrollment status updated to: " + newStatus);
+        } else {
+            System.out.println("Enrollment not found!");
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Assignment Management
+    public void assignmentManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("ASSIGNMENT MANAGEMENT");
+            System.out.println("1. Create Assignment");
+            System.out.println("2. View All Assignments");
+            System.out.println("3. Update Assignment Status");
+            System.out.println("4. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            expireOverdue();
+            switch (choice) {
+                case 1 -> createAssignment();
+                case 2 -> viewAllAssignments();
+                case 3 -> updateAssignmentStatus();
+                case 4 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void createAssignment() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("CREATE ASSIGNMENT");
+        
+        System.out.println("Available Enrollments:");
+        table.print(Enrollment.TABLE, enrollments);
+        
+        System.out.print("\nEnter Enrollment ID: ");
+        int enrollmentId = getIntInput();
+        
+        System.out.print("Assignment Title: ");
+        String title = scanner.nextLine();
+        
+        System.out.print("Description: ");
+        String description = scanner.nextLine();
+        
+        System.out.print("Due Date (YYYY-MM-DD): ");
+        String dueDateStr = scanner.nextLine();
+        
+        try {
+            LocalDateTime dueDate = LocalDateTime.parse(dueDateStr + "T23:59:59");
+            Assignment assignment = new Assignment(enrollmentId, title, description, dueDate);
+            assignments.add(assignment);
+            
+            System.out.println("\n✅ Assignment created successfully!");
+            System.out.println("Assignment ID: " + assignment.getAssignmentId());
+            System.out.println("Reference: " + assignment.getReferenceId());
+            System.out.println("Due Date: " + assignment.getDueDate());
+        } catch (DateTimeParseException e) {
+            System.out.println("\n❌ Invalid date format! Please use YYYY-MM-DD");
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewAllAssignments() {
+        browse("ALL ASSIGNMENTS", "assignments", assignments, Assignment.TABLE);
+    }
+    
+    private void updateAssignmentStatus() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("UPDATE ASSIGNMENT STATUS");
+        
+        System.out.print("Enter Assignment ID: ");
+        int id = getIntInput();
+        
+        Assignment assignment = assignments.findById(id);
+        
+        if (assignment != null) {
+            System.out.println("\nCurrent Status: " + assignment.getStatus());
+            System.out.println("\nAvailable Statuses:");
+            System.out.println("1. PENDING");
+            System.out.println("2. SUBMITTED");
+            System.out.println("3. GRADED");
+            System.out.println("4. OVERDUE");
+            System.out.print("\nSelect status (1-4): ");
+            
+            int statusChoice = getIntInput();
+            AssignmentStatus newStatus = switch (statusChoice) {
+                case 1 -> AssignmentStatus.PENDING;
+                case 2 -> AssignmentStatus.SUBMITTED;
+                case 3 -> AssignmentStatus.GRADED;
+                case 4 -> AssignmentStatus.OVERDUE;
+                default -> assignment.getStatus();
+            };
+            
+            assignment.setStatus(newStatus);
+            System.out.print("Remarks: ");
+            String remarks = scanner.nextLine();
+            assignment.setRemarks(remarks);
+            
+            System.out.println("\n✅ Assignment status updated to: " + newStatus);
+        } else {
+            System.out.println("Assignment not found!");
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Grade Management
+    public void gradeManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("GRADE MANAGEMENT");
+            System.out.println("1. Add Grade");
+            System.out.println("2. View All Grades");
+            System.out.println("3. Update Grade");
+            System.out.println("4. View Student Transcript");
+            System.out.println("5. View GPA Rankings");
+            System.out.println("6. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> addGrade();
+                case 2 -> viewAllGrades();
+                case 3 -> updateGrade();
+                case 4 -> viewTranscript();
+                case 5 -> viewGpaRankings();
+                case 6 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void addGrade() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("ADD GRADE");
+        
+        System.out.println("Available Students:");
+        table.print(Student.TABLE, students);
+        
+        System.out.print("\nEnter Student ID: ");
+        int studentId = getIntInput();
+        
+        System.out.println("\nAvailable Assignments:");
+        table.print(Assignment.TABLE, assignments);
+        
+        System.out.print("\nEnter Assignment ID: ");
+        int assignmentId = getIntInput();
+        
+        System.out.print("Score (0-100): ");
+        double score = getDoubleInput();
+        
+        System.out.print("Comments: ");
+        String comments = scanner.nextLine();
+        
+        try {
+            Grade grade = recordGrade(studentId, assignmentId, score, comments);
+            System.out.println("\n✅ Grade added successfully!");
+            System.out.println("Grade ID: " + grade.getGradeId());
+            System.out.println("Score: " + grade.getScore());
+            System.out.println("Letter Grade: " + grade.getGrade());
+        } catch (IllegalArgumentException e) {
+            System.out.println("\n❌ " + e.getMessage());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewAllGrades() {
+        browse("ALL GRADES", "grades", grades, Grade.TABLE);
+    }
+    
+    private void updateGrade() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("UPDATE GRADE");
+        
+        System.out.print("Enter Grade ID: ");
+        int id = getIntInput();
+        
+        Grade grade = grades.findById(id);
+        
+        if (grade != null) {
+            System.out.println("\nCurrent Information:");
+            System.out.println("Score: " + grade.getScore());
+            System.out.println("Grade: " + grade.getGrade());
+            System.out.println("Comments: " + grade.getComments());
+            
+            System.out.print("\nNew Score (press Enter to keep current): ");
+            String scoreStr = scanner.nextLine();
+            if (!scoreStr.isEmpty()) {
+                double newScore = Double.parseDouble(scoreStr);
+                grade.setScore(newScore);
+            }
+            
+            System.out.print("New Comments [" + grade.getComments() + "]: ");
+            String comments = scanner.nextLine();
+            if (!comments.isEmpty()) grade.setComments(comments);
+            
+            System.out.println("\n✅ Grade updated successfully!");
+        } else {
+            System.out.println("Grade not found!");
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Course of an assignment through its enrollment, or -1 when either is missing
+    private int courseOfAssignment(int assignmentId) {
+        int position = assignments.positionOf(assignmentId);
+        if (position < 0) return -1;
+        int enrollment = enrollments.positionOf(assignments.peek(position).getEnrollmentId());
+        return enrollment < 0 ? -1 : enrollments.courseIdAt(enrollment);
+    }
+    
+    private int creditsOfCourse(int courseId) {
+        int position = courses.positionOf(courseId);
+        return position < 0 ? 0 : courses.peek(position).getCredits();
+    }
+    
+    private void viewTranscript() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("STUDENT TRANSCRIPT");
+        
+        System.out.print("Enter Student ID: ");
+        int studentId = getIntInput();
+        
+        Student student = students.findById(studentId);
+        GpaIndex.Transcript transcript = gpaIndex.transcriptOf(studentId);
+        if (student == null) {
+            System.out.println("Student not found with ID: " + studentId);
+        } else if (transcript == null) {
+            System.out.println("No grades recorded for " + student.getFirstName() + " " + student.getLastName() + ".");
+        } else {
+            System.out.println("\nTranscript for " + student.getFirstName() + " " + student.getLastName() + ":");
+            System.out.println("┌──────────────┬───────────────────────────┬─────────┬────────┬────────────┬────────┐");
+            System.out.println("│ Course Code  │ Course Name               │ Credits │ Grades │ Avg. Score │ Letter │");
+            System.out.println("├──────────────┼───────────────────────────┼─────────┼────────┼────────────┼────────┤");
+            for (GpaIndex.CourseGrade grade : transcript.getCourses()) {
+                Course course = courses.findById(grade.getCourseId());
+                String code = course == null ? "#" + grade.getCourseId() : course.getCourseCode();
+                String name = course == null ? "" : course.getCourseName();
+                if (name.length() > 25) name = name.substring(0, 22) + "...";
+                System.out.printf("│ %-12s │ %-25s │ %7d │ %6d │ %10.2f │ %-6s │\n", code, name, grade.getCredits(),
+                                  grade.getGradeCount(), grade.getAverageScore(), grade.getLetter());
+            }
+            System.out.println("└──────────────┴───────────────────────────┴─────────┴────────┴────────────┴────────┘");
+            System.out.printf("GPA: %.2f over %d credits\n", transcript.getGpa(), transcript.getAttemptedCredits());
+            if (transcript.getRank() > 0) {
+                System.out.println("Class rank: " + transcript.getRank() + " of " + gpaIndex.getRankedCount());
+            }
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewGpaRankings() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("GPA RANKINGS");
+        
+        List<GpaIndex.Transcript> top = gpaIndex.top(PAGE_SIZE);
+        if (top.isEmpty()) {
+            System.out.println("No graded credits recorded yet.");
+        } else {
+            System.out.println("┌──────┬──────────┬──────────────────────────────┬────────┬─────────┐");
+            System.out.println("│ Rank │ Student  │ Name                         │ GPA    │ Credits │");
+            System.out.println("├──────┼──────────┼──────────────────────────────┼────────┼─────────┤");
+            for (GpaIndex.Transcript transcript : top) {
+                Student student = students.findById(transcript.getStudentId());
+                String name = student == null ? "" : student.getFirstName() + " " + student.getLastName();
+                if (name.length() > 28) name = name.substring(0, 25) + "...";
+                System.out.printf("│ %4d │ %8d │ %-28s │ %6.2f │ %7d │\n", transcript.getRank(), transcript.getStudentId(),
+                                  name, transcript.getGpa(), transcript.getAttemptedCredits());
+            }
+            System.out.println("└──────┴──────────┴──────────────────────────────┴────────┴─────────┘");
+            System.out.println("Ranked students: " + gpaIndex.getRankedCount());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Search Management
+    public void searchManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("SEARCH MANAGEMENT");
+            System.out.println("1. Search Students");
+            System.out.println("2. Search Courses");
+            System.out.println("3. Search Enrollments by Student");
+            System.out.println("4. Search Assignments by Status");
+            System.out.println("5. View Course Roster");
+            System.out.println("6. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            expireOverdue();
+            switch (choice) {
+                case 1 -> searchStudent();
+                case 2 -> searchCourse();
+                case 3 -> searchEnrollmentsByStudent();
+                case 4 -> searchAssignmentsByStatus();
+                case 5 -> viewCourseRoster();
+                case 6 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void searchEnrollmentsByStudent() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("SEARCH ENROLLMENTS BY STUDENT");
+        
+        System.out.print("Enter Student Name: ");
+        String name = scanner.nextLine().toLowerCase();
+        
+        List<Student> foundStudents = students.stream()
+            .filter(s -> s.getFirstName().toLowerCase().contains(name) ||
+                        s.getLastName().toLowerCase().contains(name))
+            .collect(Collectors.toList());
+        
+        if (foundStudents.isEmpty()) {
+            System.out.println("No students found with name: " + name);
+        } else {
+            for (Student student : foundStudents) {
+                System.out.println("\nEnrollments for " + student.getFirstName() + " " + student.getLastName() + ":");
+                List<Enrollment> studentEnrollments = getEnrollmentsForStudent(student.getStudentId());
+                
+                if (studentEnrollments.isEmpty()) {
+                    System.out.println("No enrollments found.");
+                } else {
+                    table.print(Enrollment.TABLE, studentEnrollments);
+                }
+            }
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void viewCourseRoster() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("COURSE ROSTER");
+        
+        System.out.print("Enter Course ID: ");
+        int courseId = getIntInput();
+        
+        Course course = courses.findById(courseId);
+        if (course == null) {
+            System.out.println("Course not found with ID: " + courseId);
+        } else {
+            List<Enrollment> roster = getCourseRoster(courseId);
+            System.out.println("\nEnrollments for " + course.getCourseCode() + " - " + course.getCourseName() + ":");
+            if (roster.isEmpty()) {
+                System.out.println("No enrollments found.");
+            } else {
+                table.print(Enrollment.TABLE, roster);
+                System.out.println("Total: " + roster.size());
+                IdBitmap enrolled = courseEnrollments(courseId);
+                StringBuilder summary = new StringBuilder();
+                for (EnrollmentStatus status : EnrollmentStatus.values()) {
+                    if (summary.length() > 0) summary.append(", ");
+                    summary.append(status).append(": ").append(enrolled.andCardinality(enrollmentStatusIndex.withStatus(status)));
+                }
+                System.out.println(summary);
+            }
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void searchAssignmentsByStatus() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("SEARCH ASSIGNMENTS BY STATUS");
+        
+        System.out.println("Select Status:");
+        System.out.println("1. PENDING");
+        System.out.println("2. SUBMITTED");
+        System.out.println("3. GRADED");
+        System.out.println("4. OVERDUE");
+        System.out.print("\nChoice: ");
+        
+        int choice = getIntInput();
+        AssignmentStatus status = switch (choice) {
+            case 1 -> AssignmentStatus.PENDING;
+            case 2 -> AssignmentStatus.SUBMITTED;
+            case 3 -> AssignmentStatus.GRADED;
+            case 4 -> AssignmentStatus.OVERDUE;
+            default -> AssignmentStatus.PENDING;
+        };
+        
+        List<Assignment> results = getAssignmentsWithStatus(status);
+        
+        if (results.isEmpty()) {
+            System.out.println("\nNo assignments found with status: " + status);
+        } else {
+            System.out.println("\nAssignments with status: " + status);
+            table.print(Assignment.TABLE, results);
+            System.out.println("Total: " + results.size());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Statistics
+    public StatisticsAggregator getStatistics() {
+        return statistics;
+    }
+    
+    public void viewStatistics() {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("SYSTEM STATISTICS");
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
+        long started = System.nanoTime();
+        
+        System.out.println("┌─────────────────────────────────────────────────────┐");
+        System.out.println("│                 SYSTEM OVERVIEW                     │");
+        System.out.println("├─────────────────────────────────────────────────────┤");
+        System.out.printf("│ Students:        %-35d │\n", students.size());
+        System.out.printf("│ Courses:         %-35d │\n", courses.size());
+        System.out.printf("│ Instructors:     %-35d │\n", instructors.size());
+        System.out.printf("│ Enrollments:     %-35d │\n", enrollments.size());
+        System.out.printf("│ Assignments:     %-35d │\n", assignments.size());
+        System.out.printf("│ Grades:          %-35d │\n", grades.size());
+        System.out.println("├─────────────────────────────────────────────────────┤");
+        
+        // Enrollment statistics
+        long pendingEnrollments = enrollmentStatusIndex.count(EnrollmentStatus.PENDING);
+        long approvedEnrollments = enrollmentStatusIndex.count(EnrollmentStatus.APPROVED);
+        
+        System.out.printf("│ Pending Enrollments:   %-30d │\n", pendingEnrollments);
+        System.out.printf("│ Approved Enrollments:  %-30d │\n", approvedEnrollments);
+        
+        // Assignment statistics
+        long pendingAssignments = assignmentStatusIndex.count(AssignmentStatus.PENDING);
+        long submittedAssignments = assignmentStatusIndex.count(AssignmentStatus.SUBMITTED);
+        long gradedAssignments = assignmentStatusIndex.count(AssignmentStatus.GRADED);
+        
+        System.out.printf("│ Pending Assignments:   %-30d │\n", pendingAssignments);
+        System.out.printf("│ Submitted Assignments: %-30d │\n", submittedAssignments);
+        System.out.printf("│ Graded Assignments:    %-30d │\n", gradedAssignments);
+        
+        // Grade statistics
+        if (!grades.isEmpty()) {
+            double avgScore = statistics.getAverageScore();
+            
+            long aGrades = statistics.getGradeCount("A");
+            long bGrades = statistics.getGradeCount("B");
+            long cGrades = statistics.getGradeCount("C");
+            long dGrades = statistics.getGradeCount("D");
+            long fGrades = statistics.getGradeCount("F");
+            
+            System.out.println("├─────────────────────────────────────────────────────┤");
+            System.out.printf("│ Average Score:        %-30.2f │\n", avgScore);
+            System.out.printf("│ A Grades:             %-30d │\n", aGrades);
+            System.out.printf("│ B Grades:             %-30d │\n", bGrades);
+            System.out.printf("│ C Grades:             %-30d │\n", cGrades);
+            System.out.printf("│ D Grades:             %-30d │\n", dGrades);
+            System.out.printf("│ F Grades:             %-30d │\n", fGrades);
+        }
+        
+        System.out.println("└─────────────────────────────────────────────────────┘");
+        metrics.get(Operation.STATISTICS).record(started);
+        event.finish("dashboard");
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Performance Metrics
+    public void viewPerformanceMetrics() {
+        while (true) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("PERFORMANCE METRICS");
+            table.print(OperationStats.TABLE, metrics.all());
+            System.out.println("\nLatencies are in microseconds, counted since start or the last reset.");
+            System.out.println("The same figures are published over JMX under education:type=ServiceMetrics.");
+            System.out.print("\n[R] Reset  [Enter] Back: ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("R")) return;
+            metrics.reset();
+        }
+    }
+    
+    // Score Analytics
+    public GradeAnalytics.Report analyzeScores(GradeAnalytics.GroupBy groupBy) {
+        long started = System.nanoTime();
+        GradeAnalytics.Report report = analytics.averageScores(groupBy);
+        metrics.get(Operation.ANALYTICS).record(started);
+        return report;
+    }
+    
+    public void viewScoreAnalytics() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("SCORE ANALYTICS");
+            System.out.println("1. Average Score by Department");
+            System.out.println("2. Average Score by Course");
+            System.out.println("3. Average Score by Instructor");
+            System.out.println("4. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> showScoreAnalytics(GradeAnalytics.GroupBy.DEPARTMENT);
+                case 2 -> showScoreAnalytics(GradeAnalytics.GroupBy.COURSE);
+                case 3 -> showScoreAnalytics(GradeAnalytics.GroupBy.INSTRUCTOR);
+                case 4 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private void showScoreAnalytics(GradeAnalytics.GroupBy groupBy) {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("AVERAGE SCORE BY " + groupBy.name());
+        
+        GradeAnalytics.Report report = analyzeScores(groupBy);
+        if (report.getGroups().isEmpty()) {
+            System.out.println("No grades recorded yet.");
+        } else {
+            table.print(GradeAnalytics.GroupAverage.TABLE, report.getGroups());
+            System.out.printf("%d grades in %.1f ms, %s\n", report.getGrades(), report.getElapsedNanos() / 1e6,
+                              report.getThreads() > 1 ? "parallel on " + report.getThreads() + " threads" : "sequential");
+            if (report.getUnmatched() > 0) {
+                System.out.println(report.getUnmatched() + " grades without a known course were left out.");
+            }
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Publishes the metrics over JMX; failing to do so only costs the beans
+    public void publishMetrics(PrintStream messages) {
+        try {
+            metrics.registerMBeans();
+        } catch (JMException e) {
+            messages.println("⚠️ Could not register JMX metrics: " + e.getMessage());
+        }
+    }
+    
+    // View All Data
+    public void viewAllData() {
+        browse("COMPLETE SYSTEM DATA - STUDENTS", "students", students, Student.TABLE);
+        browse("COMPLETE SYSTEM DATA - COURSES", "courses", courses, Course.TABLE);
+        browse("COMPLETE SYSTEM DATA - INSTRUCTORS", "instructors", instructors, Instructor.TABLE);
+        browse("COMPLETE SYSTEM DATA - ENROLLMENTS", "enrollments", enrollments, Enrollment.TABLE);
+        browse("COMPLETE SYSTEM DATA - ASSIGNMENTS", "assignments", assignments, Assignment.TABLE);
+        browse("COMPLETE SYSTEM DATA - GRADES", "grades", grades, Grade.TABLE);
+        
+        System.out.println("\n✅ Data display complete!");
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Shows a repository one page at a time; Enter or N moves to the next page,
+    // P to the previous one and Q leaves
+    private <T> void browse(String title, String entities, EntityStore<T> repository, TableLayout<T> layout) {
+        Page<T> page = repository.pageAfter(0, PAGE_SIZE);
+        while (true) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle(title);
+            
+            if (page.isEmpty()) {
+                System.out.println("No " + entities + " found.");
+                EducationSystem.pressEnterToContinue();
+                return;
+            }
+            table.print(layout, page.getRows());
+            System.out.println("\nShowing " + (page.getOffset() + 1) + "-" + (page.getOffset() + page.getRows().size())
+                               + " of " + repository.size() + " " + entities);
+            
+            System.out.print(page.hasNext() ? "\n[Enter/N] Next  [P] Previous  [Q] Back: " : "\n[P] Previous  [Enter/Q] Back: ");
+            String choice = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
+            if (choice.equals("P")) {
+                if (page.hasPrevious()) page = repository.pageBefore(page.getFirstId(), PAGE_SIZE);
+            } else if ((choice.isEmpty() || choice.equals("N")) && page.hasNext()) {
+                page = repository.pageAfter(page.getLastId(), PAGE_SIZE);
+            } else if (choice.isEmpty() || choice.equals("Q")) {
+                return;
+            }
+        }
+    }
+    
+    // Import / Export
+    public void importExportManagement() {
+        boolean back = false;
+        while (!back) {
+            EducationSystem.clearScreen();
+            EducationSystem.printSectionTitle("IMPORT / EXPORT DATA");
+            System.out.println("1. Import Students from CSV");
+            System.out.println("2. Import Courses from CSV");
+            System.out.println("3. Import Enrollments from CSV");
+            System.out.println("4. Export All Data to CSV");
+            System.out.println("5. Export All Data to JSON Lines");
+            System.out.println("6. Back to Main Menu");
+            System.out.print("\nEnter choice: ");
+            
+            int choice = getIntInput();
+            switch (choice) {
+                case 1 -> importFromCsv("students", CsvImporter::importStudents, "firstName, lastName, email, phone");
+                case 2 -> importFromCsv("courses", CsvImporter::importCourses,
+                                        "courseCode, courseName, credits, description, department");
+                case 3 -> importFromCsv("enrollments", CsvImporter::importEnrollments,
+                                        "studentId, courseId, description, status");
+                case 4 -> exportAllData(false);
+                case 5 -> exportAllData(true);
+                case 6 -> back = true;
+                default -> System.out.println("Invalid choice!");
+            }
+        }
+    }
+    
+    private interface CsvImport {
+        ImportReport run(CsvImporter importer, Path path) throws IOException;
+    }
+    
+    private void importFromCsv(String entity, CsvImport csvImport, String columns) {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle("IMPORT " + entity.toUpperCase(Locale.ROOT) + " FROM CSV");
+        System.out.println("Expected header columns: " + columns);
+        
+        System.out.print("\nCSV file path: ");
+        String file = scanner.nextLine().trim();
+        
+        try {
+            ImportReport report = csvImport.run(new CsvImporter(this), Paths.get(file));
+            System.out.println("\n✅ Imported " + report.getImported() + " of " + report.getRowsRead() + " " + entity
+                               + " in " + String.format("%.2f", report.getSeconds()) + " s ("
+                               + report.getRowsPerSecond() + " rows/s)");
+            if (report.getRejected() > 0) {
+                System.out.println("\n⚠️ Rejected rows: " + report.getRejected());
+                for (String rejection : report.getRejections()) {
+                    System.out.println("   - " + rejection);
+                }
+                if (report.getRejected() > report.getRejections().size()) {
+                    System.out.println("   ... and " + (report.getRejected() - report.getRejections().size()) + " more");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("\n⚠️ Import failed: " + e.getMessage());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    private void exportAllData(boolean json) {
+        EducationSystem.clearScreen();
+        EducationSystem.printSectionTitle(json ? "EXPORT DATA TO JSON LINES" : "EXPORT DATA TO CSV");
+        
+        System.out.print("Target directory [export]: ");
+        String directory = scanner.nextLine().trim();
+        if (directory.isEmpty()) directory = "export";
+        
+        try {
+            long started = System.nanoTime();
+            Map<String, Long> written = new DataExporter(this).exportAll(Paths.get(directory), json);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.println();
+            written.forEach((entity, count) -> System.out.println("   - " + entity + ": " + count));
+            System.out.println("\n✅ Export written to " + directory + " in " + String.format("%.2f", seconds) + " s");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("\n⚠️ Export failed: " + e.getMessage());
+        }
+        EducationSystem.pressEnterToContinue();
+    }
+    
+    // Helper methods
+    private int getIntInput() {
+        while (true) {
+            try {
+                return Integer.parseInt(scanner.nextLine());
+            } catch (NumberFormatException e) {
+                System.out.print("Invalid input! Please enter a number: ");
+            }
+        }
+    }
+    
+    private double getDoubleInput() {
+        while (true) {
+            try {
+                return Double.parseDouble(scanner.nextLine());
+            } catch (NumberFormatException e) {
+                System.out.print("Invalid input! Please enter a number: ");
+            }
+        }
+    }
+}
+
+// Thread-safe front end for callers that serve many request threads at once. Once
+// a service is wrapped, all access must go through the wrapper.
+//
+// Consistency model: every change runs under one exclusive write lock, so changes
+// are applied, indexed and journaled in a single total order, and a new entity's
+// ID is allocated and appended in the same critical section, which keeps every
+// store in ascending ID order for keyset paging. Queries run under the shared read
+// lock, so each observes the state between two changes and never a half-applied
+// one. Only the point lookups below (an entity by ID, an enrollment check, status
+// counts, the average score) first run without locking and are validated against
+// the lock's stamp, rerunning under the read lock if they overlapped a change.
+// They only probe hash tables and read fields, which stays in bounds and ends even
+// on torn state, and they write nothing that a discarded run could leave behind.
+// A change is visible to queries once its call releases the write lock and is
+// durable in the data log when the call returns; the wait for the disk happens
+// outside the lock, so concurrent writers share one flush. Queries must copy out
+// what they need and not modify anything: entities and views that escape a query
+// are read later without synchronization.
+class ConcurrentEducationService {
+    private final EducationService service;
+    private final StampedLock lock = new StampedLock();
+    
+    public ConcurrentEducationService(EducationService service) {
+        this.service = service;
+    }
+    
+    public <R> R read(Function<EducationService, R> query) {
+        long stamp = lock.readLock();
+        try {
+            return query.apply(service);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // Renders the entity with the given ID, or returns null when there is none. The
+    // row is read with peek, which keeps nothing it builds, so render must only read.
+    public <T, R> R lookup(Function<EducationService, EntityStore<T>> store, int id, Function<T, R> render) {
+        return optimistic(s -> {
+            EntityStore<T> entities = store.apply(s);
+            int position = entities.positionOf(id);
+            return position < 0 ? null : render.apply(entities.peek(position));
+        });
+    }
+    
+    public <R> R write(Function<EducationService, R> change) {
+        R result;
+        long sequence = 0;
+        ServiceJournal journal;
+        long stamp = lock.writeLock();
+        try {
+            journal = service.getJournal();
+            if (journal != null) journal.beginBatch();
+            try {
+                result = change.apply(service);
+            } finally {
+                if (journal != null) sequence = journal.endBatchDeferred();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (journal != null) {
+            journal.awaitDurable(sequence);
+            // The snapshot only reads, so queries go on while it is written
+            if (journal.isCheckpointDue()) {
+                stamp = lock.readLock();
+                try {
+                    journal.checkpointIfDue();
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+        }
+        return result;
+    }
+    
+    public int addStudent(String firstName, String lastName, String email, String phone) {
+        return write(s -> s.addStudent(firstName, lastName, email, phone).getStudentId());
+    }
+    
+    public int enroll(int studentId, int courseId, String description) {
+        return write(s -> s.enroll(studentId, courseId, description).getEnrollmentId());
+    }
+    
+    public int recordGrade(int studentId, int assignmentId, double score, String comments) {
+        return write(s -> s.recordGrade(studentId, assignmentId, score, comments).getGradeId());
+    }
+    
+    public void setEnrollmentStatus(int enrollmentId, EnrollmentStatus status) {
+        write(s -> {
+            s.setEnrollmentStatus(enrollmentId, status);
+            return null;
+        });
+    }
+    
+    // Null when there is no such enrollment
+    public EnrollmentStatus getEnrollmentStatus(int enrollmentId) {
+        return lookup(EducationService::enrollments, enrollmentId, Enrollment::getStatus);
+    }
+    
+    public boolean isEnrolled(int studentId, int courseId) {
+        return optimistic(s -> s.isEnrolled(studentId, courseId));
+    }
+    
+    public long countEnrollments(EnrollmentStatus status) {
+        return optimistic(s -> s.enrollmentStatusIndex().count(status));
+    }
+    
+    public long countCourseEnrollments(int courseId, EnrollmentStatus status) {
+        return read(s -> s.countCourseEnrollments(courseId, status));
+    }
+    
+    public double getAverageScore() {
+        return optimistic(s -> s.getStatistics().getAverageScore());
+    }
+    
+    public void close() {
+        write(s -> {
+            s.close();
+            return null;
+        });
+    }
+    
+    // Only for the audited lookups above; any other query goes through read
+    private <R> R optimistic(Function<EducationService, R> lookup) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = lookup.apply(service);
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // A lookup racing a change can see torn state; only a validated failure is real
+                if (lock.validate(stamp)) throw e;
+            }
+        }
+        return read(lookup);
+    }
+}
@@ -0,0 +1,143 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ApiServerTest {
+    private final EducationService data = new EducationService();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ApiServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new ApiServer(new ConcurrentEducationService(data), new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void createsReadsAndUpdatesFromFlatJson() throws Exception {
+        HttpResponse<String> created = send("POST", "/api/students",
+            "{\"firstName\": \"Zo\\u00eb \\\"Z\\\"\", \"lastName\":\"Quinn\", \"email\":\"zoe@example.com\", \"phone\":null}");
+        assertEquals(201, created.statusCode(), created.body());
+        int id = field(created.body(), "studentId");
+        assertEquals("Zoë \"Z\"", data.students().findById(id).getFirstName());
+
+        HttpResponse<String> read = send("GET", "/api/students/" + id, null);
+        assertEquals(200, read.statusCode());
+        assertTrue(read.body().contains("\"lastName\":\"Quinn\""), read.body());
+
+        HttpResponse<String> updated = send("PATCH", "/api/students/" + id, "{\"lastName\":\"Quill\"}");
+        assertEquals(200, updated.statusCode(), updated.body());
+        assertEquals("Quill", data.students().findById(id).getLastName());
+
+        HttpResponse<String> course = sendForm("POST", "/api/courses", "courseCode=CS1&courseName=Programming&credits=3");
+        assertEquals(201, course.statusCode(), course.body());
+        HttpResponse<String> search = send("GET", "/api/search/courses?q=prog", null);
+        assertEquals(1, field(search.body(), "total"));
+    }
+
+    @Test
+    void answersMissesWith404() throws Exception {
+        assertEquals(404, send("GET", "/api/students/12345678", null).statusCode());
+        assertEquals(404, send("GET", "/api/students/abc", null).statusCode());
+        assertEquals(404, send("GET", "/api/nothing", null).statusCode());
+        assertEquals(404, send("GET", "/api/courses/12345678/roster", null).statusCode());
+        for (String resource : new String[] { "students", "courses", "enrollments", "assignments", "grades" }) {
+            HttpResponse<String> patched = send("PATCH", "/api/" + resource + "/12345678", "{\"remarks\":\"x\"}");
+            assertEquals(404, patched.statusCode(), resource + ": " + patched.body());
+        }
+    }
+
+    @Test
+    void rejectsBadRequests() throws Exception {
+        assertEquals(405, send("DELETE", "/api/students/1", null).statusCode());
+        assertEquals(405, send("PUT", "/api/students", "{}").statusCode());
+        assertEquals(400, send("POST", "/api/students", "{\"firstName\": }").statusCode());
+        assertEquals(400, send("POST", "/api/students", "{\"firstName\":\"A\"} trailing").statusCode());
+        assertEquals(400, send("POST", "/api/courses", "{\"courseCode\":\"X\",\"courseName\":\"Y\"}").statusCode());
+        assertEquals(400, send("GET", "/api/assignments?status=LOST", null).statusCode());
+        HttpResponse<String> large = send("POST", "/api/students", "{\"firstName\":\"" + "x".repeat(70_000) + "\"}");
+        assertEquals(413, large.statusCode());
+        assertTrue(large.body().contains("\"error\""), large.body());
+    }
+
+    @Test
+    void pagesStatusListingsAndRosters() throws Exception {
+        Course course = data.addCourse("CS2", "Data Structures", "", 4, "Computing");
+        List<Integer> pending = new ArrayList<>();
+        List<Integer> approved = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Student student = data.addStudent("S" + i, "L" + i, null, null);
+            Enrollment enrollment = data.enroll(student.getStudentId(), course.getCourseId(), "");
+            if (i % 3 == 0) {
+                data.setEnrollmentStatus(enrollment.getEnrollmentId(), EnrollmentStatus.APPROVED);
+                approved.add(enrollment.getEnrollmentId());
+            }
+            Assignment assignment = data.createAssignment(enrollment.getEnrollmentId(), "Work", "", LocalDateTime.now().plusDays(1));
+            if (i % 4 != 0) pending.add(assignment.getAssignmentId());
+            else data.setAssignmentStatus(assignment.getAssignmentId(), AssignmentStatus.GRADED);
+        }
+
+        assertEquals(pending, pageAll("/api/assignments?status=pending&limit=7", "assignmentId", pending.size()));
+        assertEquals(approved, pageAll("/api/courses/" + course.getCourseId() + "/roster?status=APPROVED&limit=4",
+                                       "enrollmentId", approved.size()));
+        assertEquals(40, pageAll("/api/courses/" + course.getCourseId() + "/roster?limit=9", "enrollmentId", 40).size());
+    }
+
+    private List<Integer> pageAll(String path, String idField, int total) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        String after = "";
+        while (true) {
+            HttpResponse<String> page = send("GET", path + after, null);
+            assertEquals(200, page.statusCode(), page.body());
+            assertEquals(total, field(page.body(), "total"));
+            Matcher matcher = Pattern.compile("\"" + idField + "\":(\\d+)").matcher(page.body());
+            while (matcher.find()) ids.add(Integer.parseInt(matcher.group(1)));
+            Matcher next = Pattern.compile("\"nextAfter\":(null|\\d+)").matcher(page.body());
+            assertTrue(next.find(), page.body());
+            if (next.group(1).equals("null")) return ids;
+            after = "&after=" + next.group(1);
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String json) throws Exception {
+        return request(method, path, json, "application/json");
+    }
+
+    private HttpResponse<String> sendForm(String method, String path, String form) throws Exception {
+        return request(method, path, form, "application/x-www-form-urlencoded");
+    }
+
+    private HttpResponse<String> request(String method, String path, String body, String type) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).header("Content-Type", type)
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int field(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":(\\d+)").matcher(json);
+        assertTrue(matcher.find(), name + " in " + json);
+        return Integer.parseInt(matcher.group(1));
+    }
+}
@@ -0,0 +1,102 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandInterpreterTest {
+    private static final PrintStream QUIET = new PrintStream(OutputStream.nullOutputStream());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void runsCommandsAndReportsFailuresByLine() throws IOException {
+        EducationService service = new EducationService();
+        int course = service.addCourse("CS1", "Programming", "", 4, "Computing").getCourseId();
+        int student = service.addStudent("Ada", "Lovelace", null, null).getStudentId();
+        int enrollment = service.enroll(student, course, null).getEnrollmentId();
+        int assignment = service.createAssignment(enrollment, "Essay", null, LocalDateTime.now().plusDays(7))
+                                .getAssignmentId();
+
+        StringWriter out = new StringWriter();
+        CommandInterpreter interpreter = new CommandInterpreter(service, out);
+        List<String> lines = run(interpreter, out,
+            "# comments are skipped\n"
+            + "add-student,Grace,\"Hopper, R.\",grace@example.com\n"
+            + "enroll," + student + ",999\n"
+            + "grade," + student + "," + assignment + ",91.5,Well done\n"
+            + "set-status,enrollment," + enrollment + ",approved\n"
+            + "set-status,enrollment," + enrollment + ",lost\n"
+            + "search,students,hopp\n"
+            + "search,courses,prog,1\n"
+            + "grade," + student + ",x,50\n"
+            + "fly\n"
+            + "enroll,1\n"
+            + "stats\n"
+            + "analytics,department\n");
+
+        int added = student + 1;
+        assertEquals("ok\t" + added, lines.get(0));
+        assertEquals("error\t3\tUnknown course ID 999", lines.get(1));
+        int grade = service.grades().get(0).getGradeId();
+        assertEquals("ok\t" + grade + "\tA", lines.get(2));
+        assertEquals("ok", lines.get(3));
+        assertEquals("error\t6\tUnknown status lost", lines.get(4));
+        assertEquals("ok\t1\t" + added, lines.get(5));
+        assertEquals("ok\t1\t" + course, lines.get(6));
+        assertEquals("error\t9\tInvalid number in field 3: x", lines.get(7));
+        assertEquals("error\t10\tUnknown command fly", lines.get(8));
+        assertEquals("error\t11\tUsage: enroll,<studentId>,<courseId>,<description>", lines.get(9));
+        assertTrue(lines.get(10).startsWith("ok\tstudents=2\tcourses=1\tinstructors=0\tenrollments=1\tassignments=1\t"
+                                            + "grades=1\tenrollments.pending=0\tenrollments.approved=1\t"), lines.get(10));
+        assertTrue(lines.get(10).endsWith("\taverageScore=91.50"), lines.get(10));
+        assertEquals("ok\t1\tComputing=91.50", lines.get(11));
+        assertEquals(12, lines.size());
+        assertEquals(12, interpreter.getCommands());
+        assertEquals(5, interpreter.getFailures());
+        assertEquals("Hopper, R.", service.students().get(1).getLastName());
+        assertEquals(EnrollmentStatus.APPROVED, service.enrollments().get(0).getStatus());
+    }
+
+    @Test
+    void journalsChangesInBatches() throws IOException {
+        EducationService service = new EducationService();
+        service.openDataLog(directory, QUIET);
+        StringBuilder commands = new StringBuilder();
+        for (int i = 0; i < 25_000; i++) commands.append("add-student,First").append(i).append(",Last").append(i).append('\n');
+        StringWriter out = new StringWriter();
+        CommandInterpreter interpreter = new CommandInterpreter(service, out);
+        List<String> lines = run(interpreter, out, commands.toString());
+        assertEquals(25_000, lines.size());
+        assertEquals(0, interpreter.getFailures());
+        service.close();
+
+        EducationService reopened = new EducationService();
+        reopened.openDataLog(directory, QUIET);
+        assertEquals(25_000, reopened.students().size());
+        assertEquals("Last24999", reopened.students().get(24_999).getLastName());
+        reopened.close();
+    }
+
+    private static List<String> run(CommandInterpreter interpreter, StringWriter out, String commands)
+            throws IOException {
+        byte[] bytes = commands.getBytes(StandardCharsets.UTF_8);
+        try (CsvReader in = new CsvReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+            interpreter.run(in);
+        }
+        return out.toString().lines().toList();
+    }
+}
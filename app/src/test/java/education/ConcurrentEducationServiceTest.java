@@ -0,0 +1,124 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentEducationServiceTest {
+    private final EducationService data = new EducationService();
+    private final ConcurrentEducationService service = new ConcurrentEducationService(data);
+
+    @Test
+    void answersLookupsLikeTheService() {
+        int student = service.addStudent("Ada", "Lovelace", "ada@example.com", null);
+        int course = service.write(s -> s.addCourse("CS1", "Programming", "", 4, "Computing").getCourseId());
+        int enrollment = service.enroll(student, course, "First term");
+        int assignment = service.write(s -> s.createAssignment(enrollment, "Essay", null,
+                                                                LocalDateTime.of(2030, 1, 1, 12, 0)).getAssignmentId());
+        service.recordGrade(student, assignment, 80, null);
+        service.setEnrollmentStatus(enrollment, EnrollmentStatus.APPROVED);
+
+        assertEquals("Lovelace", service.lookup(EducationService::students, student, Student::getLastName));
+        assertNull(service.lookup(EducationService::students, -1, Student::getLastName));
+        assertEquals(EnrollmentStatus.APPROVED, service.getEnrollmentStatus(enrollment));
+        assertNull(service.getEnrollmentStatus(-1));
+        assertTrue(service.isEnrolled(student, course));
+        assertFalse(service.isEnrolled(student, course + 1));
+        assertEquals(1, service.countEnrollments(EnrollmentStatus.APPROVED));
+        assertEquals(0, service.countEnrollments(EnrollmentStatus.PENDING));
+        assertEquals(1, service.countCourseEnrollments(course, EnrollmentStatus.APPROVED));
+        assertEquals(80, service.getAverageScore(), 1e-9);
+        assertEquals(1, (int) service.read(s -> s.enrollments().size()));
+    }
+
+    @Test
+    void passesFailuresThrough() {
+        int student = service.addStudent("Ada", "Lovelace", null, null);
+        // Without a concurrent change the lookup's own failure is real
+        assertThrows(IllegalStateException.class, () -> service.lookup(EducationService::students, student, s -> {
+            throw new IllegalStateException("render failed");
+        }));
+        assertThrows(IllegalArgumentException.class, () -> service.enroll(student, 12345, null));
+        assertThrows(IllegalArgumentException.class, () -> service.setEnrollmentStatus(12345, EnrollmentStatus.APPROVED));
+        // The lock is released after a failed change
+        assertEquals(1, (int) service.write(s -> s.students().size()));
+    }
+
+    @Test
+    void readersNeverSeeHalfAppliedChanges() throws InterruptedException {
+        int students = 40;
+        int courses = 5;
+        int[] studentIds = new int[students];
+        for (int i = 0; i < students; i++) studentIds[i] = service.addStudent("First" + i, "Last" + i, null, null);
+        int[] courseIds = new int[courses];
+        for (int i = 0; i < courses; i++) {
+            int index = i;
+            courseIds[i] = service.write(s -> s.addCourse("C" + index, "Course " + index, "", 3, "Computing").getCourseId());
+        }
+
+        // Enrollment IDs in the order they were created; -1 until the writer publishes one
+        int total = students * courses;
+        AtomicIntegerArray published = new AtomicIntegerArray(total);
+        for (int i = 0; i < total; i++) published.set(i, -1);
+        AtomicBoolean done = new AtomicBoolean();
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < total; i++) {
+                    int id = service.enroll(studentIds[i / courses], courseIds[i % courses], "Term");
+                    published.set(i, id);
+                    if (i % 2 == 0) service.setEnrollmentStatus(id, EnrollmentStatus.APPROVED);
+                }
+            } finally {
+                done.set(true);
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(() -> {
+                while (!done.get()) {
+                    if (service.countEnrollments(EnrollmentStatus.REJECTED) != 0) problems.add("phantom rejection");
+                    boolean consistent = service.read(s -> {
+                        long sum = 0;
+                        for (EnrollmentStatus status : EnrollmentStatus.values()) {
+                            sum += s.enrollmentStatusIndex().count(status);
+                        }
+                        return sum == s.enrollments().size();
+                    });
+                    if (!consistent) problems.add("status index out of step under the read lock");
+                    for (int i = 0; i < total; i++) {
+                        int id = published.get(i);
+                        if (id < 0) break;
+                        if (service.getEnrollmentStatus(id) == null) problems.add("enrollment " + id + " vanished");
+                        if (!service.isEnrolled(studentIds[i / courses], courseIds[i % courses])) {
+                            problems.add("enrollment " + id + " not found by student and course");
+                        }
+                    }
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) reader.join();
+
+        assertEquals(List.of(), List.copyOf(problems));
+        assertEquals(total / 2, service.countEnrollments(EnrollmentStatus.APPROVED));
+        assertEquals(total - total / 2, service.countEnrollments(EnrollmentStatus.PENDING));
+        for (int course : courseIds) {
+            assertEquals(students / 2, service.countCourseEnrollments(course, EnrollmentStatus.APPROVED),
+                         "course " + course);
+        }
+    }
+}
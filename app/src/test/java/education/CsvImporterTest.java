@@ -0,0 +1,124 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvImporterTest {
+    @TempDir
+    Path directory;
+
+    private final EducationService service = new EducationService();
+    private final CsvImporter importer = new CsvImporter(service);
+
+    @Test
+    void importsQuotedFieldsAndMatchesHeadersLoosely() throws IOException {
+        ImportReport report = importer.importStudents(file("students.csv",
+            "Phone,first_name,Last Name,E-Mail\r\n"
+            + "555-0100,Ada,Lovelace,ada@example.com\r\n"
+            + "\"555-0101\",\"Grace, B.\",\"Hopper \"\"Amazing\"\"\",\r\n"
+            + "555-0102,,Nobody,nobody@example.com\r\n"
+            + "555-0103,Bad,Email,not-an-email\r\n"));
+        assertEquals(4, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of("line 4: first and last name are required", "line 5: invalid email: not-an-email"),
+                     report.getRejections());
+        Student grace = service.students().get(1);
+        assertEquals("Grace, B.", grace.getFirstName());
+        assertEquals("Hopper \"Amazing\"", grace.getLastName());
+        assertEquals("555-0101", grace.getPhone());
+        assertEquals(1, service.findStudents("lovelace", 10).getTotalMatches());
+    }
+
+    @Test
+    void rejectsBadCourses() throws IOException {
+        service.addCourse("CS1", "Existing", "", 3, "Computing");
+        ImportReport report = importer.importCourses(file("courses.csv",
+            "courseCode,courseName,credits,department\n"
+            + "CS2,Algorithms,4,Computing\n"
+            + "CS1,Duplicate,3,Computing\n"
+            + "CS3,Negative,-1,Computing\n"
+            + "CS4,Words,four,Computing\n"
+            + "CS2,Again,2,Computing\n"));
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals("line 3: duplicate course code CS1", report.getRejections().get(0));
+        assertEquals("line 4: credits must not be negative", report.getRejections().get(1));
+        assertTrue(report.getRejections().get(2).startsWith("line 5: invalid number"), report.getRejections().get(2));
+        assertEquals("line 6: duplicate course code CS2", report.getRejections().get(3));
+        assertEquals(1, service.findCourses("algo", 10).getTotalMatches());
+    }
+
+    @Test
+    void rejectsEnrollmentsWithUnknownKeys() throws IOException {
+        int student = service.addStudent("Ada", "Lovelace", null, null).getStudentId();
+        int course = service.addCourse("CS1", "Programming", "", 3, "Computing").getCourseId();
+        int other = service.addCourse("CS2", "Algorithms", "", 3, "Computing").getCourseId();
+        ImportReport report = importer.importEnrollments(file("enrollments.csv",
+            "studentId,courseId,description,status\n"
+            + student + "," + course + ",First,approved\n"
+            + "999999," + course + ",,\n"
+            + student + ",999999,,\n"
+            + student + "," + course + ",Again,\n"
+            + student + "," + other + ",,LOST\n"
+            + student + "," + other + ",Second,\n"));
+        assertEquals(2, report.getImported());
+        assertEquals(List.of("line 3: unknown student ID 999999", "line 4: unknown course ID 999999",
+                             "line 5: student " + student + " is already enrolled in course " + course,
+                             "line 6: invalid status LOST"),
+                     report.getRejections());
+        assertEquals(1, service.enrollmentStatusIndex().count(EnrollmentStatus.APPROVED));
+        assertEquals(1, service.enrollmentStatusIndex().count(EnrollmentStatus.PENDING));
+        assertTrue(service.isEnrolled(student, other));
+    }
+
+    @Test
+    void keepsTheFirstRejectionsOnly() throws IOException {
+        StringBuilder csv = new StringBuilder("firstName,lastName\n");
+        for (int i = 0; i < 50; i++) csv.append(",\n");
+        ImportReport report = importer.importStudents(file("blank.csv", csv.toString()));
+        assertEquals(50, report.getRejected());
+        assertEquals(20, report.getRejections().size());
+    }
+
+    @Test
+    void failsOnMissingColumnsOrEmptyFiles() throws IOException {
+        Path missing = file("missing.csv", "firstName,email\nAda,ada@example.com\n");
+        assertThrows(IOException.class, () -> importer.importStudents(missing));
+        Path empty = file("empty.csv", "");
+        assertThrows(IOException.class, () -> importer.importStudents(empty));
+        assertEquals(0, service.students().size());
+    }
+
+    @Test
+    void journalsImportedRows() throws IOException {
+        PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+        Path data = directory.resolve("data");
+        service.openDataLog(data, quiet);
+        StringBuilder csv = new StringBuilder("firstName,lastName,email\n");
+        for (int i = 0; i < 25_000; i++) csv.append("First").append(i).append(",Last").append(i).append(",s").append(i).append("@example.com\n");
+        assertEquals(25_000, importer.importStudents(file("many.csv", csv.toString())).getImported());
+        service.close();
+
+        EducationService restored = new EducationService();
+        restored.openDataLog(data, quiet);
+        assertEquals(25_000, restored.students().size());
+        assertEquals("s24999@example.com", restored.students().get(24_999).getEmail());
+        restored.close();
+    }
+
+    private Path file(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
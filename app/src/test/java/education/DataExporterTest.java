@@ -0,0 +1,144 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DataExporterTest {
+    private static final PrintStream QUIET = new PrintStream(OutputStream.nullOutputStream());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void quotesCsvFieldsOnlyWhenNeeded() throws IOException {
+        String csv = write(false, out -> {
+            out.value("plain, with enough text to run past the buffer").value("a,b").value("say \"hi\"")
+               .value("two\nlines").endRecord();
+            out.value((String) null).value(-42).value(LocalDateTime.of(2024, 3, 7, 9, 5, 1)).value("é€😀").endRecord();
+        });
+        assertEquals("a,b,c,d\n"
+                     + "\"plain, with enough text to run past the buffer\",\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\"\n"
+                     + ",-42,2024-03-07 09:05:01,é€😀\n", csv);
+    }
+
+    @Test
+    void escapesJsonLines() throws IOException {
+        String json = write(true, out -> {
+            out.value("q\"b\\").value("t\tn\nc\u0001").value(Long.MIN_VALUE).value((LocalDateTime) null).endRecord();
+            out.value("\ud83d").value(0).value(LocalDateTime.of(1999, 12, 31, 23, 59, 59)).value(Double.NaN).endRecord();
+        });
+        assertEquals("{\"a\":\"q\\\"b\\\\\",\"b\":\"t\\tn\\nc\\u0001\",\"c\":-9223372036854775808,\"d\":null}\n"
+                     + "{\"a\":\"?\",\"b\":0,\"c\":\"1999-12-31 23:59:59\",\"d\":null}\n", json);
+    }
+
+    @Test
+    void exportsEveryEntityType() throws IOException {
+        EducationService service = new EducationService();
+        populate(service);
+        Map<String, Long> counts = new DataExporter(service).exportAll(directory, false);
+        assertEquals(List.of("students", "courses", "instructors", "enrollments", "assignments", "grades"),
+                     List.copyOf(counts.keySet()));
+        assertEquals(service.students().size(), counts.get("students"));
+        assertEquals(service.courses().size(), counts.get("courses"));
+        assertEquals(service.instructors().size(), counts.get("instructors"));
+        assertEquals(service.enrollments().size(), counts.get("enrollments"));
+        assertEquals(service.assignments().size(), counts.get("assignments"));
+        assertEquals(service.grades().size(), counts.get("grades"));
+
+        List<String> students = Files.readAllLines(directory.resolve("students.csv"));
+        assertEquals(String.join(",", DataExporter.STUDENTS.getColumns()), students.get(0));
+        assertEquals(service.students().size() + 1, students.size());
+        Student first = service.students().get(0);
+        assertTrue(students.get(1).startsWith(first.getStudentId() + "," + first.getStudentNumber()
+                                              + ",First0,\"Last, 0\",student0@example.com,"), students.get(1));
+
+        List<String> enrollments = Files.readAllLines(directory.resolve("enrollments.csv"));
+        Enrollment enrollment = service.enrollments().get(0);
+        assertTrue(enrollment.getReferenceId().matches("ENR\\d{4,}"), enrollment.getReferenceId());
+        assertTrue(enrollments.get(1).startsWith(enrollment.getEnrollmentId() + "," + enrollment.getReferenceId() + ","),
+                   enrollments.get(1));
+
+        Map<String, Long> jsonCounts = new DataExporter(service).exportAll(directory, true);
+        assertEquals(counts, jsonCounts);
+        List<String> grades = Files.readAllLines(directory.resolve("grades.jsonl"));
+        assertEquals(service.grades().size(), grades.size());
+        assertTrue(grades.get(0).startsWith("{\"gradeId\":" + service.grades().get(0).getGradeId() + ","), grades.get(0));
+        List<String> instructors = Files.readAllLines(directory.resolve("instructors.jsonl"));
+        assertTrue(instructors.get(0).endsWith(",\"assignedCourseId\":-1}"), instructors.get(0));
+    }
+
+    @Test
+    void exportAfterRestoreLeavesRowsUnbuilt() throws IOException {
+        EducationService service = new EducationService();
+        service.openDataLog(directory, QUIET);
+        populate(service);
+        service.getJournal().checkpoint();
+        service.close();
+
+        EducationService restored = new EducationService();
+        restored.openDataLog(directory, QUIET);
+        Map<String, Long> counts = new DataExporter(restored).exportAll(directory.resolve("export"), true);
+        assertEquals(20L, counts.get("students"));
+        assertUnbuilt(restored.students());
+        assertUnbuilt(restored.courses());
+        assertUnbuilt(restored.instructors());
+        assertUnbuilt(restored.assignments());
+        restored.close();
+    }
+
+    private interface Rows {
+        void write(ExportWriter out) throws IOException;
+    }
+
+    // A small buffer makes long records flush part way through
+    private static String write(boolean json, Rows rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ExportWriter out = new ExportWriter(Channels.newChannel(bytes), 64, json, "a", "b", "c", "d")) {
+            rows.write(out);
+            assertEquals(2, out.getRecords());
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void populate(EducationService service) {
+        LocalDateTime due = LocalDateTime.of(2030, 5, 1, 23, 59);
+        for (int i = 0; i < 20; i++) {
+            service.addStudent("First" + i, "Last, " + i, "student" + i + "@example.com", null);
+        }
+        for (int i = 0; i < 4; i++) {
+            service.addCourse("PROG" + i, "Programming " + i, "Says \"hello\"", 1 + i, "Computing");
+        }
+        int score = 0;
+        for (Student student : service.students().asList()) {
+            for (Course course : service.courses().asList()) {
+                if ((student.getStudentId() + course.getCourseId()) % 2 != 0) continue;
+                Enrollment enrollment = service.enroll(student.getStudentId(), course.getCourseId(), "Term");
+                Assignment assignment = service.createAssignment(enrollment.getEnrollmentId(), "Essay", null, due);
+                service.recordGrade(student.getStudentId(), assignment.getAssignmentId(), 40 + score++ % 60, "Line\nbreak");
+            }
+        }
+        service.instructors().add(new Instructor("Grace Hopper", "555-0199", "grace@example.com", "Compilers"));
+    }
+
+    private static void assertUnbuilt(Repository<?> repository) {
+        assertTrue(repository.size() > 0);
+        for (int row = 0; row < repository.size(); row++) {
+            assertFalse(repository.isMaterialized(row), "row " + row);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DueDateWheelTest {
+    private static final long START = 1_700_000_000L;
+
+    @Test
+    void firesEachEntryAtItsSecondAcrossLevels() {
+        DueDateWheel wheel = new DueDateWheel(START);
+        long[] offsets = { 0, 1, 255, 256, 257, 65_535, 65_536, 1 << 24, (1L << 24) + 3, 1L << 32, (1L << 32) + 1, 1L << 40 };
+        for (int i = 0; i < offsets.length; i++) wheel.schedule(i, START + offsets[i]);
+        assertEquals(offsets.length, wheel.size());
+
+        List<Integer> fired = new ArrayList<>();
+        wheel.advance(START, fired::add);
+        assertEquals(List.of(0), fired);
+        for (int i = 1; i < offsets.length; i++) {
+            fired.clear();
+            wheel.advance(START + offsets[i] - 1, fired::add);
+            assertEquals(List.of(), fired, "before entry " + i);
+            wheel.advance(START + offsets[i], fired::add);
+            assertEquals(List.of(i), fired, "at entry " + i);
+        }
+        assertEquals(Long.MAX_VALUE, wheel.nextDeadline());
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomSchedulingAndJumps() {
+        Random random = new Random(25);
+        DueDateWheel wheel = new DueDateWheel(START);
+        Map<Integer, Long> pending = new HashMap<>();
+        long now = START;
+        int nextId = 0;
+        for (int step = 0; step < 5_000; step++) {
+            if (random.nextInt(3) > 0) {
+                long second = now - 5 + (long) Math.pow(2, random.nextDouble() * 34);
+                wheel.schedule(nextId, second);
+                pending.put(nextId++, second);
+            }
+            long deadline = wheel.nextDeadline();
+            long earliest = pending.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE);
+            assertTrue(deadline <= Math.max(earliest, now), "deadline " + deadline + " past " + earliest);
+
+            long target = random.nextBoolean() ? Math.min(deadline, now + 1_000_000) : now + (long) Math.pow(2, random.nextDouble() * 30);
+            target = Math.max(target, now);
+            long until = target;
+            wheel.advance(target, id -> {
+                Long second = pending.remove(id);
+                assertTrue(second != null && second <= until, "fired " + id + " early");
+            });
+            now = target;
+            for (long second : pending.values()) assertTrue(second > now, "missed " + second + " at " + now);
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void expiresRescheduledAssignmentsAtTheirNewDueDate() {
+        EducationService service = new EducationService();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Student student = service.addStudent("Ada", "Lovelace", "ada@example.com", "555-0100");
+        Course course = service.addCourse("CS101", "Programming", "", 3, "CS");
+        Enrollment enrollment = service.enroll(student.getStudentId(), course.getCourseId(), "");
+        Assignment early = service.createAssignment(enrollment.getEnrollmentId(), "Early", "", now.plusHours(1));
+        Assignment moved = service.createAssignment(enrollment.getEnrollmentId(), "Moved", "", now.plusHours(1));
+        Assignment reopened = service.createAssignment(enrollment.getEnrollmentId(), "Reopened", "", now.plusDays(3));
+
+        moved.setDueDate(now.plusDays(2));
+        service.setAssignmentStatus(reopened.getAssignmentId(), AssignmentStatus.SUBMITTED);
+        assertEquals(1, service.expireOverdue(now.plusHours(2)));
+        assertEquals(AssignmentStatus.OVERDUE, early.getStatus());
+        assertEquals(AssignmentStatus.PENDING, moved.getStatus());
+
+        service.setAssignmentStatus(reopened.getAssignmentId(), AssignmentStatus.PENDING);
+        assertEquals(0, service.expireOverdue(now.plusDays(2)));
+        assertEquals(1, service.expireOverdue(now.plusDays(2).plusSeconds(1)));
+        assertEquals(AssignmentStatus.OVERDUE, moved.getStatus());
+        assertEquals(1, service.expireOverdue(now.plusDays(4)));
+        assertEquals(AssignmentStatus.OVERDUE, reopened.getStatus());
+        assertEquals(3, service.assignmentStatusIndex().count(AssignmentStatus.OVERDUE));
+    }
+}
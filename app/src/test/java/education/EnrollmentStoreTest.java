@@ -0,0 +1,94 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EnrollmentStoreTest {
+    private final EnrollmentStore store = new EnrollmentStore();
+
+    @Test
+    void keepsEnrollmentsInRecords() {
+        List<String> changes = new ArrayList<>();
+        store.addListener(new EntityListener<>() {
+            @Override
+            public void inserted(Enrollment enrollment) {
+                changes.add("inserted " + enrollment.getDescription());
+            }
+
+            @Override
+            public void updated(Enrollment enrollment, String field, Object oldValue, Object newValue) {
+                changes.add(field + " " + oldValue + " -> " + newValue);
+            }
+        });
+        Enrollment first = new Enrollment(7, 8, "Evening class");
+        Enrollment second = new Enrollment(9, 10, null);
+        store.add(first);
+        store.add(second);
+        first.setStatus(EnrollmentStatus.APPROVED);
+        second.setRemarks(null);
+        second.setDescription("Late entry, é");
+
+        Enrollment found = store.findById(first.getEnrollmentId());
+        assertEquals(7, found.getStudentId());
+        assertEquals(8, found.getCourseId());
+        assertEquals("Evening class", found.getDescription());
+        assertEquals(EnrollmentStatus.APPROVED, found.getStatus());
+        assertEquals("Awaiting approval", found.getRemarks());
+        assertEquals(1, store.positionOf(second.getEnrollmentId()));
+        assertEquals("Late entry, é", store.descriptionAt(1));
+        assertNull(store.remarksAt(1));
+        assertNull(store.findById(-1));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Enrollment(first.getEnrollmentId(), 1, 1,
+            null, null, EnrollmentStatus.PENDING, null)));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2));
+        assertEquals(List.of("inserted Evening class", "inserted null", "status PENDING -> APPROVED",
+                             "remarks Awaiting approval -> null", "description null -> Late entry, é"), changes);
+    }
+
+    @Test
+    void reclaimsReplacedStrings() {
+        int rows = 1000;
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Enrollment enrollment = new Enrollment(i, i % 50, i % 10 == 0 ? "Shared" : null);
+            store.add(enrollment);
+            enrollments.add(enrollment);
+        }
+        String[] descriptions = new String[rows];
+        String[] remarks = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            descriptions[i] = i % 10 == 0 ? "Shared" : null;
+            remarks[i] = "Awaiting approval";
+        }
+        long initial = store.offHeapBytes();
+        long peak = initial;
+        String padding = "x".repeat(40);
+        for (int update = 0; update < 200_000; update++) {
+            int row = (update * 7) % rows;
+            // Distinct values, so the recent-value cache does not absorb them
+            String value = update % 9 == 0 ? null : padding + update;
+            if (update % 2 == 0) {
+                enrollments.get(row).setDescription(value);
+                descriptions[row] = value;
+            } else {
+                enrollments.get(row).setRemarks(value);
+                remarks[row] = value;
+            }
+            peak = Math.max(peak, store.offHeapBytes());
+        }
+        // Without compaction the values alone would take more than 10 MiB
+        assertTrue(peak - initial <= 3 << 20, "string area grew by " + (peak - initial));
+        for (int i = 0; i < rows; i++) {
+            Enrollment enrollment = store.get(i);
+            assertEquals(descriptions[i], enrollment.getDescription(), "row " + i);
+            assertEquals(remarks[i], enrollment.getRemarks(), "row " + i);
+            assertEquals(i % 50, enrollment.getCourseId());
+        }
+    }
+}
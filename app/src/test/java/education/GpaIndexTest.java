@@ -0,0 +1,155 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GpaIndexTest {
+    private final EducationService service = new EducationService();
+    private final List<Student> students = new ArrayList<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final Map<Long, Integer> enrollments = new HashMap<>();
+    // Grade ID -> course ID of every grade that counts
+    private final Map<Integer, Integer> gradeCourses = new HashMap<>();
+
+    @Test
+    void weighsLettersByCredits() {
+        addStudents(1);
+        addCourse(4);
+        addCourse(1);
+        grade(0, 0, 95);
+        grade(0, 1, 55);
+        assertEquals(16.0 / 5, service.gpaIndex().gpaOf(students.get(0).getStudentId()), 1e-9);
+
+        // Two grades in one course count as their mean
+        grade(0, 1, 85);
+        assertEquals(18.0 / 5, service.gpaIndex().gpaOf(students.get(0).getStudentId()), 1e-9);
+    }
+
+    @Test
+    void reranksAfterCreditChanges() {
+        addStudents(3);
+        addCourse(3);
+        addCourse(1);
+        grade(0, 0, 95);
+        grade(0, 1, 50);
+        grade(1, 0, 50);
+        grade(1, 1, 95);
+        grade(2, 0, 80);
+        assertRanks();
+        assertEquals(1, service.gpaIndex().rankOf(students.get(0).getStudentId()));
+
+        service.updateCourse(courses.get(0).getCourseId(), null, null, 1, null);
+        service.updateCourse(courses.get(1).getCourseId(), null, null, 4, null);
+        assertRanks();
+        assertEquals(1, service.gpaIndex().rankOf(students.get(1).getStudentId()));
+
+        // Without credits nobody is ranked
+        service.updateCourse(courses.get(0).getCourseId(), null, null, 0, null);
+        service.updateCourse(courses.get(1).getCourseId(), null, null, 0, null);
+        assertRanks();
+        assertEquals(0, service.gpaIndex().getRankedCount());
+    }
+
+    @Test
+    void ignoresScoreChangesOfGradesLeftOut() {
+        addStudents(1);
+        addCourse(3);
+        Grade counted = grade(0, 0, 95);
+        int studentId = students.get(0).getStudentId();
+        int enrollmentId = enrollments.values().iterator().next();
+        // A grade for an assignment that does not exist yet is left out of the GPA
+        int futureId = Assignment.getNextId();
+        Grade skipped = new Grade(studentId, futureId, 40, "");
+        service.grades().add(skipped);
+        assertEquals(futureId, service.createAssignment(enrollmentId, "Late", "", LocalDateTime.now()).getAssignmentId());
+
+        service.updateGrade(skipped.getGradeId(), 10.0, null);
+        assertEquals(4.0, service.gpaIndex().gpaOf(studentId), 1e-9);
+        assertEquals(95.0, service.gpaIndex().transcriptOf(studentId).getCourses().get(0).getAverageScore(), 1e-9);
+
+        service.updateGrade(counted.getGradeId(), 85.0, null);
+        assertEquals(3.0, service.gpaIndex().gpaOf(studentId), 1e-9);
+        assertRanks();
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomGradesAndCredits() {
+        Random random = new Random(23);
+        addStudents(40);
+        for (int i = 0; i < 6; i++) addCourse(random.nextInt(5));
+        for (int step = 0; step < 600; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                int course = random.nextInt(courses.size());
+                service.updateCourse(courses.get(course).getCourseId(), null, null, random.nextInt(6), null);
+            } else if (action < 3 && !gradeCourses.isEmpty()) {
+                int gradeId = new ArrayList<>(gradeCourses.keySet()).get(random.nextInt(gradeCourses.size()));
+                service.updateGrade(gradeId, 40.0 + random.nextInt(61), null);
+            } else {
+                grade(random.nextInt(students.size()), random.nextInt(courses.size()), 40 + random.nextInt(61));
+            }
+            if (step % 20 == 0) assertRanks();
+        }
+        assertRanks();
+    }
+
+    private void addStudents(int count) {
+        for (int i = 0; i < count; i++) {
+            students.add(service.addStudent("Student", "No" + i, "student" + i + "@example.com", "555-0100"));
+        }
+    }
+
+    private void addCourse(int credits) {
+        courses.add(service.addCourse("C" + courses.size(), "Course " + courses.size(), "", credits, "Dept"));
+    }
+
+    private Grade grade(int student, int course, double score) {
+        int studentId = students.get(student).getStudentId();
+        int courseId = courses.get(course).getCourseId();
+        int enrollmentId = enrollments.computeIfAbsent((long) studentId << 32 | courseId,
+                                                       k -> service.enroll(studentId, courseId, "").getEnrollmentId());
+        Assignment assignment = service.createAssignment(enrollmentId, "Work", "", LocalDateTime.now().plusDays(7));
+        Grade grade = service.recordGrade(studentId, assignment.getAssignmentId(), score, "");
+        gradeCourses.put(grade.getGradeId(), courseId);
+        return grade;
+    }
+
+    private void assertRanks() {
+        // Student ID -> course ID -> scores
+        Map<Integer, Map<Integer, List<Double>>> scores = new HashMap<>();
+        gradeCourses.forEach((gradeId, courseId) -> {
+            Grade grade = service.grades().findById(gradeId);
+            scores.computeIfAbsent(grade.getStudentId(), k -> new HashMap<>())
+                  .computeIfAbsent(courseId, k -> new ArrayList<>()).add(grade.getScore());
+        });
+        Map<Integer, Long> steps = new HashMap<>();
+        for (Student student : students) {
+            int id = student.getStudentId();
+            int points = 0;
+            int credits = 0;
+            for (Map.Entry<Integer, List<Double>> course : scores.getOrDefault(id, Map.of()).entrySet()) {
+                double mean = course.getValue().stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+                int courseCredits = service.courses().findById(course.getKey()).getCredits();
+                points += (4 - Grade.letterCode(mean)) * courseCredits;
+                credits += courseCredits;
+            }
+            double gpa = credits == 0 ? 0.0 : (double) points / credits;
+            assertEquals(gpa, service.gpaIndex().gpaOf(id), 1e-9, "GPA of " + id);
+            if (credits > 0) steps.put(id, Math.round(gpa * 100));
+        }
+        assertEquals(steps.size(), service.gpaIndex().getRankedCount());
+        for (Student student : students) {
+            int id = student.getStudentId();
+            Long step = steps.get(id);
+            int rank = step == null ? 0 : 1 + (int) steps.values().stream().filter(other -> other > step).count();
+            assertEquals(rank, service.gpaIndex().rankOf(id), "rank of " + id);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class GradeAnalyticsTest {
+    private final EducationService service = new EducationService();
+
+    @Test
+    void matchesBruteForceForEveryGrouping() {
+        new DatasetGenerator(7, 1500, 25).fill(service);
+        List<Course> courses = service.courses().asList();
+        for (int i = 0; i < 6; i++) {
+            Instructor instructor = new Instructor("Instructor " + i, "555-01" + i, "i" + i + "@example.com", "Teaching");
+            // Two instructors share a course, and one has none
+            if (i < 5) instructor.setAssignedCourseId(courses.get(i == 4 ? 0 : i * 3).getCourseId());
+            service.instructors().add(instructor);
+        }
+        assertTrue(service.grades().size() > 1000, "only " + service.grades().size() + " grades");
+        assertMatches();
+
+        // Rows added after a query are resolved by the next one
+        Enrollment enrollment = service.enrollments().get(service.enrollments().size() - 1);
+        Assignment assignment = service.createAssignment(enrollment.getEnrollmentId(), "Extra", null,
+                                                         LocalDateTime.of(2030, 1, 1, 12, 0));
+        service.recordGrade(enrollment.getStudentId(), assignment.getAssignmentId(), 12.5, null);
+        assertMatches();
+    }
+
+    @Test
+    void countsGradesOfUnknownAssignmentsUntilTheyAppear() {
+        int course = service.addCourse("CS1", "Programming", "", 4, "Computing").getCourseId();
+        int student = service.addStudent("Ada", "Lovelace", null, null).getStudentId();
+        int enrollment = service.enroll(student, course, null).getEnrollmentId();
+        Assignment first = service.createAssignment(enrollment, "Essay", null, LocalDateTime.of(2030, 1, 1, 12, 0));
+        service.recordGrade(student, first.getAssignmentId(), 80, null);
+        // Restored data can hold a grade whose assignment is recorded later
+        service.grades().add(new Grade(student, Assignment.getNextId(), 40, null));
+
+        GradeAnalytics.Report report = service.analyzeScores(GradeAnalytics.GroupBy.COURSE);
+        assertEquals(2, report.getGrades());
+        assertEquals(1, report.getUnmatched());
+        assertEquals(1, report.getGroups().get(0).getGrades());
+
+        service.createAssignment(enrollment, "Late", null, LocalDateTime.of(2030, 2, 1, 12, 0));
+        report = service.analyzeScores(GradeAnalytics.GroupBy.DEPARTMENT);
+        assertEquals(0, report.getUnmatched());
+        GradeAnalytics.GroupAverage computing = report.getGroups().get(0);
+        assertEquals("Computing", computing.getName());
+        assertEquals(0, computing.getId());
+        assertEquals(2, computing.getGrades());
+        assertEquals(60, computing.getAverageScore(), 1e-9);
+        assertEquals(40, computing.getMinimum());
+        assertEquals(80, computing.getMaximum());
+        assertEquals(1, report.getThreads());
+    }
+
+    @Test
+    void parsesGroupings() {
+        assertEquals(GradeAnalytics.GroupBy.INSTRUCTOR, GradeAnalytics.GroupBy.parse(" Instructor "));
+        assertThrows(IllegalArgumentException.class, () -> GradeAnalytics.GroupBy.parse("student"));
+    }
+
+    private void assertMatches() {
+        // Per course position: grades, sum, minimum, maximum
+        Map<Integer, double[]> byCourse = new HashMap<>();
+        long unmatched = 0;
+        for (Grade grade : service.grades().asList()) {
+            Assignment assignment = service.assignments().findById(grade.getAssignmentId());
+            Enrollment enrollment = assignment == null ? null : service.enrollments().findById(assignment.getEnrollmentId());
+            if (enrollment == null) {
+                unmatched++;
+                continue;
+            }
+            double[] group = byCourse.computeIfAbsent(enrollment.getCourseId(),
+                id -> new double[] { 0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY });
+            add(group, grade.getScore());
+        }
+
+        Map<String, double[]> courses = new TreeMap<>();
+        Map<String, double[]> departments = new TreeMap<>();
+        Map<String, double[]> instructors = new TreeMap<>();
+        for (Map.Entry<Integer, double[]> entry : byCourse.entrySet()) {
+            Course course = service.courses().findById(entry.getKey());
+            courses.put(course.getCourseId() + " " + course.getCourseCode() + " " + course.getCourseName(), entry.getValue());
+            merge(departments, "0 " + Objects.requireNonNullElse(course.getDepartment(), ""), entry.getValue());
+        }
+        for (Instructor instructor : service.instructors().asList()) {
+            double[] group = byCourse.get(instructor.getAssignedCourseId());
+            if (group != null) instructors.put(instructor.getInstructorId() + " " + instructor.getName(), group);
+        }
+        assertReport(courses, unmatched, GradeAnalytics.GroupBy.COURSE);
+        assertReport(departments, unmatched, GradeAnalytics.GroupBy.DEPARTMENT);
+        assertReport(instructors, unmatched, GradeAnalytics.GroupBy.INSTRUCTOR);
+    }
+
+    private void assertReport(Map<String, double[]> expected, long unmatched, GradeAnalytics.GroupBy groupBy) {
+        GradeAnalytics.Report report = service.analyzeScores(groupBy);
+        assertEquals(groupBy, report.getGroupBy());
+        assertEquals(service.grades().size(), report.getGrades());
+        assertEquals(unmatched, report.getUnmatched());
+        Map<String, double[]> actual = new TreeMap<>();
+        List<Double> averages = new ArrayList<>();
+        for (GradeAnalytics.GroupAverage group : report.getGroups()) {
+            actual.put(group.getId() + " " + group.getName(), new double[] {
+                group.getGrades(), group.getAverageScore() * group.getGrades(), group.getMinimum(), group.getMaximum() });
+            averages.add(group.getAverageScore());
+        }
+        assertEquals(expected.keySet(), actual.keySet(), groupBy.name());
+        for (Map.Entry<String, double[]> entry : expected.entrySet()) {
+            double[] want = entry.getValue();
+            double[] got = actual.get(entry.getKey());
+            assertEquals(want[0], got[0], entry.getKey());
+            assertEquals(want[1], got[1], 1e-6 * Math.max(1, want[1]), entry.getKey());
+            assertEquals(want[2], got[2], entry.getKey());
+            assertEquals(want[3], got[3], entry.getKey());
+        }
+        // Highest average first
+        for (int i = 1; i < averages.size(); i++) assertTrue(averages.get(i - 1) >= averages.get(i), groupBy.name());
+    }
+
+    private static void add(double[] group, double score) {
+        group[0]++;
+        group[1] += score;
+        group[2] = Math.min(group[2], score);
+        group[3] = Math.max(group[3], score);
+    }
+
+    private static void merge(Map<String, double[]> groups, String key, double[] values) {
+        double[] group = groups.computeIfAbsent(key,
+            k -> new double[] { 0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY });
+        group[0] += values[0];
+        group[1] += values[1];
+        group[2] = Math.min(group[2], values[2]);
+        group[3] = Math.max(group[3], values[3]);
+    }
+}
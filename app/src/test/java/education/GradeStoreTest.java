@@ -0,0 +1,90 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GradeStoreTest {
+    private final GradeStore store = new GradeStore();
+
+    @Test
+    void keepsGradesInColumns() {
+        double[] scores = { 95, 89.99, 80, 70, 60, 59.99, 0, 100 };
+        List<Grade> added = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            Grade grade = new Grade(100 + i, 200 + i, scores[i], i % 2 == 0 ? "Good" : null);
+            store.add(grade);
+            added.add(grade);
+        }
+        assertEquals(scores.length, store.size());
+        String[] letters = { "A", "B", "B", "C", "D", "F", "F", "A" };
+        for (int i = 0; i < scores.length; i++) {
+            Grade grade = store.findById(added.get(i).getGradeId());
+            assertEquals(100 + i, grade.getStudentId());
+            assertEquals(200 + i, grade.getAssignmentId());
+            assertEquals(scores[i], grade.getScore());
+            assertEquals(letters[i], grade.getGrade());
+            assertEquals(i % 2 == 0 ? "Good" : null, grade.getComments());
+            assertEquals(i, store.positionOf(grade.getGradeId()));
+        }
+        assertArrayEquals(new long[] { 2, 2, 1, 1, 2 }, store.letterHistogram());
+        assertEquals(554.98, store.scoreSum(), 1e-9);
+        assertNull(store.findById(-5));
+        assertThrows(IllegalArgumentException.class, () -> store.addRow(added.get(0).getGradeId(), 1, 1, 50, null, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(scores.length));
+    }
+
+    @Test
+    void reportsScoreAndCommentChanges() {
+        List<String> changes = new ArrayList<>();
+        store.addListener(new EntityListener<>() {
+            @Override
+            public void inserted(Grade grade) {
+                changes.add("inserted " + grade.getScore());
+            }
+
+            @Override
+            public void updated(Grade grade, String field, Object oldValue, Object newValue) {
+                changes.add(field + " " + oldValue + " -> " + newValue);
+            }
+        });
+        Grade grade = new Grade(1, 1, 91, "Fine");
+        store.add(grade);
+        grade.setScore(42);
+        grade.setComments("Redo");
+        assertEquals(List.of("inserted 91.0", "score 91.0 -> 42.0", "comments Fine -> Redo"), changes);
+        assertEquals("F", store.findById(grade.getGradeId()).getGrade());
+        assertArrayEquals(new long[] { 0, 0, 0, 0, 1 }, store.letterHistogram());
+    }
+
+    @Test
+    void reclaimsReplacedComments() {
+        int rows = 500;
+        List<Grade> grades = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Grade grade = new Grade(i, i, 75, i % 10 == 0 ? "Shared" : null);
+            store.add(grade);
+            grades.add(grade);
+        }
+        String[] expected = new String[rows];
+        for (int i = 0; i < rows; i++) expected[i] = i % 10 == 0 ? "Shared" : null;
+        int peak = 0;
+        for (int update = 0; update < 300_000; update++) {
+            int row = (update * 7) % rows;
+            // Shared comments stay on the rows that were not changed
+            if (row % 10 == 0) continue;
+            String comment = update % 5 == 0 ? null : "Comment " + update;
+            grades.get(row).setComments(comment);
+            expected[row] = comment;
+            peak = Math.max(peak, store.commentPoolSize());
+        }
+        assertTrue(peak <= (1 << 16) + 2 * rows + 2, "pool peaked at " + peak);
+        for (int i = 0; i < rows; i++) assertEquals(expected[i], store.commentsAt(i), "row " + i);
+    }
+}
@@ -0,0 +1,86 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class IdBitmapTest {
+    @Test
+    void matchesASetAcrossContainerConversions() {
+        Random random = new Random(15);
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        // Dense groups grow past the array limit and shrink back; sparse ones stay arrays
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 30_000; i++) {
+                int id = random.nextInt(3) == 0 ? random.nextInt(1 << 24) : random.nextInt(3 << 16);
+                assertEquals(expected.add(id), bitmap.add(id), "add " + id);
+            }
+            for (int i = 0; i < 25_000; i++) {
+                int id = random.nextInt(3 << 16);
+                assertEquals(expected.remove(id), bitmap.remove(id), "remove " + id);
+            }
+            assertEquals(expected.size(), bitmap.cardinality());
+            assertArrayEquals(toArray(expected), bitmap.toList().toArray());
+        }
+        for (int id = 0; id < 3 << 16; id++) {
+            assertEquals(expected.contains(id), bitmap.contains(id), "contains " + id);
+        }
+        for (int id : new TreeSet<>(expected)) bitmap.remove(id);
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.toList().size());
+    }
+
+    @Test
+    void intersectsLikeASet() {
+        Random random = new Random(16);
+        for (int[] sizes : new int[][] { { 100, 100 }, { 100, 20_000 }, { 20_000, 30_000 }, { 0, 5_000 } }) {
+            TreeSet<Integer> left = randomSet(random, sizes[0]);
+            TreeSet<Integer> right = randomSet(random, sizes[1]);
+            IdBitmap leftBitmap = IdBitmap.of(toList(left));
+            IdBitmap rightBitmap = IdBitmap.of(toList(right));
+            TreeSet<Integer> both = new TreeSet<>(left);
+            both.retainAll(right);
+
+            assertEquals(both.size(), leftBitmap.andCardinality(rightBitmap));
+            assertEquals(both.size(), rightBitmap.andCardinality(leftBitmap));
+            IdBitmap and = leftBitmap.and(rightBitmap);
+            assertEquals(both.size(), and.cardinality());
+            assertArrayEquals(toArray(both), and.toList().toArray());
+        }
+    }
+
+    @Test
+    void pagesFromAnyIdLikeASet() {
+        Random random = new Random(18);
+        TreeSet<Integer> expected = randomSet(random, 12_000);
+        for (int id = 3 << 16; id < (3 << 16) + 9_000; id++) expected.add(id);
+        IdBitmap bitmap = IdBitmap.of(toList(expected));
+        for (int i = 0; i < 2_000; i++) {
+            int after = i == 0 ? -1 : i == 1 ? Integer.MAX_VALUE : random.nextInt(5 << 16);
+            int limit = 1 + random.nextInt(i % 10 == 0 ? 20_000 : 50);
+            int[] page = expected.tailSet(after, false).stream().limit(limit).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(page, bitmap.after(after, limit).toArray(), "after " + after + " limit " + limit);
+        }
+    }
+
+    private static TreeSet<Integer> randomSet(Random random, int size) {
+        TreeSet<Integer> set = new TreeSet<>();
+        while (set.size() < size) set.add(random.nextInt(4 << 16));
+        return set;
+    }
+
+    private static IntList toList(TreeSet<Integer> set) {
+        IntList list = new IntList();
+        for (int id : set) list.add(id);
+        return list;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
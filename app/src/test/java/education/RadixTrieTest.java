@@ -0,0 +1,131 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class RadixTrieTest {
+    private final Map<Integer, Set<String>> keys = new HashMap<>();
+    private final RadixTrie trie = new RadixTrie((id, prefix) -> {
+        for (String key : keys.getOrDefault(id, Set.of())) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    });
+
+    @Test
+    void findsKeysByPrefix() {
+        insert("programming", 1);
+        insert("progress", 2);
+        insert("project", 3);
+        insert("physics", 4);
+        insert("programming", 5);
+        insert("pro", 6);
+
+        assertIds("pro", 1, 2, 3, 5, 6);
+        assertIds("prog", 1, 2, 5);
+        assertIds("programming", 1, 5);
+        assertIds("p", 1, 2, 3, 4, 5, 6);
+        assertIds("programmingx");
+        assertIds("q");
+
+        remove("programming", 1);
+        remove("pro", 6);
+        assertIds("pro", 2, 3, 5);
+        remove("programming", 5);
+        assertIds("prog", 2);
+    }
+
+    @Test
+    void narrowsAndBacksUpPerKeystroke() {
+        insert("progress", 2);
+        insert("project", 3);
+        insert("physics", 4);
+        RadixTrie.Cursor cursor = trie.cursor();
+        assertArrayEquals(new int[] { 2, 3, 4 }, cursor.ids().toArray());
+        cursor.type("pro");
+        assertArrayEquals(new int[] { 2, 3 }, cursor.ids().toArray());
+        assertTrue(cursor.type('g'));
+        assertArrayEquals(new int[] { 2 }, cursor.ids().toArray());
+        assertFalse(cursor.type('z'));
+        assertFalse(cursor.hasMatches());
+        assertEquals(0, cursor.ids().size());
+        cursor.backspace();
+        assertTrue(cursor.hasMatches());
+        assertEquals("prog", cursor.prefix());
+        cursor.backspace();
+        assertArrayEquals(new int[] { 2, 3 }, cursor.ids().toArray());
+
+        // The cursor sees keys changed after it took its results
+        insert("prowl", 7);
+        remove("project", 3);
+        assertArrayEquals(new int[] { 2, 7 }, cursor.ids().toArray());
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomEdits() {
+        Random random = new Random(5);
+        String[] words = new String[300];
+        for (int i = 0; i < words.length; i++) words[i] = randomWord(random);
+        RadixTrie.Cursor cursor = trie.cursor();
+        for (int step = 0; step < 5_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 3) {
+                insert(words[random.nextInt(words.length)], 1 + random.nextInt(200));
+            } else if (action < 4) {
+                int id = 1 + random.nextInt(200);
+                Set<String> owned = keys.get(id);
+                if (owned != null && !owned.isEmpty()) remove(owned.iterator().next(), id);
+            } else if (action < 8 || cursor.prefix().isEmpty()) {
+                cursor.type((char) ('a' + random.nextInt(3)));
+            } else {
+                cursor.backspace();
+            }
+            int[] expected = expected(cursor.prefix());
+            assertArrayEquals(expected, cursor.ids().toArray(), "prefix " + cursor.prefix());
+            assertEquals(expected.length > 0, cursor.hasMatches() && cursor.ids().size() > 0);
+        }
+    }
+
+    private void insert(String key, int id) {
+        if (keys.computeIfAbsent(id, k -> new HashSet<>()).add(key)) trie.insert(key, id);
+    }
+
+    private void remove(String key, int id) {
+        keys.get(id).remove(key);
+        trie.remove(key, id);
+    }
+
+    private void assertIds(String prefix, int... expected) {
+        RadixTrie.Cursor cursor = trie.cursor();
+        cursor.type(prefix);
+        assertArrayEquals(expected, cursor.ids().toArray(), prefix);
+        assertArrayEquals(expected(prefix), expected, prefix);
+    }
+
+    private int[] expected(String prefix) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        keys.forEach((id, owned) -> {
+            for (String key : owned) {
+                if (key.startsWith(prefix)) ids.add(id);
+            }
+        });
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) word.append((char) ('a' + random.nextInt(3)));
+        return word.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotTest {
+    private static final PrintStream QUIET = new PrintStream(OutputStream.nullOutputStream());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresEntitiesAndIndexesFromSnapshotAndLog() throws IOException {
+        EducationService service = new EducationService();
+        assertFalse(service.openDataLog(directory, QUIET));
+        populate(service);
+        service.getJournal().checkpoint();
+        assertTrue(Files.size(directory.resolve("education.snap")) > 0);
+
+        // Changes after the checkpoint come back from the log
+        Course course = service.courses().asList().get(0);
+        service.updateCourse(course.getCourseId(), "Advanced Programming", null, 6, null);
+        Enrollment enrollment = service.enrollments().asList().get(0);
+        service.setEnrollmentStatus(enrollment.getEnrollmentId(), EnrollmentStatus.APPROVED);
+        service.setAssignmentStatus(service.assignments().asList().get(1).getAssignmentId(), AssignmentStatus.GRADED);
+        service.students().asList().get(2).setEmail("changed@example.com");
+        String before = describe(service);
+        long rows = service.students().size() + service.courses().size() + service.instructors().size()
+                  + service.enrollments().size()
+                  + service.assignments().size() + service.grades().size();
+        service.close();
+
+        EducationService restored = new EducationService();
+        assertTrue(restored.openDataLog(directory, QUIET));
+        assertEquals(rows, restored.getJournal().getSnapshotRows());
+        // One record per changed field
+        assertEquals(5, restored.getJournal().getReplayedRecords());
+        assertEquals(before, describe(restored));
+        restored.close();
+    }
+
+    @Test
+    void checkpointAfterRestoreLeavesRowsUnbuilt() throws IOException {
+        EducationService service = new EducationService();
+        service.openDataLog(directory, QUIET);
+        populate(service);
+        service.getJournal().checkpoint();
+        String before = describe(service);
+        service.close();
+
+        EducationService restored = new EducationService();
+        restored.openDataLog(directory, QUIET);
+        restored.getJournal().checkpoint();
+        assertUnbuilt(restored.students());
+        assertUnbuilt(restored.courses());
+        assertUnbuilt(restored.instructors());
+        assertUnbuilt(restored.assignments());
+        restored.close();
+
+        EducationService reopened = new EducationService();
+        reopened.openDataLog(directory, QUIET);
+        assertEquals(before, describe(reopened));
+        reopened.close();
+    }
+
+    private static void populate(EducationService service) {
+        LocalDateTime due = LocalDateTime.of(2030, 5, 1, 23, 59);
+        for (int i = 0; i < 30; i++) {
+            service.addStudent("First" + i, "Last" + i, "student" + i + "@example.com", "555-01" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            service.addCourse("PROG" + i, "Programming " + i, "Course " + i, 1 + i, i % 2 == 0 ? "Computing" : "Physics");
+        }
+        int grade = 0;
+        for (Student student : service.students().asList()) {
+            for (Course course : service.courses().asList()) {
+                if ((student.getStudentId() + course.getCourseId()) % 3 != 0) continue;
+                Enrollment enrollment = service.enroll(student.getStudentId(), course.getCourseId(), "Term " + grade);
+                Assignment assignment = service.createAssignment(enrollment.getEnrollmentId(), "Essay", "Draft", due);
+                service.recordGrade(student.getStudentId(), assignment.getAssignmentId(), 50 + grade++ % 50, "Noted");
+            }
+        }
+        service.instructors().add(new Instructor("Grace Hopper", "555-0199", "grace@example.com", "Compilers"));
+    }
+
+    private static void assertUnbuilt(Repository<?> repository) {
+        assertTrue(repository.size() > 0);
+        for (int row = 0; row < repository.size(); row++) {
+            assertFalse(repository.isMaterialized(row), "row " + row);
+        }
+    }
+
+    private static String describe(EducationService service) {
+        StringBuilder out = new StringBuilder();
+        for (Student s : service.students().asList()) {
+            out.append(s.getStudentId()).append(s.getFirstName()).append(s.getEmail()).append(s.getPhone()).append('\n');
+        }
+        for (Course c : service.courses().asList()) {
+            out.append(c.getCourseId()).append(c.getCourseCode()).append(c.getCourseName()).append(c.getCredits())
+               .append(c.getDepartment()).append('\n');
+        }
+        for (Enrollment e : service.enrollments().asList()) {
+            out.append(e.getEnrollmentId()).append(e.getStudentId()).append(e.getCourseId()).append(e.getDescription())
+               .append(e.getStatus()).append('\n');
+        }
+        for (Assignment a : service.assignments().asList()) {
+            out.append(a.getAssignmentId()).append(a.getEnrollmentId()).append(a.getTitle()).append(a.getDueDateTime())
+               .append(a.getStatus()).append('\n');
+        }
+        for (Grade g : service.grades().asList()) {
+            out.append(g.getGradeId()).append(g.getStudentId()).append(g.getAssignmentId()).append(g.getScore())
+               .append(g.getComments()).append('\n');
+        }
+        for (Instructor i : service.instructors().asList()) {
+            out.append(i.getInstructorId()).append(i.getName()).append(i.getEmail()).append(i.getSpecialization())
+               .append('\n');
+        }
+        for (Course c : service.findCourses("prog", 50).getHits()) out.append("prog ").append(c.getCourseId()).append('\n');
+        for (Course c : service.findCourses("advanced", 50).getHits()) out.append("advanced ").append(c.getCourseId()).append('\n');
+        for (EnrollmentStatus status : EnrollmentStatus.values()) {
+            out.append(status).append(service.enrollmentStatusIndex().count(status)).append('\n');
+        }
+        for (AssignmentStatus status : AssignmentStatus.values()) {
+            out.append(status).append(service.assignmentStatusIndex().count(status)).append('\n');
+        }
+        for (Student s : service.students().asList()) {
+            out.append(s.getStudentId()).append(" gpa ").append(service.gpaIndex().gpaOf(s.getStudentId()))
+               .append(" rank ").append(service.gpaIndex().rankOf(s.getStudentId())).append('\n');
+        }
+        out.append(service.getStatistics().getAverageScore());
+        return out.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package education;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryIntactRecord() throws IOException {
+        Path path = write(5);
+        assertEquals(List.of("record 0", "record 1", "record 2", "record 3", "record 4"), replay(path));
+    }
+
+    @Test
+    void truncatesATornTail() throws IOException {
+        Path path = write(5);
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        assertEquals(4, replay(path).size());
+        assertEquals(size - frameBytes("record 4"), Files.size(path));
+    }
+
+    @Test
+    void truncatesARecordWithABadChecksum() throws IOException {
+        Path path = write(3);
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'X' }), size - 1);
+        }
+        assertEquals(List.of("record 0", "record 1"), replay(path));
+        assertEquals(size - frameBytes("record 2"), Files.size(path));
+    }
+
+    @Test
+    void truncatesGarbageFrameLengths() throws IOException {
+        for (int length : new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE - 7, 400_000_000, 1_000, 0, -1 }) {
+            Path path = write(2);
+            long size = Files.size(path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(9).putInt(length).putInt(0).put((byte) 1).flip(), size);
+            }
+            assertEquals(2, replay(path).size(), "frame length " + length);
+            assertEquals(size, Files.size(path), "frame length " + length);
+        }
+    }
+
+    @Test
+    void appendsAfterATruncatedTail() throws IOException {
+        Path path = write(3);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 1);
+        }
+        try (WriteAheadLog log = WriteAheadLog.open(path, 0, (type, payload) -> { })) {
+            log.awaitDurable(log.append((byte) 1, utf8("after")));
+        }
+        assertEquals(List.of("record 0", "record 1", "after"), replay(path));
+    }
+
+    @Test
+    void skipsALogOlderThanTheSnapshot() throws IOException {
+        Path path = write(3);
+        try (WriteAheadLog log = WriteAheadLog.open(path, 1, (type, payload) -> { })) {
+            assertEquals(0, log.records());
+        }
+        assertEquals(List.of(), replay(path, 1));
+    }
+
+    private Path write(int records) throws IOException {
+        Path path = Files.createTempFile(directory, "education", ".wal");
+        Files.delete(path);
+        try (WriteAheadLog log = WriteAheadLog.open(path, 0, (type, payload) -> { })) {
+            long sequence = 0;
+            for (int i = 0; i < records; i++) sequence = log.append((byte) 1, utf8("record " + i));
+            log.awaitDurable(sequence);
+        }
+        return path;
+    }
+
+    private static List<String> replay(Path path) throws IOException {
+        return replay(path, 0);
+    }
+
+    private static List<String> replay(Path path, long generation) throws IOException {
+        List<String> records = new ArrayList<>();
+        WriteAheadLog log = WriteAheadLog.open(path, generation,
+                                               (type, payload) -> records.add(StandardCharsets.UTF_8.decode(payload).toString()));
+        log.close();
+        return records;
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Length and checksum ints, type byte, payload
+    private static long frameBytes(String payload) {
+        return 9 + payload.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,148 @@
+package education;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Hot paths of EducationService at dataset sizes from 1k to 10M students. Every
+// trial fills its own in-memory service (no data log) from DatasetGenerator with a
+// fixed seed, so each size always measures the same data.
+// Keys are drawn up front from a fixed seed and cycled, which keeps the random
+// number generator out of the measurement.
+//
+//   java -jar benchmarks/target/benchmarks.jar -rf json -rff result.json
+//   java -jar benchmarks/target/benchmarks.jar -p students=1000,100000 searchStudents
+//
+// The 10M size needs a large heap: add -jvmArgsAppend -Xmx16g.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmarks {
+    private static final int KEYS = 4096;
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+        public int students;
+
+        EducationService service;
+        int courses;
+        int[] studentIds = new int[KEYS];
+        int[] courseIds = new int[KEYS];
+        int[] assignmentIds = new int[KEYS];
+        int[] gradeIds = new int[KEYS];
+        double[] scores = new double[KEYS];
+        String[] studentTerms = new String[KEYS];
+        String[] courseTerms = new String[KEYS];
+
+        @Setup(Level.Trial)
+        public void build() {
+            service = new EducationService();
+            courses = DatasetGenerator.defaultCourses(students);
+            new DatasetGenerator(42, students, courses).fill(service);
+            SplittableRandom random = new SplittableRandom(7);
+            String[] firstNames = DatasetGenerator.FIRST_NAMES;
+            String[] lastNames = DatasetGenerator.LAST_NAMES;
+            String[] subjects = DatasetGenerator.SUBJECTS;
+            String[] codes = DatasetGenerator.DEPARTMENT_CODES;
+            for (int i = 0; i < KEYS; i++) {
+                studentIds[i] = 1 + random.nextInt(students);
+                courseIds[i] = 1 + random.nextInt(courses);
+                assignmentIds[i] = 1 + random.nextInt(service.assignments().size());
+                gradeIds[i] = 1 + random.nextInt(service.grades().size());
+                scores[i] = random.nextInt(10_001) / 100.0;
+                studentTerms[i] = switch (i % 3) {
+                    case 0 -> lastNames[random.nextInt(lastNames.length)].toLowerCase(Locale.ROOT);
+                    case 1 -> firstNames[random.nextInt(firstNames.length)].toLowerCase(Locale.ROOT).substring(0, 3);
+                    default -> (1 + random.nextInt(students)) + "@exa";
+                };
+                courseTerms[i] = i % 2 == 0 ? subjects[random.nextInt(subjects.length)].toLowerCase(Locale.ROOT).substring(0, 4)
+                                            : codes[random.nextInt(codes.length)].toLowerCase(Locale.ROOT);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int key() {
+            return next++ & (KEYS - 1);
+        }
+    }
+
+    // ID lookup as done by the update operations
+    @Benchmark
+    public Object lookupStudent(Dataset data, Cursor cursor) {
+        return data.service.students().findById(data.studentIds[cursor.key()]);
+    }
+
+    @Benchmark
+    public int searchStudents(Dataset data, Cursor cursor) {
+        return data.service.findStudents(data.studentTerms[cursor.key()], 50).getTotalMatches();
+    }
+
+    @Benchmark
+    public int searchCourses(Dataset data, Cursor cursor) {
+        return data.service.findCourses(data.courseTerms[cursor.key()], 50).getTotalMatches();
+    }
+
+    // Duplicate check run before every enrollment
+    @Benchmark
+    public boolean enrollmentDuplicateCheck(Dataset data, Cursor cursor) {
+        int key = cursor.key();
+        return data.service.isEnrolled(data.studentIds[key], data.courseIds[key]);
+    }
+
+    // Every figure of the statistics dashboard
+    @Benchmark
+    public double statistics(Dataset data) {
+        EducationService service = data.service;
+        long total = service.students().size() + service.courses().size() + service.instructors().size()
+                   + service.enrollments().size() + service.assignments().size() + service.grades().size();
+        for (EnrollmentStatus status : EnrollmentStatus.values()) total += service.enrollmentStatusIndex().count(status);
+        for (AssignmentStatus status : AssignmentStatus.values()) total += service.assignmentStatusIndex().count(status);
+        StatisticsAggregator statistics = service.getStatistics();
+        for (String letter : new String[] { "A", "B", "C", "D", "F" }) total += statistics.getGradeCount(letter);
+        return total + statistics.getAverageScore();
+    }
+
+    // Average score per department over every grade; parallel on the common pool
+    // from GradeAnalytics.PARALLEL_THRESHOLD grades on, so compare runs with
+    // -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N
+    @Benchmark
+    public int analyticsByDepartment(Dataset data) {
+        return data.service.analyzeScores(GradeAnalytics.GroupBy.DEPARTMENT).getGroups().size();
+    }
+
+    // Construction including the letter grade, without adding it to the store
+    @Benchmark
+    public String createGrade(Dataset data, Cursor cursor) {
+        int key = cursor.key();
+        return new Grade(data.studentIds[key], data.assignmentIds[key], data.scores[key], null).getGrade();
+    }
+
+    @Benchmark
+    public String renderStudent(Dataset data, Cursor cursor) {
+        return data.service.students().findById(data.studentIds[cursor.key()]).toString();
+    }
+
+    @Benchmark
+    public String renderGrade(Dataset data, Cursor cursor) {
+        return data.service.grades().findById(data.gradeIds[cursor.key()]).toString();
+    }
+}